@@ -41,6 +41,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -54,7 +55,9 @@ import org.restlet.data.Status;
 import org.restlet.engine.Engine;
 import org.restlet.engine.connector.ConnectorHelper;
 import org.restlet.engine.log.LoggingThreadFactory;
+import org.restlet.engine.util.SystemUtils;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
+import org.restlet.ext.nio.internal.util.DelayMonitor;
 
 /**
  * Base connector helper. Here is the list of parameters that are supported.
@@ -145,6 +148,16 @@ import org.restlet.ext.nio.internal.controller.ConnectionController;
  * never block, otherwise the other connections would hang.</td>
  * </tr>
  * <tr>
+ * <td>virtualThreads</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the worker service should run each call on a new virtual
+ * thread instead of a pool of platform threads. In this mode, the minThreads,
+ * lowThreads, maxThreads and maxQueued parameters are ignored so that blocking
+ * calls don't limit the concurrency. Requires a Java Runtime Environment
+ * supporting virtual threads (Java 21 or later), otherwise it is ignored.</td>
+ * </tr>
+ * <tr>
  * <td>inboundBufferSize</td>
  * <td>int</td>
  * <td>16 * 1024</td>
@@ -202,6 +215,9 @@ public abstract class BaseHelper<T extends Connector> extends
     /** The worker service. */
     private volatile ThreadPoolExecutor workerService;
 
+    /** The monitor of the delay spent by tasks in the worker queue. */
+    private final DelayMonitor workerQueueDelay;
+
     /**
      * Constructor.
      * 
@@ -215,6 +231,7 @@ public abstract class BaseHelper<T extends Connector> extends
         this.clientSide = clientSide;
         this.inboundMessages = new ConcurrentLinkedQueue<Response>();
         this.outboundMessages = new ConcurrentLinkedQueue<Response>();
+        this.workerQueueDelay = new DelayMonitor();
         this.controller = createController();
     }
 
@@ -276,6 +293,20 @@ public abstract class BaseHelper<T extends Connector> extends
      * @return The handler service.
      */
     protected ThreadPoolExecutor createWorkerService() {
+        if (isVirtualThreadsRequested()) {
+            if (SystemUtils.isVirtualThreadsSupported()) {
+                // One virtual thread per call, idle ones aren't worth keeping
+                return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L,
+                        TimeUnit.MILLISECONDS,
+                        new SynchronousQueue<Runnable>(),
+                        new LoggingThreadFactory(getLogger(), true, true));
+            }
+
+            getLogger()
+                    .warning(
+                            "Virtual threads aren't supported by this Java Runtime Environment. Using a pool of platform threads instead.");
+        }
+
         int maxThreads = getMaxThreads();
         int minThreads = getMinThreads();
 
@@ -295,6 +326,17 @@ public abstract class BaseHelper<T extends Connector> extends
         result.setRejectedExecutionHandler(new RejectedExecutionHandler() {
             public void rejectedExecution(Runnable r,
                     ThreadPoolExecutor executor) {
+                if (isLoadShedding()) {
+                    getLogger().fine(
+                            "Unable to run the following "
+                                    + (isClientSide() ? "client-side"
+                                            : "server-side") + " task: " + r);
+                    traceWorkerService();
+
+                    // Let the caller handle the rejected task
+                    throw new RejectedExecutionException(r.toString());
+                }
+
                 getLogger().warning(
                         "Unable to run the following "
                                 + (isClientSide() ? "client-side"
@@ -367,18 +409,30 @@ public abstract class BaseHelper<T extends Connector> extends
 
     /**
      * Executes the next task in a separate thread provided by the worker
-     * service, only if the worker service isn't busy.
+     * service, only if the worker service accepts it. Unless the load shedding
+     * is enabled, the task isn't submitted while the controller is overloaded.
      * 
      * @param task
      *            The next task to execute.
+     * @return True if the task was accepted by the worker service.
      */
-    protected void execute(Runnable task) {
+    protected boolean execute(Runnable task) {
+        boolean result = false;
+
         try {
-            if (!getController().isOverloaded() && (getWorkerService() != null)
+            if ((isLoadShedding() || !getController().isOverloaded())
+                    && (getWorkerService() != null)
                     && !getWorkerService().isShutdown()
                     && getController().isRunning()) {
                 getWorkerService().execute(task);
+                result = true;
             }
+        } catch (RejectedExecutionException e) {
+            getLogger().log(
+                    Level.FINE,
+                    "The worker service rejected a "
+                            + (isClientSide() ? "client-side" : "server-side")
+                            + " controller task");
         } catch (Exception e) {
             getLogger().log(
                     Level.WARNING,
@@ -386,6 +440,8 @@ public abstract class BaseHelper<T extends Connector> extends
                             + (isClientSide() ? "client-side" : "server-side")
                             + " controller task", e);
         }
+
+        return result;
     }
 
     /**
@@ -397,6 +453,15 @@ public abstract class BaseHelper<T extends Connector> extends
         return controller;
     }
 
+    /**
+     * Returns the controller service.
+     * 
+     * @return The controller service.
+     */
+    protected ExecutorService getControllerService() {
+        return controllerService;
+    }
+
     /**
      * Returns the time for the controller thread to sleep between each control.
      * 
@@ -558,6 +623,17 @@ public abstract class BaseHelper<T extends Connector> extends
         return getHelpedParameters().getFirstValue("transport", "TCP");
     }
 
+    /**
+     * Returns the monitor of the delay spent by tasks in the worker service
+     * queue before being run by a worker thread. This delay builds up when the
+     * worker threads can't keep up with the incoming calls.
+     * 
+     * @return The monitor of the delay spent by tasks in the worker queue.
+     */
+    public DelayMonitor getWorkerQueueDelay() {
+        return workerQueueDelay;
+    }
+
     /**
      * Returns the connection handler service.
      * 
@@ -588,8 +664,12 @@ public abstract class BaseHelper<T extends Connector> extends
             if (synchronous || !hasWorkerThreads()) {
                 doHandleInbound(response);
             } else {
-                execute(new Runnable() {
+                final long queuedTime = System.nanoTime();
+                boolean accepted = execute(new Runnable() {
                     public void run() {
+                        getWorkerQueueDelay().record(
+                                System.nanoTime() - queuedTime);
+
                         try {
                             doHandleInbound(response);
                         } finally {
@@ -602,6 +682,10 @@ public abstract class BaseHelper<T extends Connector> extends
                         return "Handle inbound messages";
                     }
                 });
+
+                if (!accepted && isLoadShedding()) {
+                    onInboundRejected(response);
+                }
             }
         }
     }
@@ -627,8 +711,12 @@ public abstract class BaseHelper<T extends Connector> extends
             if (synchronous || !hasWorkerThreads()) {
                 doHandleOutbound(response);
             } else {
-                execute(new Runnable() {
+                final long queuedTime = System.nanoTime();
+                boolean accepted = execute(new Runnable() {
                     public void run() {
+                        getWorkerQueueDelay().record(
+                                System.nanoTime() - queuedTime);
+
                         try {
                             doHandleOutbound(response);
                         } finally {
@@ -641,6 +729,11 @@ public abstract class BaseHelper<T extends Connector> extends
                         return "Handle outbound messages";
                     }
                 });
+
+                if (!accepted && isLoadShedding()) {
+                    // Don't lose the message, retry on the next loop
+                    getOutboundMessages().add(response);
+                }
             }
         }
     }
@@ -685,6 +778,17 @@ public abstract class BaseHelper<T extends Connector> extends
                         "directBuffers", "false"));
     }
 
+    /**
+     * Indicates if the adaptive load shedding is enabled. In this case, the
+     * tasks rejected by the worker service are handed back to the caller
+     * instead of being dropped. Returns false by default.
+     * 
+     * @return True if the adaptive load shedding is enabled.
+     */
+    protected boolean isLoadShedding() {
+        return false;
+    }
+
     /**
      * Indicates if it is helping a server connector.
      * 
@@ -704,15 +808,39 @@ public abstract class BaseHelper<T extends Connector> extends
                 "tracing", "false"));
     }
 
+    /**
+     * Indicates if the worker service should run each call on a new virtual
+     * thread. Returns false if the Java Runtime Environment doesn't support
+     * virtual threads.
+     * 
+     * @return True if the worker service should run each call on a new virtual
+     *         thread.
+     */
+    public boolean isVirtualThreads() {
+        return SystemUtils.isVirtualThreadsSupported()
+                && isVirtualThreadsRequested();
+    }
+
+    /**
+     * Indicates if the "virtualThreads" parameter is true, whether or not the
+     * Java Runtime Environment supports virtual threads.
+     * 
+     * @return True if the "virtualThreads" parameter is true.
+     */
+    private boolean isVirtualThreadsRequested() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "virtualThreads", "false"));
+    }
+
     /**
      * Indicates if the worker service is busy. This state is detected by
      * checking if the number of active task running is superior or equal to the
-     * maximum pool size.
+     * maximum pool size. Never true when running calls on virtual threads.
      * 
      * @return True if the worker service is busy.
      */
     public boolean isWorkerServiceOverloaded() {
-        return (getWorkerService() != null)
+        return (getWorkerService() != null) && !isVirtualThreads()
                 && getWorkerService().getActiveCount() >= getLowThreads();
     }
 
@@ -731,6 +859,19 @@ public abstract class BaseHelper<T extends Connector> extends
         }
     }
 
+    /**
+     * Called when the worker service rejected the handling of an inbound
+     * message while the load shedding is enabled. By default, the message is
+     * queued again so that it isn't lost and is handled on the next controller
+     * loop, without blocking the controller thread.
+     * 
+     * @param response
+     *            The rejected message.
+     */
+    protected void onInboundRejected(Response response) {
+        getInboundMessages().add(response);
+    }
+
     /**
      * Called on error. Unblocks the message.
      * 
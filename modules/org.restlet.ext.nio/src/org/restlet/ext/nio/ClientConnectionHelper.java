@@ -38,7 +38,13 @@ import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.nio.channels.SocketChannel;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.restlet.Client;
@@ -62,6 +68,13 @@ import org.restlet.ext.nio.internal.state.ConnectionState;
  * <th>Description</th>
  * </tr>
  * <tr>
+ * <td>maxQueueWaitTimeMs</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Maximum time a request can wait in its host queue for a connection
+ * before failing, or 0 for unlimited wait.</td>
+ * </tr>
+ * <tr>
  * <td>proxyHost</td>
  * <td>String</td>
  * <td>System property "http.proxyHost"</td>
@@ -80,6 +93,12 @@ import org.restlet.ext.nio.internal.state.ConnectionState;
  * <td>The socket connection timeout or 0 for unlimited wait.</td>
  * </tr>
  * </table>
+ * <br>
+ * When the "maxConnectionsPerHost" or "maxTotalConnections" limits are
+ * reached, requests are kept in a FIFO queue per target host and dispatched as
+ * soon as a persistent connection becomes available. If the
+ * "pipeliningConnections" parameter is true, idempotent requests can also be
+ * pipelined on a busy connection, up to "maxPipelined" requests.
  * 
  * @author Jerome Louvel
  */
@@ -87,6 +106,20 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
 
     protected static final String CONNECTOR_LATCH = "org.restlet.engine.connector.latch";
 
+    protected static final String CONNECTOR_QUEUE_TIME = "org.restlet.engine.connector.queueTime";
+
+    /** The queues of requests waiting for a connection, per target host. */
+    private final ConcurrentMap<InetSocketAddress, Queue<Response>> hostQueues;
+
+    /** The number of requests dispatched after waiting in a host queue. */
+    private final AtomicLong queueWaitCount;
+
+    /** The maximum time spent by a request in a host queue. */
+    private final AtomicLong queueWaitMaxTimeMs;
+
+    /** The total time spent by requests in host queues. */
+    private final AtomicLong queueWaitTotalTimeMs;
+
     /**
      * Constructor.
      * 
@@ -95,6 +128,49 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
      */
     public ClientConnectionHelper(Client connector) {
         super(connector, true);
+        this.hostQueues = new ConcurrentHashMap<InetSocketAddress, Queue<Response>>();
+        this.queueWaitCount = new AtomicLong();
+        this.queueWaitMaxTimeMs = new AtomicLong();
+        this.queueWaitTotalTimeMs = new AtomicLong();
+    }
+
+    /**
+     * Indicates if the given request can be pipelined on a busy connection.
+     * This requires a pipelining connection, an idempotent request and less
+     * than "maxPipelined" messages handled by the connection.
+     * 
+     * @param connection
+     *            The busy connection.
+     * @param request
+     *            The request to send.
+     * @return True if the request can be pipelined on the connection.
+     */
+    protected boolean canPipeline(Connection<Client> connection,
+            Request request) {
+        return connection.isPipelining()
+                && (connection.getState() == ConnectionState.OPEN)
+                && connection.isPersistent()
+                && request.getMethod().isIdempotent()
+                && (connection.getLoadScore() < getMaxPipelined());
+    }
+
+    @Override
+    public boolean control() {
+        boolean result = super.control();
+
+        for (Map.Entry<InetSocketAddress, Queue<Response>> entry : getHostQueues()
+                .entrySet()) {
+            if (dispatchQueuedRequests(entry.getKey(), entry.getValue())) {
+                result = true;
+            }
+
+            // Forget the drained queues so that idle hosts don't accumulate
+            if (entry.getValue().isEmpty()) {
+                getHostQueues().remove(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return result;
     }
 
     @Override
@@ -161,6 +237,77 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                 hostPort));
     }
 
+    /**
+     * Dispatches the requests waiting in a host queue onto the connections
+     * that can handle them, in FIFO order. Requests that waited longer than
+     * the "maxQueueWaitTimeMs" parameter fail with a
+     * {@link Status#CONNECTOR_ERROR_COMMUNICATION} status.
+     * 
+     * @param socketAddress
+     *            The target host socket address.
+     * @param queue
+     *            The host queue.
+     * @return True if some requests were dispatched or failed.
+     */
+    protected boolean dispatchQueuedRequests(InetSocketAddress socketAddress,
+            Queue<Response> queue) {
+        boolean result = false;
+        boolean dispatching = true;
+        int maxWaitTimeMs = getMaxQueueWaitTimeMs();
+
+        while (dispatching && !queue.isEmpty()) {
+            Response response = queue.peek();
+            long waitTimeMs = getQueueWaitTimeMs(response);
+
+            if ((maxWaitTimeMs > 0) && (waitTimeMs > maxWaitTimeMs)) {
+                queue.poll();
+                getLogger().log(
+                        Level.FINE,
+                        "Request waited too long for a connection to: "
+                                + socketAddress);
+                onOutboundError(Status.CONNECTOR_ERROR_COMMUNICATION, response);
+                result = true;
+            } else {
+                try {
+                    Connection<Client> bestConn = getBestConnection(
+                            response.getRequest(), socketAddress);
+
+                    if (bestConn == null) {
+                        dispatching = false;
+                    } else {
+                        queue.poll();
+                        response.getRequest().getAttributes()
+                                .remove(CONNECTOR_QUEUE_TIME);
+                        this.queueWaitCount.incrementAndGet();
+                        this.queueWaitTotalTimeMs.addAndGet(waitTimeMs);
+
+                        long maxTimeMs = this.queueWaitMaxTimeMs.get();
+
+                        while ((waitTimeMs > maxTimeMs)
+                                && !this.queueWaitMaxTimeMs.compareAndSet(
+                                        maxTimeMs, waitTimeMs)) {
+                            maxTimeMs = this.queueWaitMaxTimeMs.get();
+                        }
+
+                        bestConn.getOutboundWay().handle(response);
+                        result = true;
+                    }
+                } catch (Throwable t) {
+                    queue.poll();
+                    getLogger()
+                            .log(Level.FINE,
+                                    "An error occured during the communication with the remote server.",
+                                    t);
+                    response.setStatus(Status.CONNECTOR_ERROR_COMMUNICATION, t);
+                    unblock(response);
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public void doHandleInbound(Response response) {
         if (response != null) {
@@ -194,11 +341,32 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                                     + response.getRequest());
                 }
 
-                Connection<Client> bestConn = getBestConnection(response
+                InetSocketAddress socketAddress = getSocketAddress(response
                         .getRequest());
+                Queue<Response> queue = (socketAddress == null) ? null
+                        : getHostQueues().get(socketAddress);
+                Connection<Client> bestConn = null;
+
+                if ((queue == null) || queue.isEmpty()) {
+                    bestConn = getBestConnection(response.getRequest(),
+                            socketAddress);
+                }
 
                 if (bestConn != null) {
                     bestConn.getOutboundWay().handle(response);
+                } else if (socketAddress != null) {
+                    // Wait for a connection to the same host to be available
+                    if (getLogger().isLoggable(Level.FINE)) {
+                        getLogger().log(
+                                Level.FINE,
+                                "Queuing the request until a connection to "
+                                        + socketAddress + " is available");
+                    }
+
+                    response.getRequest().getAttributes()
+                            .put(CONNECTOR_QUEUE_TIME,
+                                    System.currentTimeMillis());
+                    enqueue(socketAddress, response);
                 } else {
                     getLogger().log(Level.WARNING,
                             "Unable to find a connection to send the request");
@@ -217,6 +385,41 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
         }
     }
 
+    /**
+     * Adds a request to the queue of its target host, creating the queue if
+     * needed. As drained queues are removed by {@link #control()}, the queue
+     * is checked again after the addition and the request moved to a new
+     * queue if it was removed in the meantime.
+     * 
+     * @param socketAddress
+     *            The target host socket address.
+     * @param response
+     *            The response of the request to queue.
+     */
+    private void enqueue(InetSocketAddress socketAddress, Response response) {
+        boolean queued = false;
+
+        while (!queued) {
+            Queue<Response> queue = getHostQueues().get(socketAddress);
+
+            if (queue == null) {
+                queue = new ConcurrentLinkedQueue<Response>();
+                Queue<Response> existing = getHostQueues().putIfAbsent(
+                        socketAddress, queue);
+
+                if (existing != null) {
+                    queue = existing;
+                }
+            }
+
+            queue.add(response);
+
+            // Unless already dispatched, retry if the queue was removed
+            queued = (getHostQueues().get(socketAddress) == queue)
+                    || !queue.remove(response);
+        }
+    }
+
     /**
      * Tries to reuse an existing connection for the given request, or creates a
      * new one. It may return null if the maximum number of connections per host
@@ -230,6 +433,26 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
      */
     protected Connection<Client> getBestConnection(Request request)
             throws UnknownHostException, IOException {
+        return getBestConnection(request, getSocketAddress(request));
+    }
+
+    /**
+     * Tries to reuse an existing connection to the given socket address for
+     * the given request, or creates a new one. Busy connections are only
+     * reused if the request can be pipelined. It may return null if the
+     * maximum number of connections per host or in general is reached.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param socketAddress
+     *            The target host socket address.
+     * @return An existing connection able to handle the request or new one.
+     * @throws UnknownHostException
+     * @throws IOException
+     */
+    protected Connection<Client> getBestConnection(Request request,
+            InetSocketAddress socketAddress) throws UnknownHostException,
+            IOException {
         Connection<Client> result = null;
 
         // Try to reuse an existing connection for the same host and
@@ -238,9 +461,6 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
         int bestScore = Integer.MAX_VALUE;
         boolean foundConn = false;
 
-        // Determine the target host domain and port of the request.
-        InetSocketAddress socketAddress = getSocketAddress(request);
-
         if (socketAddress == null) {
             getLogger()
                     .log(Level.WARNING,
@@ -258,16 +478,17 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                         foundConn = true;
                     } else if (currConn.getState().compareTo(
                             ConnectionState.OPEN) <= 0) {
-                        // Assign the request to the busy connection that
+                        // Pipeline the request on the busy connection that
                         // handles the less number of messages. This is useful
                         // in case the maximum number of connections has been
-                        // reached. As a drawback, the message will only be
-                        // handled as soon as possible.
-                        int currScore = currConn.getLoadScore();
-
-                        if (bestScore > currScore) {
-                            bestScore = currScore;
-                            result = currConn;
+                        // reached.
+                        if (canPipeline(currConn, request)) {
+                            int currScore = currConn.getLoadScore();
+
+                            if (bestScore > currScore) {
+                                bestScore = currScore;
+                                result = currConn;
+                            }
                         }
 
                         hostConnectionCount++;
@@ -286,25 +507,25 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                     && (getConnections().size() >= getMaxTotalConnections())) {
                 if (result == null) {
                     getLogger()
-                            .log(Level.WARNING,
+                            .log(Level.FINE,
                                     "Unable to create a new connection. Maximum total number of connections reached!");
                 } else {
                     getLogger().log(
                             Level.FINE,
-                            "Enqueue Request to an existing client connection to: "
+                            "Pipelining the request on an existing client connection to: "
                                     + socketAddress);
                 }
             } else if ((getMaxConnectionsPerHost() != -1)
                     && (hostConnectionCount >= getMaxConnectionsPerHost())) {
                 if (result == null) {
                     getLogger()
-                            .log(Level.WARNING,
+                            .log(Level.FINE,
                                     "Unable to create a new connection. Maximum number of connections reached for host: "
                                             + socketAddress);
                 } else {
                     getLogger().log(
                             Level.FINE,
-                            "Enqueue Request to an existing client connection to: "
+                            "Pipelining the request on an existing client connection to: "
                                     + socketAddress);
                 }
             } else {
@@ -326,6 +547,28 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
         return result;
     }
 
+    /**
+     * Returns the queues of requests waiting for a connection, per target
+     * host.
+     * 
+     * @return The queues of requests waiting for a connection, per target
+     *         host.
+     */
+    protected ConcurrentMap<InetSocketAddress, Queue<Response>> getHostQueues() {
+        return hostQueues;
+    }
+
+    /**
+     * Returns the maximum time a request can wait in its host queue for a
+     * connection, or 0 for unlimited wait.
+     * 
+     * @return The maximum time a request can wait in its host queue.
+     */
+    public int getMaxQueueWaitTimeMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxQueueWaitTimeMs", "0"));
+    }
+
     /**
      * Returns the host name of the HTTP proxy, if specified.
      * 
@@ -410,6 +653,62 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
         return result;
     }
 
+    /**
+     * Returns the number of requests currently waiting in the host queues.
+     * 
+     * @return The number of requests currently waiting in the host queues.
+     */
+    public int getQueuedRequestCount() {
+        int result = 0;
+
+        for (Queue<Response> queue : getHostQueues().values()) {
+            result += queue.size();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of requests dispatched after waiting in a host queue.
+     * 
+     * @return The number of requests dispatched after waiting in a host queue.
+     */
+    public long getQueueWaitCount() {
+        return this.queueWaitCount.get();
+    }
+
+    /**
+     * Returns the maximum time spent by a request in a host queue.
+     * 
+     * @return The maximum time spent by a request in a host queue.
+     */
+    public long getQueueWaitMaxTimeMs() {
+        return this.queueWaitMaxTimeMs.get();
+    }
+
+    /**
+     * Returns the time spent by a queued request in its host queue so far.
+     * 
+     * @param response
+     *            The queued response.
+     * @return The time spent by a queued request in its host queue so far.
+     */
+    private long getQueueWaitTimeMs(Response response) {
+        Long queueTime = (Long) response.getRequest().getAttributes()
+                .get(CONNECTOR_QUEUE_TIME);
+        return (queueTime == null) ? 0L : System.currentTimeMillis()
+                - queueTime.longValue();
+    }
+
+    /**
+     * Returns the total time spent by requests in host queues.
+     * 
+     * @return The total time spent by requests in host queues.
+     */
+    public long getQueueWaitTotalTimeMs() {
+        return this.queueWaitTotalTimeMs.get();
+    }
+
     /**
      * Returns the socket connection timeout.
      * 
@@ -488,6 +787,18 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
     @Override
     public void stop() throws Exception {
         getLogger().info("Stopping the internal " + getProtocols() + " client");
+
+        // Unblock the requests still waiting for a connection
+        for (Queue<Response> queue : getHostQueues().values()) {
+            for (Response response = queue.poll(); response != null; response = queue
+                    .poll()) {
+                response.setStatus(Status.CONNECTOR_ERROR_COMMUNICATION,
+                        "The client connector has been stopped");
+                unblock(response);
+            }
+        }
+
+        getHostQueues().clear();
         super.stop();
     }
 
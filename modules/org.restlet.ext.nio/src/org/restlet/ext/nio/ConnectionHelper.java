@@ -40,11 +40,24 @@ import java.net.SocketException;
 import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import javax.net.ssl.SSLSession;
 
 import org.restlet.Application;
 import org.restlet.Connector;
 import org.restlet.Context;
 import org.restlet.Response;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.log.LoggingThreadFactory;
+import org.restlet.engine.util.BoundedCache;
+import org.restlet.ext.nio.internal.buffer.BufferPool;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.connection.ConnectionPool;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
@@ -78,6 +91,15 @@ import org.restlet.routing.VirtualHost;
  * simply reused.</td>
  * </tr>
  * <tr>
+ * <td>maxPipelined</td>
+ * <td>int</td>
+ * <td>16</td>
+ * <td>Maximum number of requests pipelined on a connection while waiting for
+ * their responses. On the server side, additional requests stay in the
+ * connection buffers. On the client side, only idempotent requests are
+ * pipelined. Only used if the "pipeliningConnections" parameter is true.</td>
+ * </tr>
+ * <tr>
  * <td>maxTotalConnections</td>
  * <td>int</td>
  * <td>-1</td>
@@ -96,6 +118,15 @@ import org.restlet.routing.VirtualHost;
  * <td>Indicates if pipelining connections are supported.</td>
  * </tr>
  * <tr>
+ * <td>pooledBuffers</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the byte buffers of the connections should be leased from a
+ * pool shared by all connections, only while data is in flight. This reduces
+ * the memory used by idle connections, especially when combined with direct
+ * buffers.</td>
+ * </tr>
+ * <tr>
  * <td>pooledConnections</td>
  * <td>boolean</td>
  * <td>true</td>
@@ -151,6 +182,13 @@ import org.restlet.routing.VirtualHost;
  * outbound network I/O.</td>
  * </tr>
  * <tr>
+ * <td>sslTaskThreads</td>
+ * <td>int</td>
+ * <td>Number of available processors</td>
+ * <td>Number of threads dedicated to the lengthy SSL engine tasks delegated
+ * during handshakes, so that they don't compete with the worker service.</td>
+ * </tr>
+ * <tr>
  * <td>socketTrafficClass</td>
  * <td>int</td>
  * <td>0</td>
@@ -162,12 +200,33 @@ import org.restlet.routing.VirtualHost;
  */
 public abstract class ConnectionHelper<T extends Connector> extends
         BaseHelper<T> {
+    /** The buffer pool. */
+    private volatile BufferPool bufferPool;
+
     /** The connection pool. */
     private volatile ConnectionPool<T> connectionPool;
 
     /** The set of active connections. */
     private final List<Connection<T>> connections;
 
+    /** The number of entity bytes transferred from file channels. */
+    private final AtomicLong fileTransferredBytes;
+
+    /** The number of completed SSL handshakes. */
+    private final AtomicLong sslHandshakeCount;
+
+    /** The total duration of the completed SSL handshakes. */
+    private final AtomicLong sslHandshakeTotalTimeMs;
+
+    /** The number of completed SSL handshakes that resumed a session. */
+    private final AtomicLong sslResumedHandshakeCount;
+
+    /** The SSL sessions established by identifier, to detect resumptions. */
+    private final BoundedCache<String, Object> sslSessions;
+
+    /** The service running the delegated SSL engine tasks. */
+    private volatile ExecutorService sslTaskService;
+
     /**
      * Constructor.
      * 
@@ -178,8 +237,15 @@ public abstract class ConnectionHelper<T extends Connector> extends
      */
     public ConnectionHelper(T connector, boolean clientSide) {
         super(connector, clientSide);
+        this.bufferPool = null;
         this.connections = new CopyOnWriteArrayList<Connection<T>>();
         this.connectionPool = null;
+        this.fileTransferredBytes = new AtomicLong();
+        this.sslHandshakeCount = new AtomicLong();
+        this.sslHandshakeTotalTimeMs = new AtomicLong();
+        this.sslResumedHandshakeCount = new AtomicLong();
+        this.sslSessions = new BoundedCache<String, Object>();
+        this.sslTaskService = null;
     }
 
     /**
@@ -319,6 +385,30 @@ public abstract class ConnectionHelper<T extends Connector> extends
     public abstract OutboundWay createOutboundWay(Connection<T> connection,
             int bufferSize);
 
+    /**
+     * Creates the service running the delegated SSL engine tasks.
+     * 
+     * @return The service running the delegated SSL engine tasks.
+     */
+    protected ExecutorService createSslTaskService() {
+        ThreadPoolExecutor result = null;
+
+        if (isVirtualThreads()) {
+            result = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L,
+                    TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(),
+                    new LoggingThreadFactory(getLogger(), true, true));
+        } else {
+            int threads = getSslTaskThreads();
+            result = new ThreadPoolExecutor(threads, threads,
+                    getMaxThreadIdleTimeMs(), TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new LoggingThreadFactory(getLogger(), true));
+            result.allowCoreThreadTimeOut(true);
+        }
+
+        return result;
+    }
+
     @Override
     protected void doFinishStop() {
         super.doFinishStop();
@@ -326,6 +416,11 @@ public abstract class ConnectionHelper<T extends Connector> extends
         if (isPooledConnection()) {
             this.connectionPool = null;
         }
+
+        if (getBufferPool() != null) {
+            traceBufferPool();
+            this.bufferPool = null;
+        }
     }
 
     @Override
@@ -336,6 +431,22 @@ public abstract class ConnectionHelper<T extends Connector> extends
         for (Connection<T> connection : getConnections()) {
             connection.close(true);
         }
+
+        synchronized (this) {
+            if (this.sslTaskService != null) {
+                this.sslTaskService.shutdown();
+                this.sslTaskService = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the buffer pool.
+     * 
+     * @return The buffer pool or null if buffers aren't pooled.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
     }
 
     /**
@@ -356,6 +467,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return connections;
     }
 
+    /**
+     * Returns the number of entity bytes transferred directly from file
+     * channels to socket channels, without copying them through the IO
+     * buffers.
+     * 
+     * @return The number of entity bytes transferred from file channels.
+     */
+    public long getFileTransferredBytes() {
+        return this.fileTransferredBytes.get();
+    }
+
     /**
      * Returns the initial number of connections pre-created in the connections
      * pool.
@@ -380,6 +502,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
                 "maxConnectionsPerHost", "-1"));
     }
 
+    /**
+     * Returns the maximum number of requests pipelined on a connection while
+     * waiting for their responses.
+     * 
+     * @return The maximum number of pipelined requests per connection.
+     */
+    public int getMaxPipelined() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxPipelined", "16"));
+    }
+
     /**
      * Returns the maximum number of concurrent connections allowed. By default,
      * it is unbounded.
@@ -431,6 +564,82 @@ public abstract class ConnectionHelper<T extends Connector> extends
 
     }
 
+    /**
+     * Returns the number of completed SSL handshakes.
+     * 
+     * @return The number of completed SSL handshakes.
+     */
+    public long getSslHandshakeCount() {
+        return this.sslHandshakeCount.get();
+    }
+
+    /**
+     * Returns the total duration of the completed SSL handshakes.
+     * 
+     * @return The total duration of the completed SSL handshakes.
+     */
+    public long getSslHandshakeTotalTimeMs() {
+        return this.sslHandshakeTotalTimeMs.get();
+    }
+
+    /**
+     * Returns the number of completed SSL handshakes that resumed a cached
+     * session instead of negotiating a new one.
+     * 
+     * @return The number of completed SSL handshakes that resumed a session.
+     */
+    public long getSslResumedHandshakeCount() {
+        return this.sslResumedHandshakeCount.get();
+    }
+
+    /**
+     * Returns the ratio of completed SSL handshakes that resumed a session,
+     * between 0 and 1, or 0 if no handshake completed yet.
+     * 
+     * @return The ratio of completed SSL handshakes that resumed a session.
+     */
+    public double getSslResumptionRate() {
+        long handshakes = getSslHandshakeCount();
+        return (handshakes == 0) ? 0 : (double) getSslResumedHandshakeCount()
+                / handshakes;
+    }
+
+    /**
+     * Returns the service running the delegated SSL engine tasks. It is lazily
+     * created on first use.
+     * 
+     * @return The service running the delegated SSL engine tasks.
+     */
+    public ExecutorService getSslTaskService() {
+        ExecutorService result = this.sslTaskService;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.sslTaskService;
+
+                if (result == null) {
+                    result = createSslTaskService();
+                    this.sslTaskService = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of threads dedicated to the delegated SSL engine
+     * tasks. By default, it is the number of available processors.
+     * 
+     * @return The number of threads dedicated to the delegated SSL engine
+     *         tasks.
+     */
+    public int getSslTaskThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "sslTaskThreads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+    }
+
     /**
      * Returns the type of service to set in IP packets.
      * 
@@ -462,6 +671,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
                 "pipeliningConnections", "false"));
     }
 
+    /**
+     * Indicates if the byte buffers of the connections should be leased from a
+     * shared pool while data is in flight.
+     * 
+     * @return True if the byte buffers should be pooled.
+     */
+    public boolean isPooledBuffers() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "pooledBuffers", "false"));
+    }
+
     /**
      * Indicates if the connection objects should be pooled to save
      * instantiation time.
@@ -528,4 +748,74 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
                 "socketReuseAddress", "true"));
     }
+
+    @Override
+    public void start() throws Exception {
+        if (isPooledBuffers()) {
+            this.bufferPool = new BufferPool(isDirectBuffers());
+        }
+
+        super.start();
+    }
+
+    /**
+     * Callback invoked when entity bytes were transferred directly from a file
+     * channel to a socket channel. Updates the transfer metrics.
+     * 
+     * @param bytes
+     *            The number of bytes transferred.
+     */
+    public void onFileTransferred(long bytes) {
+        this.fileTransferredBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Callback invoked when an SSL handshake is completed. Updates the
+     * handshake metrics.<br>
+     * <br>
+     * The JSSE API doesn't tell if a handshake resumed a session. However, a
+     * session resumed by identifier, as with TLS 1.2 and earlier, keeps the
+     * identifier of the session established by the initial full handshake. A
+     * handshake is therefore counted as resumed if a session with the same
+     * identifier was already established through this helper. TLS 1.3
+     * resumptions get a new identifier and are counted as full handshakes.
+     * 
+     * @param durationMs
+     *            The handshake duration.
+     * @param session
+     *            The SSL session negotiated.
+     */
+    public void onSslHandshakeCompleted(long durationMs, SSLSession session) {
+        boolean resumed = false;
+
+        if ((session != null) && (session.getId() != null)
+                && (session.getId().length > 0)) {
+            // Another marker is returned if the identifier was cached
+            Object marker = new Object();
+            resumed = (this.sslSessions.putIfAbsent(
+                    IoUtils.toHexString(session.getId()), marker) != marker);
+        }
+
+        this.sslHandshakeCount.incrementAndGet();
+        this.sslHandshakeTotalTimeMs.addAndGet(durationMs);
+
+        if (resumed) {
+            this.sslResumedHandshakeCount.incrementAndGet();
+        }
+
+        if (getLogger().isLoggable(Level.FINER)) {
+            getLogger().finer(
+                    "SSL handshake completed in " + durationMs + " ms"
+                            + (resumed ? " (resumed session)" : ""));
+        }
+    }
+
+    /**
+     * Adds traces on the buffer pool.
+     */
+    public void traceBufferPool() {
+        if ((getBufferPool() != null) && getLogger().isLoggable(Level.FINE)) {
+            getLogger().fine("Buffer pool: " + getBufferPool());
+        }
+    }
 }
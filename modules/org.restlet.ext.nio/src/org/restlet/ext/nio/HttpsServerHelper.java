@@ -39,6 +39,7 @@ import java.nio.channels.SocketChannel;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
 
 import org.restlet.Request;
 import org.restlet.Server;
@@ -73,9 +74,32 @@ import org.restlet.ext.nio.internal.way.OutboundWay;
  * parameter, or an instance as an attribute for a more complete and flexible
  * SSL context setting.</td>
  * </tr>
+ * <tr>
+ * <td>sslSessionCacheSize</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Maximum number of SSL sessions cached for resumption by the server
+ * session context, 0 for unlimited or -1 to keep the JVM default.</td>
+ * </tr>
+ * <tr>
+ * <td>sslSessionTimeoutSeconds</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Lifetime of the cached SSL sessions, 0 for unlimited or -1 to keep the
+ * JVM default.</td>
+ * </tr>
  * </table>
+ * Stateless TLS session tickets can't be configured per connector, as the JSSE
+ * provider reads the "jdk.tls.server.enableSessionTicketExtension" system
+ * property once for the whole JVM. Set it as a JVM startup option instead, for
+ * example "-Djdk.tls.server.enableSessionTicketExtension=false" to resume
+ * sessions from the server cache only.<br>
+ * <br>
  * For the default SSL parameters see the Javadocs of the
- * {@link DefaultSslContextFactory} class.
+ * {@link DefaultSslContextFactory} class. The delegated SSL engine tasks run
+ * on a dedicated service, see the "sslTaskThreads" parameter of
+ * {@link ConnectionHelper}, and handshake metrics are available via
+ * {@link #getSslHandshakeCount()} and related methods.
  * 
  * @author Jerome Louvel
  */
@@ -101,7 +125,13 @@ public class HttpsServerHelper extends HttpServerHelper {
         // Create the SSL engine
         SSLEngine engine;
 
-        if (socketAddress != null) {
+        if ((socketAddress != null) && (socketAddress.getAddress() != null)) {
+            // Avoid a reverse DNS lookup on the controller thread, the peer
+            // address is only a hint for the server-side session cache
+            engine = getSslContext().createSSLEngine(
+                    socketAddress.getAddress().getHostAddress(),
+                    socketAddress.getPort());
+        } else if (socketAddress != null) {
             engine = getSslContext().createSSLEngine(
                     socketAddress.getHostName(), socketAddress.getPort());
         } else {
@@ -140,6 +170,28 @@ public class HttpsServerHelper extends HttpServerHelper {
         return sslContext;
     }
 
+    /**
+     * Returns the maximum number of SSL sessions cached for resumption, 0 for
+     * unlimited or -1 to keep the JVM default.
+     * 
+     * @return The maximum number of SSL sessions cached for resumption.
+     */
+    public int getSslSessionCacheSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "sslSessionCacheSize", "-1"));
+    }
+
+    /**
+     * Returns the lifetime of the cached SSL sessions, 0 for unlimited or -1 to
+     * keep the JVM default.
+     * 
+     * @return The lifetime of the cached SSL sessions.
+     */
+    public int getSslSessionTimeoutSeconds() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "sslSessionTimeoutSeconds", "-1"));
+    }
+
     /**
      * Sets the SSL context.
      * 
@@ -154,6 +206,22 @@ public class HttpsServerHelper extends HttpServerHelper {
     public synchronized void start() throws Exception {
         SslContextFactory factory = SslUtils.getSslContextFactory(this);
         setSslContext(factory.createSslContext());
+
+        // Configure the session cache used for session resumption
+        SSLSessionContext sessionContext = getSslContext()
+                .getServerSessionContext();
+
+        if (sessionContext != null) {
+            if (getSslSessionCacheSize() >= 0) {
+                sessionContext.setSessionCacheSize(getSslSessionCacheSize());
+            }
+
+            if (getSslSessionTimeoutSeconds() >= 0) {
+                sessionContext
+                        .setSessionTimeout(getSslSessionTimeoutSeconds());
+            }
+        }
+
         super.start();
     }
 
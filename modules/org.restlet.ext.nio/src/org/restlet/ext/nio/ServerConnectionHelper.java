@@ -39,14 +39,23 @@ import java.net.ServerSocket;
 import java.net.SocketAddress;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Server;
 import org.restlet.data.Status;
+import org.restlet.engine.log.LoggingThreadFactory;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.controller.ConnectionController;
+import org.restlet.ext.nio.internal.controller.SelectorController;
 import org.restlet.ext.nio.internal.controller.ServerConnectionController;
 import org.restlet.ext.nio.internal.request.InboundRequest;
 
@@ -78,12 +87,55 @@ import org.restlet.ext.nio.internal.request.InboundRequest;
  * <td>Enable/disable the SO_REUSEADDR socket option. See
  * java.io.ServerSocket#reuseAddress property for additional details.</td>
  * </tr>
+ * <tr>
+ * <td>selectorThreads</td>
+ * <td>int</td>
+ * <td>1</td>
+ * <td>Number of controller threads, each one with its own NIO selector, among
+ * which the accepted connections are spread. If the value is '1', the
+ * connections are controlled by the thread accepting them. Only the IO
+ * selection and processing of the connections is spread, the accepting thread
+ * still dispatches all the messages to the worker service. Typically set to
+ * the number of available processors for a large number of connections.</td>
+ * </tr>
+ * <tr>
+ * <td>maxQueueDelayMs</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Target delay for requests waiting in the worker queue or in a controller
+ * loop. When the moving average of these delays exceeds it, or when the worker
+ * service is overloaded, the requests received on new connections are rejected
+ * with a 503 status. Requests received on persistent connections which already
+ * served responses are only rejected beyond twice this delay. If the value is
+ * '0', this adaptive load shedding is disabled and the requests wait for a
+ * worker thread instead.</td>
+ * </tr>
+ * <tr>
+ * <td>retryAfterSeconds</td>
+ * <td>int</td>
+ * <td>1</td>
+ * <td>Delay suggested to clients via the "Retry-After" header of the 503
+ * responses sent when the server is overloaded. Only used when the adaptive
+ * load shedding is enabled with the "maxQueueDelayMs" parameter.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
  */
 public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
 
+    /**
+     * The number of accepted connections not checked in yet, including the
+     * ones handed over to selector controllers and not opened yet.
+     */
+    private final AtomicInteger acceptedCount;
+
+    /** The selector controllers among which accepted connections are spread. */
+    private final List<SelectorController> selectorControllers;
+
+    /** The number of requests rejected because of an overload. */
+    private final AtomicLong shedCount;
+
     /** The server socket channel. */
     private volatile ServerSocketChannel serverSocketChannel;
 
@@ -95,11 +147,33 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
      */
     public ServerConnectionHelper(Server server) {
         super(server, false);
+        this.acceptedCount = new AtomicInteger();
+        this.selectorControllers = new CopyOnWriteArrayList<SelectorController>();
+        this.shedCount = new AtomicLong();
 
         // Clear the ephemeral port
         getAttributes().put("ephemeralPort", -1);
     }
 
+    /**
+     * Reserves a slot for a newly accepted connection, unless the maximum
+     * number of concurrent connections is reached. The slot is released when
+     * the connection is checked in, or via {@link #releaseConnection()} if no
+     * connection could be opened.
+     * 
+     * @return True if the connection can be accepted.
+     */
+    public boolean acquireConnection() {
+        // Only the server controller thread accepts connections
+        if ((getMaxTotalConnections() != -1)
+                && (this.acceptedCount.get() >= getMaxTotalConnections())) {
+            return false;
+        }
+
+        this.acceptedCount.incrementAndGet();
+        return true;
+    }
+
     /**
      * Indicates if the connection can handle the given response at this point
      * in time.
@@ -115,6 +189,18 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
     protected abstract boolean canHandle(Connection<Server> connection,
             Response response) throws IOException;
 
+    /**
+     * Checks in the connection back into the pool and releases its slot.
+     * 
+     * @param connection
+     *            The connection to check in.
+     */
+    @Override
+    public void checkin(Connection<?> connection) {
+        super.checkin(connection);
+        releaseConnection();
+    }
+
     @Override
     public Connection<Server> createConnection(SocketChannel socketChannel,
             ConnectionController controller, InetSocketAddress socketAddress)
@@ -128,6 +214,23 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         return new ServerConnectionController(this);
     }
 
+    /**
+     * Creates the connector controller service. If several selector threads
+     * are configured, the service provides one thread for the server
+     * controller plus one thread per selector controller.
+     * 
+     * @return The connector controller service.
+     */
+    @Override
+    protected ExecutorService createControllerService() {
+        if (getSelectorThreads() > 1) {
+            return Executors.newFixedThreadPool(1 + getSelectorThreads(),
+                    new LoggingThreadFactory(getLogger(), isControllerDaemon()));
+        }
+
+        return super.createControllerService();
+    }
+
     /**
      * Creates a new request.
      * 
@@ -214,6 +317,12 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
                     if (canHandle(connection, response)) {
                         // Add the response to the outbound queue
                         connection.getOutboundWay().handle(response);
+
+                        // Wake up the selector controller of the connection
+                        // so that it updates its NIO registrations
+                        if (connection.getController() != getController()) {
+                            connection.getController().wakeup();
+                        }
                     } else {
                         // Put the response at the end of the queue
                         getOutboundMessages().add(response);
@@ -237,6 +346,50 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         return (ServerConnectionController) super.getController();
     }
 
+    /**
+     * Returns the target delay for requests waiting in the worker queue or in a
+     * controller loop, beyond which load shedding occurs.
+     * 
+     * @return The target delay for requests waiting to be handled.
+     */
+    public int getMaxQueueDelayMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxQueueDelayMs", "0"));
+    }
+
+    /**
+     * Returns the delay suggested to clients via the "Retry-After" header of
+     * the 503 responses sent when the server is overloaded.
+     * 
+     * @return The delay suggested to clients before retrying, in seconds.
+     */
+    public int getRetryAfterSeconds() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "retryAfterSeconds", "1"));
+    }
+
+    /**
+     * Returns the selector controllers among which accepted connections are
+     * spread. The list is empty if the connections are controlled by the
+     * server controller.
+     * 
+     * @return The selector controllers.
+     */
+    public List<SelectorController> getSelectorControllers() {
+        return selectorControllers;
+    }
+
+    /**
+     * Returns the number of controller threads, each one with its own NIO
+     * selector, among which the accepted connections are spread.
+     * 
+     * @return The number of selector threads.
+     */
+    public int getSelectorThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "selectorThreads", "1"));
+    }
+
     /**
      * Returns the server socket channel.
      * 
@@ -246,6 +399,16 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         return serverSocketChannel;
     }
 
+    /**
+     * Returns the number of requests rejected with a 503 status because of an
+     * overload.
+     * 
+     * @return The number of requests rejected because of an overload.
+     */
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
     /**
      * Handles a call by invoking the helped Server's
      * {@link Server#handle(Request, Response)} method.
@@ -263,7 +426,11 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
 
     @Override
     protected void handleInbound(Response response) {
-        handleInbound(response, false);
+        if ((response != null) && isShedding(response)) {
+            shed(response);
+        } else {
+            handleInbound(response, false);
+        }
     }
 
     @Override
@@ -271,12 +438,67 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         handleOutbound(response, true);
     }
 
+    /**
+     * Indicates if the request of the given response should be rejected
+     * because of an overload. Requests received on persistent connections which
+     * already served responses are favored over the ones received on new
+     * connections so that calls in progress can complete.
+     * 
+     * @param response
+     *            The response to handle.
+     * @return True if the request should be rejected.
+     */
+    protected boolean isShedding(Response response) {
+        boolean result = false;
+        int maxDelay = getMaxQueueDelayMs();
+
+        if (maxDelay > 0) {
+            Connection<Server> connection = ((InboundRequest) response
+                    .getRequest()).getConnection();
+            boolean established = (connection.getMessageCount() > 0);
+
+            if (!established && getController().isOverloaded()) {
+                result = true;
+            } else {
+                long delay = 0;
+
+                // The average is only refreshed by queued tasks, ignore it
+                // once the queue has been drained
+                if ((getWorkerService() != null)
+                        && !getWorkerService().getQueue().isEmpty()) {
+                    delay = getWorkerQueueDelay().getAverageMs();
+                }
+
+                if (connection.getController() != null) {
+                    delay = Math.max(delay, connection.getController()
+                            .getLoopDelay().getAverageMs());
+                }
+
+                result = established ? (delay > 2L * maxDelay)
+                        : (delay > maxDelay);
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public boolean isControllerDaemon() {
         return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
                 "controllerDaemon", "false"));
     }
 
+    /**
+     * Indicates if the adaptive load shedding is enabled, when the
+     * "maxQueueDelayMs" parameter is set.
+     * 
+     * @return True if the adaptive load shedding is enabled.
+     */
+    @Override
+    protected boolean isLoadShedding() {
+        return getMaxQueueDelayMs() > 0;
+    }
+
     @Override
     public boolean isProxying() {
         return false;
@@ -294,6 +516,51 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
                 "reuseAddress", "true"));
     }
 
+    /**
+     * Called when the worker service rejected the handling of an inbound
+     * message while the adaptive load shedding is enabled. The request is
+     * rejected with a 503 status.
+     * 
+     * @param response
+     *            The rejected message.
+     */
+    @Override
+    protected void onInboundRejected(Response response) {
+        shed(response);
+    }
+
+    /**
+     * Releases the slot reserved by {@link #acquireConnection()} for an
+     * accepted connection.
+     */
+    public void releaseConnection() {
+        this.acceptedCount.decrementAndGet();
+    }
+
+    /**
+     * Rejects the request of the given response because of an overload. A 503
+     * response with a "Retry-After" header is directly sent back to the client,
+     * without invoking the helped server.
+     * 
+     * @param response
+     *            The response to send.
+     */
+    protected void shed(Response response) {
+        this.shedCount.incrementAndGet();
+
+        if (getLogger().isLoggable(Level.FINE)) {
+            getLogger().fine(
+                    "Server overloaded, rejecting request: "
+                            + response.getRequest());
+        }
+
+        response.setStatus(Status.SERVER_ERROR_SERVICE_UNAVAILABLE);
+        response.setRetryAfter(new Date(System.currentTimeMillis() + 1000L
+                * getRetryAfterSeconds()));
+        response.setCommitted(true);
+        addOutboundMessage(response);
+    }
+
     /**
      * Sets the ephemeral port in the attributes map if necessary.
      * 
@@ -320,18 +587,31 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
 
     @Override
     public synchronized void start() throws Exception {
+        this.acceptedCount.set(0);
+
         // Create the server socket channel
         this.serverSocketChannel = createServerSocketChannel();
 
         // Sets the ephemeral port is necessary
         setEphemeralPort(this.serverSocketChannel.socket());
 
+        // Create the selector controllers if needed
+        if (getSelectorThreads() > 1) {
+            for (int i = 0; i < getSelectorThreads(); i++) {
+                getSelectorControllers().add(new SelectorController(this));
+            }
+        }
+
         // Start the controller
         getLogger().info(
                 "Starting the internal " + getProtocols() + " server on port "
                         + getHelped().getActualPort());
         super.start();
 
+        for (SelectorController selectorController : getSelectorControllers()) {
+            getControllerService().submit(selectorController);
+        }
+
         // Wait for the listener to start up and count down the latch
         // This blocks until the server is ready to receive connections
         try {
@@ -357,6 +637,8 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
             getServerSocketChannel().close();
         }
 
+        getSelectorControllers().clear();
+
         // Clear the ephemeral port
         getAttributes().put("ephemeralPort", -1);
     }
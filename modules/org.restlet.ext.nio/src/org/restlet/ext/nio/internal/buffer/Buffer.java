@@ -71,12 +71,18 @@ public class Buffer {
         return result;
     }
 
-    /** The byte buffer. */
-    private final ByteBuffer bytes;
+    /** The byte buffer size. */
+    private final int bufferSize;
+
+    /** The byte buffer or null if released to the buffer pool. */
+    private volatile ByteBuffer bytes;
 
     /** The index of the buffer's beginning while filling. */
     private volatile int fillBegin;
 
+    /** The optional pool from which the byte buffer is leased. */
+    private final BufferPool pool;
+
     /** The byte buffer IO state. */
     private volatile BufferState state;
 
@@ -100,11 +106,33 @@ public class Buffer {
      */
     public Buffer(ByteBuffer byteBuffer, BufferState byteBufferState) {
         super();
+        this.bufferSize = byteBuffer.capacity();
         this.fillBegin = 0;
         this.bytes = byteBuffer;
+        this.pool = null;
         this.state = byteBufferState;
     }
 
+    /**
+     * Constructor. The byte buffer is lazily leased from the given pool and
+     * can be released to it when the buffer is empty using the
+     * {@link #release()} method. The buffer size is rounded up to the size
+     * class of the pool.
+     * 
+     * @param bufferSize
+     *            The minimum byte buffer size.
+     * @param pool
+     *            The pool from which the byte buffer is leased.
+     */
+    public Buffer(int bufferSize, BufferPool pool) {
+        super();
+        this.bufferSize = BufferPool.getSizeClass(bufferSize);
+        this.fillBegin = 0;
+        this.bytes = null;
+        this.pool = pool;
+        this.state = BufferState.FILLING;
+    }
+
     /**
      * Constructor. Allocates a new non-direct byte buffer.
      * 
@@ -182,7 +210,7 @@ public class Buffer {
      * @return The maximum capacity of this buffer.
      */
     public final int capacity() {
-        return getBytes().capacity();
+        return this.bufferSize;
     }
 
     /**
@@ -190,7 +218,11 @@ public class Buffer {
      */
     public void clear() {
         this.fillBegin = 0;
-        this.bytes.clear();
+
+        if (this.bytes != null) {
+            this.bytes.clear();
+        }
+
         this.state = BufferState.FILLING;
     }
 
@@ -214,7 +246,8 @@ public class Buffer {
      * @return True if bytes could be drained.
      */
     public boolean couldDrain() {
-        return (isFilling() && (getBytes().position() > this.fillBegin));
+        return isFilling() && (this.bytes != null)
+                && (this.bytes.position() > this.fillBegin);
     }
 
     /**
@@ -329,6 +362,19 @@ public class Buffer {
         return builderState;
     }
 
+    /**
+     * Drains the byte buffer into the given header parser until the end of the
+     * current line is reached.
+     * 
+     * @param headerParser
+     *            The header parser to fill.
+     * @return True if a complete line is ready.
+     * @throws IOException
+     */
+    public boolean drain(HeaderParser headerParser) throws IOException {
+        return headerParser.fill(getBytes());
+    }
+
     /**
      * Drains the byte buffer by attempting to write as much as possible on the
      * given channel.
@@ -432,11 +478,20 @@ public class Buffer {
     }
 
     /**
-     * Returns the byte buffer.
+     * Returns the byte buffer. If it was released, a new one is leased from the
+     * buffer pool.
      * 
      * @return The byte buffer.
      */
     public ByteBuffer getBytes() {
+        if (this.bytes == null) {
+            synchronized (this) {
+                if (this.bytes == null) {
+                    this.bytes = this.pool.checkout(this.bufferSize);
+                }
+            }
+        }
+
         return bytes;
     }
 
@@ -447,7 +502,7 @@ public class Buffer {
      * @return The lock on which multiple thread can synchronize.
      */
     public Object getLock() {
-        return this.bytes;
+        return this;
     }
 
     /**
@@ -465,7 +520,7 @@ public class Buffer {
      * @return True if the buffer has remaining bytes to be read or written.
      */
     public final boolean hasRemaining() {
-        return getBytes().hasRemaining();
+        return (this.bytes == null) || this.bytes.hasRemaining();
     }
 
     /**
@@ -662,7 +717,23 @@ public class Buffer {
      * @return The number of bytes that can be read or written.
      */
     public final int remaining() {
-        return getBytes().remaining();
+        return (this.bytes == null) ? this.bufferSize : this.bytes.remaining();
+    }
+
+    /**
+     * Releases the byte buffer to the buffer pool if the buffer is empty. Does
+     * nothing if the buffer isn't leased from a pool.
+     */
+    public void release() {
+        if ((this.pool != null) && (this.bytes != null)) {
+            synchronized (this) {
+                if ((this.bytes != null) && isEmpty()) {
+                    clear();
+                    this.pool.checkin(this.bytes);
+                    this.bytes = null;
+                }
+            }
+        }
     }
 
     /**
@@ -677,7 +748,8 @@ public class Buffer {
 
     @Override
     public String toString() {
-        return getBytes().toString() + ", " + getState() + ", " + isEmpty();
+        return ((this.bytes == null) ? "Released byte buffer" : this.bytes
+                .toString()) + ", " + getState() + ", " + isEmpty();
     }
 
 }
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restlet.engine.util.Pool;
+
+/**
+ * Pool of byte buffers shared by the connections of a connector helper. Byte
+ * buffers are organized by size classes, each one backed by a separate pool,
+ * and are only leased to the {@link Buffer} instances while data is in flight.
+ * Requested sizes are rounded up to the next power of two, see
+ * {@link #getSizeClass(int)}, so that buffers of similar sizes share a pool.
+ * 
+ * @author Jerome Louvel
+ */
+public class BufferPool {
+
+    /** The total number of bytes allocated by the pool. */
+    private final AtomicLong allocatedBytes;
+
+    /** Indicates if direct NIO buffers should be allocated. */
+    private final boolean direct;
+
+    /** The highest number of bytes leased at the same time. */
+    private final AtomicLong highWaterBytes;
+
+    /** The number of bytes currently leased. */
+    private final AtomicLong leasedBytes;
+
+    /** The pools of byte buffers for each size class. */
+    private final ConcurrentMap<Integer, Pool<ByteBuffer>> pools;
+
+    /**
+     * Constructor.
+     * 
+     * @param direct
+     *            Indicates if direct NIO buffers should be allocated.
+     */
+    public BufferPool(boolean direct) {
+        this.allocatedBytes = new AtomicLong();
+        this.direct = direct;
+        this.highWaterBytes = new AtomicLong();
+        this.leasedBytes = new AtomicLong();
+        this.pools = new ConcurrentHashMap<Integer, Pool<ByteBuffer>>();
+    }
+
+    /**
+     * Checks in a byte buffer previously leased back into the pool of its size
+     * class.
+     * 
+     * @param byteBuffer
+     *            The byte buffer to check in.
+     */
+    public void checkin(ByteBuffer byteBuffer) {
+        if (byteBuffer != null) {
+            byteBuffer.clear();
+            getPool(byteBuffer.capacity()).checkin(byteBuffer);
+            this.leasedBytes.addAndGet(-byteBuffer.capacity());
+        }
+    }
+
+    /**
+     * Checks out a byte buffer of the size class of the given size. Allocates
+     * a new one if the pool of this size class is empty.
+     * 
+     * @param size
+     *            The minimum byte buffer size.
+     * @return A cleared byte buffer, with the capacity of the size class.
+     */
+    public ByteBuffer checkout(int size) {
+        ByteBuffer result = getPool(getSizeClass(size)).checkout();
+        long leased = this.leasedBytes.addAndGet(result.capacity());
+        long highWater = this.highWaterBytes.get();
+
+        while ((leased > highWater)
+                && !this.highWaterBytes.compareAndSet(highWater, leased)) {
+            highWater = this.highWaterBytes.get();
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the pool of byte buffers for a given size class.
+     * 
+     * @param size
+     *            The byte buffer size.
+     * @return The pool created.
+     */
+    protected Pool<ByteBuffer> createPool(final int size) {
+        return new Pool<ByteBuffer>() {
+            @Override
+            protected ByteBuffer createObject() {
+                allocatedBytes.addAndGet(size);
+                return isDirect() ? ByteBuffer.allocateDirect(size)
+                        : ByteBuffer.allocate(size);
+            }
+        };
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the pool.
+     * 
+     * @return The total number of bytes allocated by the pool.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Returns the highest number of bytes leased at the same time.
+     * 
+     * @return The highest number of bytes leased at the same time.
+     */
+    public long getHighWaterBytes() {
+        return highWaterBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes currently leased.
+     * 
+     * @return The number of bytes currently leased.
+     */
+    public long getLeasedBytes() {
+        return leasedBytes.get();
+    }
+
+    /**
+     * Returns the pool of byte buffers for the given size class, creating it
+     * if necessary.
+     * 
+     * @param size
+     *            The byte buffer size.
+     * @return The pool of byte buffers.
+     */
+    protected Pool<ByteBuffer> getPool(int size) {
+        Pool<ByteBuffer> result = this.pools.get(size);
+
+        if (result == null) {
+            result = createPool(size);
+            Pool<ByteBuffer> previous = this.pools.putIfAbsent(size, result);
+
+            if (previous != null) {
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the size class of a given byte buffer size, which is the
+     * smallest power of two greater than or equal to it. Sizes above the
+     * largest power of two of an int are returned unchanged.
+     * 
+     * @param size
+     *            The byte buffer size.
+     * @return The size class.
+     */
+    public static int getSizeClass(int size) {
+        if ((size <= 1) || (size > (1 << 30))) {
+            return size;
+        }
+
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Indicates if direct NIO buffers are allocated.
+     * 
+     * @return True if direct NIO buffers are allocated.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    @Override
+    public String toString() {
+        return getAllocatedBytes() + " bytes allocated, " + getLeasedBytes()
+                + " bytes leased, " + getHighWaterBytes()
+                + " bytes leased at most";
+    }
+
+}
@@ -0,0 +1,395 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.buffer;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.data.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderUtils;
+
+/**
+ * Incremental header parser working at the byte level. Header lines are
+ * accumulated into a reusable byte array, even when they span several buffer
+ * fills, then split into name and value without intermediate characters
+ * builder. Well-known header names declared in {@link HeaderConstants} are
+ * interned so that the related lookups in the headers series only compare
+ * references. Header values are kept as raw strings, their parsing being
+ * deferred until the message getters are called.<br>
+ * <br>
+ * Obsolete folded lines, starting with a space or horizontal tab, are unfolded
+ * into the previous header value. Lines longer than the maximum length and
+ * header names with characters other than token characters are rejected.
+ * 
+ * @author Jerome Louvel
+ */
+public class HeaderParser {
+
+    /** The default maximum length of a header line. */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 65536;
+
+    /** The ISO-8859-1 character set used to decode header lines. */
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    /** The mask of the well-known names table. */
+    private static final int NAMES_MASK = 255;
+
+    /** The table of well-known header names, indexed by hash code. */
+    private static final String[][] NAMES = createNames();
+
+    /**
+     * Creates the table of well-known header names from the constants declared
+     * in {@link HeaderConstants}.
+     * 
+     * @return The table of well-known header names.
+     */
+    private static String[][] createNames() {
+        List<List<String>> buckets = new ArrayList<List<String>>();
+
+        for (int i = 0; i <= NAMES_MASK; i++) {
+            buckets.add(new ArrayList<String>());
+        }
+
+        for (Field field : HeaderConstants.class.getFields()) {
+            if (field.getName().startsWith("HEADER_")
+                    && Modifier.isStatic(field.getModifiers())
+                    && (field.getType() == String.class)) {
+                try {
+                    String name = (String) field.get(null);
+                    List<String> bucket = buckets.get(name.hashCode()
+                            & NAMES_MASK);
+
+                    if (!bucket.contains(name)) {
+                        bucket.add(name);
+                    }
+                } catch (IllegalAccessException e) {
+                    // Ignore this constant
+                }
+            }
+        }
+
+        String[][] result = new String[NAMES_MASK + 1][];
+
+        for (int i = 0; i <= NAMES_MASK; i++) {
+            result[i] = buckets.get(i).toArray(new String[0]);
+        }
+
+        return result;
+    }
+
+    /** The bytes of the current line. */
+    private byte[] line;
+
+    /** Indicates if the end of a non empty line was reached. */
+    private boolean lineEnded;
+
+    /** Indicates if the spaces of a folded line are being skipped. */
+    private boolean unfolding;
+
+    /** The length of the current line. */
+    private int lineLength;
+
+    /** The maximum length of a header line. */
+    private final int maxLineLength;
+
+    /** The index of the colon separating the header name and value. */
+    private int nameLength;
+
+    /** The hash code of the header name. */
+    private int nameHash;
+
+    /** The parser state. */
+    private BufferState state;
+
+    /**
+     * Constructor.
+     */
+    public HeaderParser() {
+        this(DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxLineLength
+     *            The maximum length of a header line.
+     */
+    public HeaderParser(int maxLineLength) {
+        this.line = new byte[128];
+        this.maxLineLength = maxLineLength;
+        clear();
+    }
+
+    /**
+     * Appends a byte to the current line, growing it if needed.
+     * 
+     * @param next
+     *            The byte to append.
+     * @throws IOException
+     */
+    private void append(int next) throws IOException {
+        if (this.lineLength >= this.maxLineLength) {
+            throw new IOException("Header line longer than "
+                    + this.maxLineLength + " bytes");
+        }
+
+        if (this.lineLength == this.line.length) {
+            byte[] newLine = new byte[Math.min(this.line.length * 2,
+                    this.maxLineLength)];
+            System.arraycopy(this.line, 0, newLine, 0, this.lineLength);
+            this.line = newLine;
+        }
+
+        this.line[this.lineLength++] = (byte) next;
+    }
+
+    /**
+     * Clears the parser to prepare the reading of a new line.
+     */
+    public void clear() {
+        this.lineEnded = false;
+        this.unfolding = false;
+        this.lineLength = 0;
+        this.nameLength = -1;
+        this.nameHash = 0;
+        this.state = BufferState.IDLE;
+    }
+
+    /**
+     * Fills the current line with the bytes available in the given byte buffer
+     * until the end of line is reached.
+     * 
+     * @param bytes
+     *            The byte buffer to drain.
+     * @return True if a complete line is ready.
+     * @throws IOException
+     */
+    public boolean fill(ByteBuffer bytes) throws IOException {
+        int next;
+
+        if (this.state == BufferState.IDLE) {
+            this.state = BufferState.FILLING;
+        }
+
+        while ((this.state != BufferState.DRAINING) && bytes.hasRemaining()) {
+            next = bytes.get() & 0xFF;
+
+            if (this.lineEnded) {
+                this.lineEnded = false;
+
+                if (HeaderUtils.isSpace(next)
+                        || HeaderUtils.isHorizontalTab(next)) {
+                    // Obsolete line folding, unfold with a single space
+                    this.state = BufferState.FILLING;
+                    this.unfolding = true;
+                    append(' ');
+                } else {
+                    // Leave the first byte of the next line to the next call
+                    bytes.position(bytes.position() - 1);
+                    this.state = BufferState.DRAINING;
+                }
+
+                continue;
+            }
+
+            if (this.unfolding) {
+                if (HeaderUtils.isSpace(next)
+                        || HeaderUtils.isHorizontalTab(next)) {
+                    continue;
+                }
+
+                this.unfolding = false;
+            }
+
+            switch (this.state) {
+            case FILLING:
+                if (HeaderUtils.isCarriageReturn(next)) {
+                    this.state = BufferState.FILLED;
+                } else {
+                    if (this.nameLength == -1) {
+                        if (next == ':') {
+                            if (this.lineLength == 0) {
+                                throw new IOException("Empty header name");
+                            }
+
+                            this.nameLength = this.lineLength;
+                        } else if (HeaderUtils.isTokenChar(next)
+                                && !HeaderUtils.isControlChar(next)) {
+                            this.nameHash = 31 * this.nameHash + next;
+                        } else {
+                            throw new IOException(
+                                    "Invalid character in header name: "
+                                            + next);
+                        }
+                    }
+
+                    append(next);
+                }
+
+                break;
+
+            case FILLED:
+                if (!HeaderUtils.isLineFeed(next)) {
+                    throw new IOException(
+                            "Missing line feed character at the end of the line. Found character \""
+                                    + (char) next + "\" (" + next + ") instead");
+                } else if (this.lineLength == 0) {
+                    // End of the headers
+                    this.state = BufferState.DRAINING;
+                } else {
+                    // Wait for the next line to detect a folded line
+                    this.lineEnded = true;
+                }
+
+                break;
+
+            default:
+                // Nothing to do
+                break;
+            }
+        }
+
+        return this.state == BufferState.DRAINING;
+    }
+
+    /**
+     * Returns the header name, interned if it is a well-known one.
+     * 
+     * @return The header name.
+     */
+    private String getName() {
+        String result = null;
+        String[] bucket = NAMES[this.nameHash & NAMES_MASK];
+
+        for (int i = 0; (result == null) && (i < bucket.length); i++) {
+            String name = bucket[i];
+
+            if ((name.length() == this.nameLength) && matches(name)) {
+                result = name;
+            }
+        }
+
+        if (result == null) {
+            result = toString(0, this.nameLength);
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if a complete line is ready.
+     * 
+     * @return True if a complete line is ready.
+     */
+    public boolean isReady() {
+        return this.state == BufferState.DRAINING;
+    }
+
+    /**
+     * Indicates if the bytes of the header name match the given name.
+     * 
+     * @param name
+     *            The name to compare.
+     * @return True if the bytes of the header name match the given name.
+     */
+    private boolean matches(String name) {
+        boolean result = true;
+
+        for (int i = 0; result && (i < this.nameLength); i++) {
+            result = (name.charAt(i) == (this.line[i] & 0xFF));
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the header of the current line, then clears the parser. Returns
+     * null if the current line is empty, indicating the end of the headers.
+     * 
+     * @return The header read or null.
+     * @throws IOException
+     */
+    public Header readHeader() throws IOException {
+        Header result = null;
+
+        try {
+            if (this.lineLength > 0) {
+                if (this.nameLength == -1) {
+                    throw new IOException(
+                            "Unable to parse the header name. End of line reached too early.");
+                }
+
+                int start = this.nameLength + 1;
+
+                // Skip any separator space between colon and header value
+                while ((start < this.lineLength)
+                        && (HeaderUtils.isSpace(this.line[start]) || HeaderUtils
+                                .isHorizontalTab(this.line[start]))) {
+                    start++;
+                }
+
+                result = new Header(getName(), toString(start, this.lineLength));
+            }
+        } finally {
+            clear();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toString(0, this.lineLength);
+    }
+
+    /**
+     * Decodes a range of the current line as an ISO-8859-1 string.
+     * 
+     * @param start
+     *            The start index.
+     * @param end
+     *            The end index.
+     * @return The decoded string.
+     */
+    private String toString(int start, int end) {
+        return new String(this.line, start, end - start, LATIN1);
+    }
+
+}
@@ -70,6 +70,9 @@ import org.restlet.util.SelectionRegistration;
  */
 public class Connection<T extends Connector> implements SelectionListener {
 
+    /** The IO controller. */
+    private volatile ConnectionController controller;
+
     /** The parent connector helper. */
     private final ConnectionHelper<T> helper;
 
@@ -85,6 +88,9 @@ public class Connection<T extends Connector> implements SelectionListener {
      */
     private volatile int maxIoIdleTimeMs;
 
+    /** The number of messages fully sent since the connection was opened. */
+    private volatile int messageCount;
+
     /** The outbound way. */
     private final OutboundWay outboundWay;
 
@@ -144,6 +150,7 @@ public class Connection<T extends Connector> implements SelectionListener {
     public void clear() {
         this.inboundWay.clear();
         this.outboundWay.clear();
+        this.controller = null;
         this.readableSelectionChannel = null;
         this.socketChannel = null;
         this.registration = null;
@@ -265,6 +272,16 @@ public class Connection<T extends Connector> implements SelectionListener {
                         .getInetAddress().getHostAddress();
     }
 
+    /**
+     * Returns the IO controller. It is either the controller of the parent
+     * helper or one of its selector controllers.
+     * 
+     * @return The IO controller.
+     */
+    public ConnectionController getController() {
+        return (controller == null) ? getHelper().getController() : controller;
+    }
+
     /**
      * Returns the parent connector helper.
      * 
@@ -332,6 +349,17 @@ public class Connection<T extends Connector> implements SelectionListener {
         return maxIoIdleTimeMs;
     }
 
+    /**
+     * Returns the number of messages fully sent since the connection was
+     * opened. On the server side, a strictly positive value indicates a
+     * persistent connection already established with the client.
+     * 
+     * @return The number of messages fully sent.
+     */
+    public int getMessageCount() {
+        return messageCount;
+    }
+
     /**
      * Returns the size of the content buffer for sending responses. By default,
      * it calls {@link #getOutboundBufferSize()}.
@@ -426,6 +454,16 @@ public class Connection<T extends Connector> implements SelectionListener {
         return writableSelectionChannel;
     }
 
+    /**
+     * Indicates if the inbound way has buffered bytes, such as pipelined
+     * requests, that could be parsed without waiting for a new NIO selection.
+     * 
+     * @return True if the inbound way has buffered bytes to parse.
+     */
+    public boolean hasPendingInput() {
+        return getInboundWay().hasPendingInput();
+    }
+
     /**
      * Indicates if the connection has timed out.
      * 
@@ -453,7 +491,9 @@ public class Connection<T extends Connector> implements SelectionListener {
         this.persistent = helper.isPersistingConnections();
         this.pipelining = helper.isPipeliningConnections();
         this.maxIoIdleTimeMs = helper.getMaxIoIdleTimeMs();
+        this.messageCount = 0;
         this.state = ConnectionState.OPENING;
+        this.controller = controller;
         this.socketChannel = socketChannel;
         this.socketAddress = socketAddress;
 
@@ -553,6 +593,23 @@ public class Connection<T extends Connector> implements SelectionListener {
         this.lastActivity = System.currentTimeMillis();
     }
 
+    /**
+     * Notifies the connection that a message has been fully sent.
+     */
+    public void onMessageSent() {
+        this.messageCount++;
+    }
+
+    /**
+     * Parses the bytes already buffered by the inbound way, such as pipelined
+     * requests, without waiting for a new NIO selection.
+     */
+    public void onPendingInput() {
+        synchronized (getInboundWay().getBuffer().getLock()) {
+            getInboundWay().onSelected(getInboundWay().getRegistration());
+        }
+    }
+
     /**
      * Called on error. By default, it calls {@link #close(boolean)} with a
      * 'false' parameter.
@@ -577,7 +634,7 @@ public class Connection<T extends Connector> implements SelectionListener {
         close(false);
 
         // Give the controller a hint to clean up the closed connection
-        getHelper().getController().wakeup();
+        getController().wakeup();
     }
 
     /**
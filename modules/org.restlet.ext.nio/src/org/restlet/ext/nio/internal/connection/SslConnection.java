@@ -40,6 +40,7 @@ import java.nio.channels.SocketChannel;
 import java.security.cert.Certificate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import javax.net.ssl.SSLEngine;
@@ -51,6 +52,7 @@ import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 
 import org.restlet.Connector;
+import org.restlet.data.Status;
 import org.restlet.engine.io.ReadableSelectionChannel;
 import org.restlet.engine.ssl.SslUtils;
 import org.restlet.ext.nio.ConnectionHelper;
@@ -81,6 +83,12 @@ public class SslConnection<T extends Connector> extends Connection<T> {
     /** Whether a handshake is in progress. */
     private volatile boolean isHandshaking;
 
+    /** Indicates if the duration of the current handshake is measured. */
+    private volatile boolean handshakeMeasured;
+
+    /** The start time in nanoseconds of the current initial handshake. */
+    private volatile long handshakeStartTime;
+
     /**
      * Constructor.
      * 
@@ -374,6 +382,8 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * @throws SSLException
      */
     public void initSslEngine() throws SSLException {
+        this.handshakeStartTime = System.nanoTime();
+        this.handshakeMeasured = true;
         getSslEngine().beginHandshake();
     }
 
@@ -393,6 +403,13 @@ public class SslConnection<T extends Connector> extends Connection<T> {
     private void onFinished() {
         isHandshaking = false;
 
+        if (this.handshakeMeasured) {
+            this.handshakeMeasured = false;
+            getHelper().onSslHandshakeCompleted(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+                            - this.handshakeStartTime), getSslSession());
+        }
+
         if (isClientSide()) {
             getInboundWay().setIoState(IoState.IDLE);
             getOutboundWay().setIoState(IoState.INTEREST);
@@ -406,8 +423,9 @@ public class SslConnection<T extends Connector> extends Connection<T> {
      * Runs the pending lengthy task.
      */
     private void onNeedTask() {
-        // Delegate lengthy tasks to the connector's worker
-        // service before checking again
+        // Delegate lengthy tasks to the connector's dedicated SSL task
+        // service before checking again, so that the controller and the
+        // worker service aren't stalled by a burst of handshakes
         final Runnable task = getSslEngine().getDelegatedTask();
 
         if (task != null) {
@@ -416,33 +434,41 @@ public class SslConnection<T extends Connector> extends Connection<T> {
             getOutboundWay().setIoState(IoState.IDLE);
 
             // Runs the pending lengthy task.
-            getHelper().getWorkerService().execute(new Runnable() {
+            getHelper().getSslTaskService().execute(new Runnable() {
                 public void run() {
-                    getLogger().log(Level.FINER, "Running delegated tasks...");
-                    task.run();
+                    try {
+                        getLogger().log(Level.FINER,
+                                "Running delegated tasks...");
+                        task.run();
 
-                    // Check if a next task is pending
-                    Runnable nextTask = getSslEngine().getDelegatedTask();
+                        // Check if a next task is pending
+                        Runnable nextTask = getSslEngine().getDelegatedTask();
 
-                    // Run any pending task sequentially
-                    while (nextTask != null) {
-                        nextTask.run();
-                        nextTask = getSslEngine().getDelegatedTask();
-                    }
+                        // Run any pending task sequentially
+                        while (nextTask != null) {
+                            nextTask.run();
+                            nextTask = getSslEngine().getDelegatedTask();
+                        }
 
-                    if (getLogger().isLoggable(Level.FINER)) {
-                        getLogger().log(Level.FINER,
-                                "Done running delegated tasks");
-                    }
+                        if (getLogger().isLoggable(Level.FINER)) {
+                            getLogger().log(Level.FINER,
+                                    "Done running delegated tasks");
+                        }
 
-                    try {
+                        // Resume the IO processing, the controller will
+                        // re-register the NIO interest
                         handleSslResult();
-                    } catch (IOException e) {
-                        getLogger().log(Level.INFO,
-                                "Unable to handle SSL handshake", e);
+                    } catch (Throwable t) {
+                        onError("Unable to handle SSL handshake", t,
+                                Status.CONNECTOR_ERROR_COMMUNICATION);
                     }
 
-                    getHelper().getController().wakeup();
+                    getController().wakeup();
+                }
+
+                @Override
+                public String toString() {
+                    return "Run delegated SSL tasks";
                 }
             });
         }
@@ -456,7 +482,12 @@ public class SslConnection<T extends Connector> extends Connection<T> {
     private void onUnwrap() throws IOException {
         getOutboundWay().setIoState(IoState.IDLE);
 
-        if (getInboundWay().getIoState() != IoState.PROCESSING) {
+        if ((getInboundWay().getIoState() == IoState.READY)
+                && (getSslEngineResult() == null)) {
+            // Nothing could be unwrapped during the last round, wait for the
+            // peer's bytes instead of spinning on the controller thread
+            getInboundWay().setIoState(IoState.INTEREST);
+        } else if (getInboundWay().getIoState() != IoState.PROCESSING) {
             getInboundWay().setIoState(IoState.READY);
         }
     }
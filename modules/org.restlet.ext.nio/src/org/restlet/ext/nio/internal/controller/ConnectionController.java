@@ -49,6 +49,7 @@ import org.restlet.engine.io.WakeupListener;
 import org.restlet.ext.nio.ConnectionHelper;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.state.ConnectionState;
+import org.restlet.ext.nio.internal.util.DelayMonitor;
 import org.restlet.util.SelectionListener;
 import org.restlet.util.SelectionRegistration;
 
@@ -60,9 +61,15 @@ import org.restlet.util.SelectionRegistration;
 public class ConnectionController extends Controller implements Runnable,
         WakeupListener {
 
+    /** The moving average of the time spent processing each control loop. */
+    private final DelayMonitor loopDelay;
+
     /** The list of new selection registrations. */
     private final Queue<SelectionRegistration> newRegistrations;
 
+    /** The time when the last NIO selection returned, in nanoseconds. */
+    private volatile long selectedTime;
+
     /** The NIO selector. */
     private volatile Selector selector;
 
@@ -77,6 +84,7 @@ public class ConnectionController extends Controller implements Runnable,
      */
     public ConnectionController(ConnectionHelper<?> helper) {
         super(helper);
+        this.loopDelay = new DelayMonitor();
         this.newRegistrations = new ConcurrentLinkedQueue<SelectionRegistration>();
         this.updatedRegistrations = new ConcurrentLinkedQueue<SelectionRegistration>();
     }
@@ -110,6 +118,14 @@ public class ConnectionController extends Controller implements Runnable,
         } else if (conn.isReady()) {
             conn.onSelected(conn.getRegistration());
         }
+
+        if ((conn.getState() == ConnectionState.OPEN)
+                && conn.hasPendingInput()) {
+            // Parse the pipelined requests already buffered and ensure that
+            // they are dispatched without waiting for a new NIO selection
+            conn.onPendingInput();
+            wakeup();
+        }
     }
 
     /**
@@ -141,12 +157,19 @@ public class ConnectionController extends Controller implements Runnable,
         return result;
     }
 
+    /**
+     * Creates the connection pool of the parent helper. Done in the controller
+     * for thread safety reason regarding the byte buffers part of the pooled
+     * connections.
+     */
+    protected void createConnectionPool() {
+        getHelper().createConnectionPool();
+    }
+
     @Override
     protected void doInit() {
         this.selector = createSelector();
-        // Done in the controller for thread safety reason regarding the byte
-        // buffers part of the pooled connections
-        getHelper().createConnectionPool();
+        createConnectionPool();
     }
 
     @Override
@@ -174,6 +197,18 @@ public class ConnectionController extends Controller implements Runnable,
         selectKeys(sleepTime);
     }
 
+    /**
+     * Returns the moving average of the time spent processing each control
+     * loop, from the end of an NIO selection to the beginning of the next one.
+     * This is the delay that IO events and messages await before being handled
+     * by this controller.
+     * 
+     * @return The control loop delay monitor.
+     */
+    public DelayMonitor getLoopDelay() {
+        return loopDelay;
+    }
+
     /**
      * Returns the queue of new selection registrations.
      * 
@@ -297,7 +332,14 @@ public class ConnectionController extends Controller implements Runnable,
                             + getSelector().keys().size() + " keys...\n");
         }
 
+        if (this.selectedTime != 0) {
+            // Events occurring since the last selection had to wait for the
+            // processing of the control loop
+            this.loopDelay.record(System.nanoTime() - this.selectedTime);
+        }
+
         int selectCount = getSelector().select(sleepTime);
+        this.selectedTime = System.nanoTime();
 
         if (selectCount > 0) {
             if (getHelper().getLogger().isLoggable(Level.FINER)) {
@@ -108,6 +108,18 @@ public abstract class Controller {
         return getHelper().getWorkerService();
     }
 
+    /**
+     * Indicates if the controller should detect the overload of the helper's
+     * worker service. By default, it returns true if the worker service is
+     * enabled.
+     * 
+     * @return True if the controller should detect the overload of the
+     *         helper's worker service.
+     */
+    protected boolean isOverloadDetecting() {
+        return getHelper().hasWorkerThreads();
+    }
+
     /**
      * Indicates if the controller is overloaded.
      * 
@@ -134,12 +146,12 @@ public abstract class Controller {
             doInit();
             setRunning(true);
             long sleepTime = getHelper().getControllerSleepTimeMs();
-            boolean hasWorkerThreads = getHelper().hasWorkerThreads();
+            boolean overloadDetecting = isOverloadDetecting();
             boolean isWorkerServiceOverloaded;
 
             while (isRunning()) {
                 try {
-                    if (hasWorkerThreads) {
+                    if (overloadDetecting) {
                         isWorkerServiceOverloaded = getHelper()
                                 .isWorkerServiceOverloaded();
 
@@ -149,7 +161,8 @@ public abstract class Controller {
                                     .getLogger()
                                     .info("Connector overload ended. Accepting new work again");
                             getHelper().traceWorkerService();
-                        } else if (isWorkerServiceOverloaded) {
+                        } else if (!isOverloaded()
+                                && isWorkerServiceOverloaded) {
                             setOverloaded(true);
                             getHelper()
                                     .getLogger()
@@ -0,0 +1,230 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.controller;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+import org.restlet.ext.nio.ServerConnectionHelper;
+import org.restlet.ext.nio.internal.connection.Connection;
+import org.restlet.ext.nio.internal.state.ConnectionState;
+
+/**
+ * Controls the IO work of a subset of the connections of the parent server
+ * helper. Socket channels are accepted by the
+ * {@link ServerConnectionController} and then handed over to one of several
+ * selector controllers, each one having its own NIO selector and thread.
+ * 
+ * @author Jerome Louvel
+ */
+public class SelectorController extends ConnectionController {
+
+    /** The queue of accepted socket channels to open connections for. */
+    private final Queue<SocketChannel> acceptedChannels;
+
+    /** The set of connections controlled. */
+    private final Set<Connection<?>> connections;
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent server helper.
+     */
+    public SelectorController(ServerConnectionHelper helper) {
+        super(helper);
+        this.acceptedChannels = new ConcurrentLinkedQueue<SocketChannel>();
+        this.connections = Collections
+                .newSetFromMap(new ConcurrentHashMap<Connection<?>, Boolean>());
+    }
+
+    /**
+     * Hands over a socket channel accepted by the server controller and wakes
+     * up the controller. The connection is then opened by the controller
+     * thread.
+     * 
+     * @param socketChannel
+     *            The accepted socket channel.
+     */
+    public void accept(SocketChannel socketChannel) {
+        this.acceptedChannels.add(socketChannel);
+        wakeup();
+    }
+
+    /**
+     * Controls a connection. Connections closed by the control are collected
+     * right away, as closing them doesn't wake up the selector.
+     *
+     * @param conn
+     *            The connection to control.
+     * @throws IOException
+     */
+    @Override
+    protected void controlConnection(Connection<?> conn) throws IOException {
+        if (conn.getState() != ConnectionState.CLOSED) {
+            super.controlConnection(conn);
+        }
+
+        if (conn.getState() == ConnectionState.CLOSED) {
+            getConnections().remove(conn);
+            super.controlConnection(conn);
+        }
+    }
+
+    @Override
+    protected void controlConnections() throws IOException {
+        for (Connection<?> connection : getConnections()) {
+            controlConnection(connection);
+        }
+    }
+
+    /**
+     * Does nothing as the connection pool is created by the parent server
+     * controller.
+     */
+    @Override
+    protected void createConnectionPool() {
+    }
+
+    @Override
+    protected void doRelease() {
+        SocketChannel socketChannel = this.acceptedChannels.poll();
+
+        while (socketChannel != null) {
+            getHelper().releaseConnection();
+
+            try {
+                socketChannel.close();
+            } catch (IOException e) {
+                getHelper().getLogger().log(Level.FINE,
+                        "Unable to close an accepted socket channel", e);
+            }
+
+            socketChannel = this.acceptedChannels.poll();
+        }
+
+        // Close the connections still controlled by this selector
+        for (Connection<?> connection : getConnections()) {
+            connection.close(false);
+            getHelper().getConnections().remove(connection);
+            getHelper().checkin(connection);
+        }
+
+        getConnections().clear();
+        super.doRelease();
+    }
+
+    /**
+     * Opens the accepted connections, controls them and selects the keys ready
+     * for IO operations. Unlike the parent server controller, it doesn't
+     * control the helper's inbound and outbound messages.
+     * 
+     * @param sleepTime
+     *            The maximum amount of sleep time.
+     */
+    @Override
+    protected void doRun(long sleepTime) throws IOException {
+        openConnections();
+        controlConnections();
+        registerKeys();
+        updateKeys();
+        selectKeys(sleepTime);
+    }
+
+    /**
+     * Returns the set of connections controlled.
+     * 
+     * @return The set of connections controlled.
+     */
+    public Set<Connection<?>> getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns the parent server helper.
+     * 
+     * @return The parent server helper.
+     */
+    @Override
+    protected ServerConnectionHelper getHelper() {
+        return (ServerConnectionHelper) super.getHelper();
+    }
+
+    /**
+     * Returns false as the overload is detected by the parent server
+     * controller.
+     * 
+     * @return False.
+     */
+    @Override
+    protected boolean isOverloadDetecting() {
+        return false;
+    }
+
+    /**
+     * Opens a connection for each socket channel handed over by the server
+     * controller.
+     */
+    protected void openConnections() {
+        SocketChannel socketChannel = this.acceptedChannels.poll();
+
+        while (socketChannel != null) {
+            try {
+                getConnections().add(
+                        getHelper().getController().openConnection(
+                                socketChannel, this));
+            } catch (IOException e) {
+                getHelper().getLogger().log(Level.WARNING,
+                        "Unexpected error while opening a new connection", e);
+                getHelper().releaseConnection();
+
+                try {
+                    socketChannel.close();
+                } catch (IOException ioe) {
+                    getHelper().getLogger().log(Level.FINE,
+                            "Unable to close an accepted socket channel", ioe);
+                }
+            }
+
+            socketChannel = this.acceptedChannels.poll();
+        }
+    }
+
+}
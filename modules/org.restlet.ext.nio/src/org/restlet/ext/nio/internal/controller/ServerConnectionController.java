@@ -40,6 +40,7 @@ import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -60,6 +61,9 @@ public class ServerConnectionController extends ConnectionController {
     /** The latch to countdown when the socket is ready to accept connections. */
     private final CountDownLatch latch;
 
+    /** The index of the last selector controller used. */
+    private volatile int nextSelectorController;
+
     /**
      * Constructor.
      * 
@@ -69,6 +73,7 @@ public class ServerConnectionController extends ConnectionController {
     public ServerConnectionController(ServerConnectionHelper helper) {
         super(helper);
         this.latch = new CountDownLatch(1);
+        this.nextSelectorController = -1;
     }
 
     /**
@@ -86,6 +91,19 @@ public class ServerConnectionController extends ConnectionController {
         }
     }
 
+    /**
+     * Controls the helper connections, unless they are handed over to selector
+     * controllers.
+     * 
+     * @throws IOException
+     */
+    @Override
+    protected void controlConnections() throws IOException {
+        if (getHelper().getSelectorControllers().isEmpty()) {
+            super.controlConnections();
+        }
+    }
+
     /**
      * Returns the parent server helper.
      * 
@@ -95,6 +113,26 @@ public class ServerConnectionController extends ConnectionController {
         return (ServerConnectionHelper) super.getHelper();
     }
 
+    /**
+     * Returns the selector controller that should control the next accepted
+     * connection. The selector controllers are used in a round robin way.
+     * 
+     * @return The selector controller or null if the accepted connections are
+     *         controlled by this controller.
+     */
+    protected SelectorController getSelectorController() {
+        List<SelectorController> selectorControllers = getHelper()
+                .getSelectorControllers();
+
+        if (selectorControllers.isEmpty()) {
+            return null;
+        }
+
+        this.nextSelectorController = (this.nextSelectorController + 1)
+                % selectorControllers.size();
+        return selectorControllers.get(this.nextSelectorController);
+    }
+
     @Override
     protected void onSelected(SelectionKey key) throws IOException {
         if (!key.isAcceptable()) {
@@ -109,26 +147,20 @@ public class ServerConnectionController extends ConnectionController {
                     socketChannel.configureBlocking(false);
                     getHelper().configure(socketChannel.socket());
 
-                    int connectionsCount = getHelper().getConnections().size();
-
-                    if ((getHelper().getMaxTotalConnections() == -1)
-                            || (connectionsCount <= getHelper()
-                                    .getMaxTotalConnections())) {
-                        Connection<Server> connection = getHelper().checkout(
-                                socketChannel,
-                                this,
-                                (InetSocketAddress) socketChannel.socket()
-                                        .getRemoteSocketAddress());
-                        connection.open();
-                        getHelper().getConnections().add(connection);
-
-                        if (getHelper().getLogger().isLoggable(Level.FINE)) {
-                            getHelper().getLogger().fine(
-                                    "Connection from \""
-                                            + connection.getSocketAddress()
-                                            + "\" accepted. New count: "
-                                            + getHelper().getConnections()
-                                                    .size());
+                    if (getHelper().acquireConnection()) {
+                        SelectorController selectorController = getSelectorController();
+
+                        if (selectorController == null) {
+                            try {
+                                openConnection(socketChannel, this);
+                            } catch (IOException e) {
+                                getHelper().releaseConnection();
+                                socketChannel.close();
+                                throw e;
+                            }
+                        } else {
+                            // Hand the socket over to a selector controller
+                            selectorController.accept(socketChannel);
                         }
                     } else {
                         // Rejection connection
@@ -155,6 +187,36 @@ public class ServerConnectionController extends ConnectionController {
         }
     }
 
+    /**
+     * Opens a connection for an accepted socket channel and adds it to the
+     * helper's connections.
+     * 
+     * @param socketChannel
+     *            The accepted socket channel.
+     * @param controller
+     *            The IO controller of the connection.
+     * @return The connection opened.
+     * @throws IOException
+     */
+    protected Connection<Server> openConnection(SocketChannel socketChannel,
+            ConnectionController controller) throws IOException {
+        Connection<Server> result = getHelper().checkout(socketChannel,
+                controller,
+                (InetSocketAddress) socketChannel.socket()
+                        .getRemoteSocketAddress());
+        result.open();
+        getHelper().getConnections().add(result);
+
+        if (getHelper().getLogger().isLoggable(Level.FINE)) {
+            getHelper().getLogger().fine(
+                    "Connection from \"" + result.getSocketAddress()
+                            + "\" accepted. New count: "
+                            + getHelper().getConnections().size());
+        }
+
+        return result;
+    }
+
     @Override
     protected void doInit() {
         super.doInit();
@@ -171,4 +233,14 @@ public class ServerConnectionController extends ConnectionController {
 
         this.latch.countDown();
     }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+
+        for (SelectorController selectorController : getHelper()
+                .getSelectorControllers()) {
+            selectorController.shutdown();
+        }
+    }
 }
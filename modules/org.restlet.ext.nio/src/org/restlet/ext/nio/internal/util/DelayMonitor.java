@@ -0,0 +1,106 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.nio.internal.util;
+
+/**
+ * Tracks a moving average of delays, such as the time spent by a task in a
+ * queue before being processed. Recent samples weigh more so that the average
+ * quickly reflects a building congestion. Samples are recorded by the worker
+ * and controller threads, so updates are synchronized while reads only rely
+ * on volatile fields.
+ * 
+ * @author Jerome Louvel
+ */
+public class DelayMonitor {
+
+    /** The weight of a new sample, as a power of two divisor. */
+    private static final int WEIGHT_SHIFT = 3;
+
+    /** The moving average of the delays in nanoseconds. */
+    private volatile long average;
+
+    /** The number of recorded samples. */
+    private volatile long count;
+
+    /** The maximum recorded delay in nanoseconds. */
+    private volatile long max;
+
+    /**
+     * Returns the moving average of the delays in milliseconds.
+     * 
+     * @return The moving average of the delays in milliseconds.
+     */
+    public long getAverageMs() {
+        return average / 1000000L;
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     * 
+     * @return The number of recorded samples.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the maximum recorded delay in milliseconds.
+     * 
+     * @return The maximum recorded delay in milliseconds.
+     */
+    public long getMaxMs() {
+        return max / 1000000L;
+    }
+
+    /**
+     * Records a new delay sample.
+     * 
+     * @param delay
+     *            The delay in nanoseconds.
+     */
+    public synchronized void record(long delay) {
+        if (delay < 0) {
+            delay = 0;
+        }
+
+        long current = this.average;
+        this.average = current + ((delay - current) >> WEIGHT_SHIFT);
+        this.count++;
+
+        if (delay > this.max) {
+            this.max = delay;
+        }
+    }
+
+}
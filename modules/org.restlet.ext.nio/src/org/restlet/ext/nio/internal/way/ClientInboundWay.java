@@ -177,7 +177,13 @@ public abstract class ClientInboundWay extends InboundWay {
             setIoState(IoState.IDLE);
         } else {
             // The response has been completely read
+            IoState ioState = getIoState();
             onMessageCompleted(false);
+
+            if (getMessageState() == MessageState.START) {
+                // Keep parsing the next pipelined response, if any
+                setIoState(ioState);
+            }
         }
     }
 
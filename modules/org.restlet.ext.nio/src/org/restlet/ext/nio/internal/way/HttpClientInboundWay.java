@@ -118,6 +118,11 @@ public class HttpClientInboundWay extends ClientInboundWay {
     public void onMessageCompleted(boolean endDetected) throws IOException {
         getMessages().remove(getMessage());
         super.onMessageCompleted(endDetected);
+
+        if (!getMessages().isEmpty()) {
+            // Responses to pipelined requests are expected
+            setMessageState(MessageState.START);
+        }
     }
 
     @Override
@@ -34,6 +34,7 @@
 package org.restlet.ext.nio.internal.way;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -119,8 +120,12 @@ public class HttpClientOutboundWay extends ClientOutboundWay {
                 Queue<Response> inboundMessages = ((HttpClientInboundWay) getConnection()
                         .getInboundWay()).getMessages();
                 inboundMessages.add(message);
-                getConnection().getInboundWay().setMessageState(
-                        MessageState.START);
+
+                // Don't disturb the reading of a previous pipelined response
+                if (getConnection().getInboundWay().getMessageState() == MessageState.IDLE) {
+                    getConnection().getInboundWay().setMessageState(
+                            MessageState.START);
+                }
             }
         }
 
@@ -150,12 +155,45 @@ public class HttpClientOutboundWay extends ClientOutboundWay {
         super.onTimeOut();
     }
 
+    /**
+     * Indicates if the next request can be sent before the responses to the
+     * previous ones are received. This requires a pipelining connection, an
+     * idempotent request, only idempotent requests waiting for their response
+     * and less than "maxPipelined" of them.
+     * 
+     * @param request
+     *            The next request to send.
+     * @return True if the request can be pipelined.
+     */
+    protected boolean canPipeline(Request request) {
+        boolean result = getConnection().isPipelining()
+                && request.getMethod().isIdempotent();
+
+        if (result) {
+            Queue<Response> inboundMessages = ((HttpClientInboundWay) getConnection()
+                    .getInboundWay()).getMessages();
+            result = (inboundMessages.size() < getHelper().getMaxPipelined());
+
+            for (Iterator<Response> iter = inboundMessages.iterator(); result
+                    && iter.hasNext();) {
+                result = iter.next().getRequest().getMethod().isIdempotent();
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public void updateState() {
         // Update the IO state if necessary
-        if (getMessage() == null
-                && getConnection().getInboundWay().isAvailable()) {
-            setMessage(getMessages().peek());
+        if (getMessage() == null) {
+            Response next = getMessages().peek();
+
+            if ((next != null)
+                    && (getConnection().getInboundWay().isAvailable() || canPipeline(next
+                            .getRequest()))) {
+                setMessage(next);
+            }
         }
 
         super.updateState();
@@ -66,6 +66,19 @@ public class HttpServerInboundWay extends ServerInboundWay {
         this.messages = new ConcurrentLinkedQueue<Response>();
     }
 
+    /**
+     * Indicates if an additional request can be read, either because no
+     * previous request is waiting for its response or because pipelining is
+     * enabled and the number of requests waiting for their response is below
+     * the "maxPipelined" parameter.
+     */
+    @Override
+    protected boolean canPipeline() {
+        return getMessages().isEmpty()
+                || (super.canPipeline() && (getMessages().size() < getHelper()
+                        .getMaxPipelined()));
+    }
+
     @Override
     public void clear() {
         super.clear();
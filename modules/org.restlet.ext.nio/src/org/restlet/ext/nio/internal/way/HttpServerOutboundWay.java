@@ -34,9 +34,11 @@
 package org.restlet.ext.nio.internal.way;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Server;
 import org.restlet.data.Status;
@@ -77,6 +79,33 @@ public class HttpServerOutboundWay extends ServerOutboundWay {
         return getMessages().size();
     }
 
+    /**
+     * Returns the next response to send. As pipelined requests must be
+     * answered in the same order, this is the response to the oldest request
+     * received, or a response to a request that is no longer expected.
+     * 
+     * @return The next response to send or null.
+     */
+    protected Response getNextMessage() {
+        Response result = null;
+        Queue<Response> inboundMessages = ((HttpServerInboundWay) getConnection()
+                .getInboundWay()).getMessages();
+        Response inboundMessage = inboundMessages.peek();
+
+        for (Iterator<Response> iter = getMessages().iterator(); (result == null)
+                && iter.hasNext();) {
+            Response rsp = iter.next();
+
+            if ((inboundMessage == null)
+                    || (rsp.getRequest() == inboundMessage.getRequest())
+                    || !isExpected(inboundMessages, rsp.getRequest())) {
+                result = rsp;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the queue of messages.
      * 
@@ -91,6 +120,27 @@ public class HttpServerOutboundWay extends ServerOutboundWay {
         getMessages().add(response);
     }
 
+    /**
+     * Indicates if a request is still waiting for its response in the given
+     * queue of inbound messages.
+     * 
+     * @param inboundMessages
+     *            The queue of inbound messages.
+     * @param request
+     *            The request to look for.
+     * @return True if the request is still waiting for its response.
+     */
+    private boolean isExpected(Queue<Response> inboundMessages, Request request) {
+        boolean result = false;
+
+        for (Iterator<Response> iter = inboundMessages.iterator(); !result
+                && iter.hasNext();) {
+            result = (iter.next().getRequest() == request);
+        }
+
+        return result;
+    }
+
     @Override
     public boolean isEmpty() {
         return super.isEmpty() && getMessages().isEmpty();
@@ -107,7 +157,9 @@ public class HttpServerOutboundWay extends ServerOutboundWay {
             // Attempt to read additional inbound messages
             Response inboundMessage = inboundMessages.peek();
 
-            if (inboundMessage.getRequest() == getMessage().getRequest()) {
+            if ((inboundMessage != null)
+                    && (inboundMessage.getRequest() == getMessage()
+                            .getRequest())) {
                 // As we are supporting provisional responses and
                 // asynchronous responses, it is possible that the final
                 // response object is not the original one blocked in the
@@ -148,7 +200,7 @@ public class HttpServerOutboundWay extends ServerOutboundWay {
     public void updateState() {
         // Update the IO state if necessary
         if ((getIoState() == IoState.IDLE) && getMessage() == null) {
-            setMessage(getMessages().peek());
+            setMessage(getNextMessage());
         }
 
         super.updateState();
@@ -40,11 +40,11 @@ import java.util.logging.Level;
 import org.restlet.Response;
 import org.restlet.data.Header;
 import org.restlet.data.Status;
-import org.restlet.engine.header.HeaderReader;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.engine.io.ReadableSelectionChannel;
 import org.restlet.ext.nio.internal.buffer.Buffer;
 import org.restlet.ext.nio.internal.buffer.BufferState;
+import org.restlet.ext.nio.internal.buffer.HeaderParser;
 import org.restlet.ext.nio.internal.channel.ReadableChunkedChannel;
 import org.restlet.ext.nio.internal.channel.ReadableSizedSelectionChannel;
 import org.restlet.ext.nio.internal.connection.Connection;
@@ -70,6 +70,9 @@ public abstract class InboundWay extends Way {
     /** The NIO selection registration of the entity. */
     private volatile SelectionRegistration entityRegistration;
 
+    /** The incremental header parser. */
+    private final HeaderParser headerParser;
+
     /**
      * Constructor.
      * 
@@ -81,6 +84,7 @@ public abstract class InboundWay extends Way {
     public InboundWay(Connection<?> connection, int bufferSize) {
         super(connection, bufferSize);
         this.builderIndex = 0;
+        this.headerParser = new HeaderParser();
     }
 
     @Override
@@ -88,6 +92,7 @@ public abstract class InboundWay extends Way {
         super.clear();
         this.builderIndex = 0;
         this.entityRegistration = null;
+        this.headerParser.clear();
     }
 
     /**
@@ -156,14 +161,24 @@ public abstract class InboundWay extends Way {
      */
     protected boolean fillLine() throws IOException {
         boolean result = false;
-        setLineBuilderState(getBuffer().drain(getLineBuilder(),
-                getLineBuilderState()));
 
-        if (getLineBuilderState() == BufferState.DRAINING) {
-            result = true;
+        if (getMessageState() == MessageState.HEADERS) {
+            // Header lines are parsed at the byte level
+            result = getBuffer().drain(getHeaderParser());
+
+            if (result && getLogger().isLoggable(Level.FINE)) {
+                getLogger().log(Level.FINE, getHeaderParser().toString());
+            }
+        } else {
+            setLineBuilderState(getBuffer().drain(getLineBuilder(),
+                    getLineBuilderState()));
+
+            if (getLineBuilderState() == BufferState.DRAINING) {
+                result = true;
 
-            if (getLogger().isLoggable(Level.FINE)) {
-                getLogger().log(Level.FINE, getLineBuilder().toString());
+                if (getLogger().isLoggable(Level.FINE)) {
+                    getLogger().log(Level.FINE, getLineBuilder().toString());
+                }
             }
         }
 
@@ -188,6 +203,15 @@ public abstract class InboundWay extends Way {
         return entityRegistration;
     }
 
+    /**
+     * Returns the incremental header parser.
+     * 
+     * @return The incremental header parser.
+     */
+    protected HeaderParser getHeaderParser() {
+        return headerParser;
+    }
+
     @Override
     public int getInterestOperations() {
         int result = 0;
@@ -199,6 +223,18 @@ public abstract class InboundWay extends Way {
         return result;
     }
 
+    /**
+     * Indicates if bytes already buffered, such as pipelined messages, could be
+     * parsed without waiting for a new NIO selection.
+     * 
+     * @return True if buffered bytes could be parsed right away.
+     */
+    public boolean hasPendingInput() {
+        return (getMessageState() == MessageState.START)
+                && (getIoState() == IoState.INTEREST)
+                && (getBuffer().canDrain() || getBuffer().couldDrain());
+    }
+
     /**
      * Indicates if the next message line is readable.
      * 
@@ -217,7 +253,7 @@ public abstract class InboundWay extends Way {
 
         // Wakeup the controller to update the registrations,
         // since this callback can be called asynchronous
-        getHelper().getController().wakeup();
+        getConnection().getController().wakeup();
 
         if (getLogger().isLoggable(Level.FINER)) {
             getLogger().finer("Inbound message completed");
@@ -372,9 +408,7 @@ public abstract class InboundWay extends Way {
      * @throws IOException
      */
     protected Header readHeader() throws IOException {
-        Header header = HeaderReader.readHeader(getLineBuilder());
-        clearLineBuilder();
-        return header;
+        return getHeaderParser().readHeader();
     }
 
     /**
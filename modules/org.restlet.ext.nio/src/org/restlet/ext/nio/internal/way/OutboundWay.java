@@ -95,6 +95,15 @@ public abstract class OutboundWay extends Way {
      */
     private volatile SelectionKey entitySelectionKey;
 
+    /** The index in the entity file channel of the next byte to transfer. */
+    private volatile long entityTransferIndex;
+
+    /**
+     * The number of entity bytes remaining to be transferred directly from the
+     * entity file channel to the socket channel, or -1 if not transferred.
+     */
+    private volatile long entityTransferSize;
+
     /** The header index. */
     private volatile int headerIndex;
 
@@ -110,6 +119,8 @@ public abstract class OutboundWay extends Way {
         super(connection, bufferSize);
         this.entityChannel = null;
         this.entitySelectionKey = null;
+        this.entityTransferIndex = 0;
+        this.entityTransferSize = -1;
         this.headerIndex = 0;
     }
 
@@ -156,6 +167,8 @@ public abstract class OutboundWay extends Way {
         super.clear();
         this.entityChannel = null;
         this.entitySelectionKey = null;
+        this.entityTransferIndex = 0;
+        this.entityTransferSize = -1;
         this.headerIndex = 0;
     }
 
@@ -220,6 +233,28 @@ public abstract class OutboundWay extends Way {
         return entitySelectionKey;
     }
 
+    /**
+     * Returns the index in the entity file channel of the next byte to
+     * transfer.
+     * 
+     * @return The index in the entity file channel of the next byte to
+     *         transfer.
+     */
+    protected long getEntityTransferIndex() {
+        return entityTransferIndex;
+    }
+
+    /**
+     * Returns the number of entity bytes remaining to be transferred directly
+     * from the entity file channel to the socket channel, or -1 if the entity
+     * isn't transferred directly.
+     * 
+     * @return The number of entity bytes remaining to be transferred.
+     */
+    protected long getEntityTransferSize() {
+        return entityTransferSize;
+    }
+
     /**
      * Returns the header index.
      * 
@@ -250,7 +285,18 @@ public abstract class OutboundWay extends Way {
     @Override
     protected boolean hasIoInterest() {
         return (getMessageState() == MessageState.START)
-                || getBuffer().canDrain();
+                || getBuffer().canDrain() || isEntityTransferring();
+    }
+
+    /**
+     * Indicates if the entity is being transferred directly from its file
+     * channel to the socket channel, bypassing the IO buffer.
+     * 
+     * @return True if the entity is being transferred directly.
+     */
+    protected boolean isEntityTransferring() {
+        return (getMessageState() == MessageState.BODY)
+                && (getEntityTransferSize() >= 0);
     }
 
     /**
@@ -274,39 +320,44 @@ public abstract class OutboundWay extends Way {
             }
 
             setMessageState(MessageState.BODY);
-            ReadableByteChannel rbc = getActualMessage().getEntity()
-                    .getChannel();
 
-            if (rbc instanceof FileChannel) {
+            if (openEntityTransfer(getActualMessage().getEntity())) {
                 setEntityChannelType(EntityType.TRANSFERABLE);
-            } else if (rbc instanceof BlockableChannel) {
-                BlockableChannel bc = (BlockableChannel) rbc;
+            } else {
+                ReadableByteChannel rbc = getActualMessage().getEntity()
+                        .getChannel();
+
+                if (rbc instanceof FileChannel) {
+                    setEntityChannelType(EntityType.TRANSFERABLE);
+                } else if (rbc instanceof BlockableChannel) {
+                    BlockableChannel bc = (BlockableChannel) rbc;
+
+                    if (bc.isBlocking()) {
+                        setEntityChannelType(EntityType.BLOCKING);
+                    } else {
+                        setEntityChannelType(EntityType.NON_BLOCKING);
+                    }
+                } else if (rbc instanceof SelectableChannel) {
+                    SelectableChannel sc = (SelectableChannel) rbc;
 
-                if (bc.isBlocking()) {
-                    setEntityChannelType(EntityType.BLOCKING);
+                    if (sc.isBlocking()) {
+                        setEntityChannelType(EntityType.BLOCKING);
+                    } else {
+                        setEntityChannelType(EntityType.NON_BLOCKING);
+                    }
                 } else {
-                    setEntityChannelType(EntityType.NON_BLOCKING);
+                    setEntityChannelType(EntityType.BLOCKING);
                 }
-            } else if (rbc instanceof SelectableChannel) {
-                SelectableChannel sc = (SelectableChannel) rbc;
 
-                if (sc.isBlocking()) {
-                    setEntityChannelType(EntityType.BLOCKING);
+                if (getActualMessage().getEntity().getAvailableSize() == Representation.UNKNOWN_SIZE) {
+                    setEntityChannel(new ReadableChunkingChannel(rbc,
+                            getBuffer().capacity()));
                 } else {
-                    setEntityChannelType(EntityType.NON_BLOCKING);
+                    setEntityChannel(new ReadableSizedChannel(rbc,
+                            getActualMessage().getEntity()
+                                    .getAvailableSize()));
                 }
-            } else {
-                setEntityChannelType(EntityType.BLOCKING);
             }
-
-            if (getActualMessage().getEntity().getAvailableSize() == Representation.UNKNOWN_SIZE) {
-                setEntityChannel(new ReadableChunkingChannel(rbc, getBuffer()
-                        .capacity()));
-            } else {
-                setEntityChannel(new ReadableSizedChannel(rbc,
-                        getActualMessage().getEntity().getAvailableSize()));
-            }
-
         } else {
             setMessageState(MessageState.END);
         }
@@ -333,9 +384,13 @@ public abstract class OutboundWay extends Way {
             if (connectorService != null) {
                 connectorService.afterSend(messageEntity);
             }
+
+            getConnection().onMessageSent();
         }
 
         super.onMessageCompleted(endReached);
+        setEntityTransferIndex(0);
+        setEntityTransferSize(-1);
         setHeaderIndex(0);
 
         if (getLogger().isLoggable(Level.FINER)) {
@@ -385,7 +440,9 @@ public abstract class OutboundWay extends Way {
 
         // Write the message or part of it in the byte
         // buffer
-        if (getMessageState() == MessageState.BODY) {
+        if (isEntityTransferring()) {
+            // The entity bypasses the buffer, see transferEntity()
+        } else if (getMessageState() == MessageState.BODY) {
             try {
                 int filled = buffer.fill(getEntityChannel());
 
@@ -436,6 +493,23 @@ public abstract class OutboundWay extends Way {
         return remaining - buffer.remaining();
     }
 
+    /**
+     * Opens a direct transfer of the entity from a file channel to the socket
+     * channel, bypassing the IO buffer. When returning true, the entity channel
+     * must be set to the file channel with {@link #setEntityChannel}, as well
+     * as the transfer index and size. Returns false by default.
+     * 
+     * @param entity
+     *            The entity to transfer.
+     * @return True if the entity will be transferred directly.
+     * @throws IOException
+     * @see #transferEntity()
+     */
+    protected boolean openEntityTransfer(Representation entity)
+            throws IOException {
+        return false;
+    }
+
     /**
      * Called back when a fill operation returns with an EOF status.
      */
@@ -464,6 +538,15 @@ public abstract class OutboundWay extends Way {
     public int processIoBuffer() throws IOException {
         int result = super.processIoBuffer();
 
+        // Transfer the entity once the start line and headers are sent
+        if (isEntityTransferring() && getBuffer().isEmpty()) {
+            int transferred = transferEntity();
+
+            if (transferred > 0) {
+                result = (result > 0) ? result + transferred : transferred;
+            }
+        }
+
         if (getMessage() != null) {
             if (getMessageState() == MessageState.END) {
                 // Message fully written, ready for a new one
@@ -508,6 +591,29 @@ public abstract class OutboundWay extends Way {
         this.entitySelectionKey = entityKey;
     }
 
+    /**
+     * Sets the index in the entity file channel of the next byte to transfer.
+     * 
+     * @param entityTransferIndex
+     *            The index in the entity file channel of the next byte to
+     *            transfer.
+     */
+    protected void setEntityTransferIndex(long entityTransferIndex) {
+        this.entityTransferIndex = entityTransferIndex;
+    }
+
+    /**
+     * Sets the number of entity bytes remaining to be transferred directly from
+     * the entity file channel to the socket channel, or -1 if the entity isn't
+     * transferred directly.
+     * 
+     * @param entityTransferSize
+     *            The number of entity bytes remaining to be transferred.
+     */
+    protected void setEntityTransferSize(long entityTransferSize) {
+        this.entityTransferSize = entityTransferSize;
+    }
+
     /**
      * Sets the header index.
      * 
@@ -530,6 +636,52 @@ public abstract class OutboundWay extends Way {
                 && (entity.getAvailableSize() == Representation.UNKNOWN_SIZE);
     }
 
+    /**
+     * Transfers the entity directly from its file channel to the socket
+     * channel, using {@link FileChannel#transferTo(long, long,
+     * java.nio.channels.WritableByteChannel)} so that the bytes aren't copied
+     * through the IO buffer. Stops as soon as the socket channel can't accept
+     * more bytes, leaving the way interested in a new write selection.
+     * 
+     * @return The number of bytes transferred.
+     * @throws IOException
+     */
+    protected int transferEntity() throws IOException {
+        long result = 0;
+        long transferred = 0;
+
+        do {
+            transferred = getEntityFileChannel().transferTo(
+                    getEntityTransferIndex(), getEntityTransferSize(),
+                    getConnection().getSocketChannel());
+
+            if (transferred > 0) {
+                result += transferred;
+                setEntityTransferIndex(getEntityTransferIndex() + transferred);
+                setEntityTransferSize(getEntityTransferSize() - transferred);
+            }
+        } while ((transferred > 0) && (getEntityTransferSize() > 0));
+
+        if (result > 0) {
+            getConnection().onActivity();
+            getHelper().onFileTransferred(result);
+        }
+
+        if (getLogger().isLoggable(Level.FINER)) {
+            getLogger().log(Level.FINER, result + " entity bytes transferred");
+        }
+
+        if (getEntityTransferSize() == 0) {
+            setMessageState(MessageState.END);
+        } else if ((transferred == 0) && (getIoState() == IoState.PROCESSING)) {
+            // The socket channel can't write more, wait for a new NIO
+            // selection
+            setIoState(IoState.INTEREST);
+        }
+
+        return (int) Math.min(result, Integer.MAX_VALUE);
+    }
+
     @Override
     public void updateState() {
         if ((getMessageState() == MessageState.IDLE) && (getMessage() != null)) {
@@ -67,6 +67,17 @@ public abstract class ServerInboundWay extends InboundWay {
         super(connection, bufferSize);
     }
 
+    /**
+     * Indicates if an additional pipelined request can be read before the
+     * responses to the previous ones are sent. Returns
+     * {@link Connection#isPipelining()} by default.
+     * 
+     * @return True if an additional pipelined request can be read.
+     */
+    protected boolean canPipeline() {
+        return getConnection().isPipelining();
+    }
+
     /**
      * Creates a response object for the given request.
      * 
@@ -95,8 +106,12 @@ public abstract class ServerInboundWay extends InboundWay {
     @Override
     protected boolean hasIoInterest() {
         return (getMessageState() == MessageState.START)
-                || ((getIoState() == IoState.IDLE) && getConnection()
-                        .isPipelining());
+                || ((getIoState() == IoState.IDLE) && canPipeline());
+    }
+
+    @Override
+    public boolean hasPendingInput() {
+        return super.hasPendingInput() && canPipeline();
     }
 
     @Override
@@ -139,9 +154,22 @@ public abstract class ServerInboundWay extends InboundWay {
             // Add it to the helper queue
             getHelper().getInboundMessages().add(message);
 
+            // Wake up the helper controller if the connection is controlled
+            // by a distinct selector controller
+            if (getConnection().getController() != getHelper().getController()) {
+                getHelper().getController().wakeup();
+            }
+
             if (!message.getRequest().isEntityAvailable()) {
                 // The request has been completely read
+                IoState ioState = getIoState();
                 onMessageCompleted(false);
+
+                if (canPipeline()) {
+                    // Keep parsing the next pipelined request, if any
+                    setMessageState(MessageState.START);
+                    setIoState(ioState);
+                }
             }
         }
     }
@@ -221,7 +249,8 @@ public abstract class ServerInboundWay extends InboundWay {
 
     @Override
     public void updateState() {
-        if (getMessageState() == MessageState.IDLE) {
+        if ((getMessageState() == MessageState.IDLE)
+                && (!getConnection().isPipelining() || canPipeline())) {
             setMessageState(MessageState.START);
         }
 
@@ -41,9 +41,13 @@ import org.restlet.Response;
 import org.restlet.Server;
 import org.restlet.data.Header;
 import org.restlet.data.Method;
+import org.restlet.data.Range;
 import org.restlet.data.Status;
+import org.restlet.engine.application.RangeRepresentation;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.ext.nio.internal.connection.Connection;
+import org.restlet.ext.nio.internal.connection.SslConnection;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.util.Series;
 
@@ -155,6 +159,57 @@ public abstract class ServerOutboundWay extends OutboundWay {
         return (Connection<Server>) super.getConnection();
     }
 
+    /**
+     * Transfers the entity directly to the socket channel if it is a
+     * {@link FileRepresentation}, or a {@link RangeRepresentation} wrapping
+     * one, and if the connection is a plain TCP one. SSL connections need to
+     * encrypt the bytes, and tracing or throttling need to see them, so they
+     * keep going through the IO buffer.
+     */
+    @Override
+    protected boolean openEntityTransfer(Representation entity)
+            throws IOException {
+        boolean result = false;
+
+        if ((entity != null) && !(getConnection() instanceof SslConnection)
+                && !getHelper().isTracing()
+                && (getHelper().getThrottleTimeMs() <= 0)) {
+            Representation fileEntity = entity;
+            Range range = entity.getRange();
+
+            if (entity instanceof RangeRepresentation) {
+                fileEntity = ((RangeRepresentation) entity)
+                        .getWrappedRepresentation();
+            }
+
+            long size = entity.getAvailableSize();
+
+            if ((fileEntity instanceof FileRepresentation)
+                    && fileEntity.hasKnownSize()
+                    && (size != Representation.UNKNOWN_SIZE)) {
+                long index = 0;
+
+                if (range != null) {
+                    if (range.getIndex() != Range.INDEX_LAST) {
+                        index = range.getIndex();
+                    } else if (range.getSize() != Range.SIZE_MAX) {
+                        index = fileEntity.getSize() - range.getSize();
+                    }
+                }
+
+                if ((index >= 0) && (index + size <= fileEntity.getSize())) {
+                    setEntityChannel(((FileRepresentation) fileEntity)
+                            .getChannel());
+                    setEntityTransferIndex(index);
+                    setEntityTransferSize(size);
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public void onMessageCompleted(boolean endDetected) throws IOException {
         if (getMessage() != null) {
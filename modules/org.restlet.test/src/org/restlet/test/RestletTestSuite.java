@@ -38,6 +38,7 @@ import junit.framework.TestSuite;
 
 import org.restlet.test.component.ComponentXmlConfigTestCase;
 import org.restlet.test.component.ComponentXmlTestCase;
+import org.restlet.test.component.ServerRouterTestCase;
 import org.restlet.test.connector.FileClientTestCase;
 import org.restlet.test.connector.RestartTestCase;
 import org.restlet.test.connector.RiapTestCase;
@@ -80,6 +81,7 @@ import org.restlet.test.representation.RangeRepresentationTestCase;
 import org.restlet.test.routing.FilterTestCase;
 import org.restlet.test.routing.RedirectTestCase;
 import org.restlet.test.routing.RouteListTestCase;
+import org.restlet.test.routing.RouterTestCase;
 import org.restlet.test.routing.ValidatorTestCase;
 import org.restlet.test.security.HttpBasicTestCase;
 import org.restlet.test.security.RoleTestCase;
@@ -111,6 +113,7 @@ public class RestletTestSuite extends TestSuite {
 		addTestSuite(AuthenticationInfoTestCase.class);
 		addTestSuite(CallTestCase.class);
 		addTestSuite(ComponentXmlConfigTestCase.class);
+		addTestSuite(ServerRouterTestCase.class);
 		addTestSuite(CookieTestCase.class);
 		addTestSuite(ClientInfoTestCase.class);
 		addTestSuite(FileClientTestCase.class);
@@ -130,6 +133,7 @@ public class RestletTestSuite extends TestSuite {
 		addTestSuite(RestartTestCase.class);
 		addTestSuite(RiapTestCase.class);
 		addTestSuite(RouteListTestCase.class);
+		addTestSuite(RouterTestCase.class);
 		addTestSuite(DigestVerifierTestCase.class);
 		addTestSuite(RecipientInfoTestCase.class);
 		addTestSuite(RoleTestCase.class);
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.component;
+
+import org.restlet.Component;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.engine.component.HostRoute;
+import org.restlet.engine.component.ServerRouter;
+import org.restlet.routing.VirtualHost;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Test case for the selection of virtual hosts by the {@link ServerRouter}.
+ * 
+ * @author Jerome Louvel
+ */
+public class ServerRouterTestCase extends RestletTestCase {
+
+    private Component component;
+
+    private VirtualHost hostA;
+
+    private VirtualHost hostB;
+
+    private ServerRouter router;
+
+    private VirtualHost getHost(String uri) {
+        Request request = new Request(Method.GET, uri);
+        request.setHostRef(uri);
+        Restlet next = router.getNext(request, new Response(request));
+        return (next instanceof HostRoute) ? ((HostRoute) next)
+                .getVirtualHost() : null;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        component = new Component();
+        hostA = new VirtualHost(component.getContext());
+        hostA.setHostDomain("a\\.example\\.com");
+        hostB = new VirtualHost(component.getContext());
+        hostB.setHostDomain("b\\.example\\.com");
+        component.getHosts().add(hostA);
+        component.getHosts().add(hostB);
+        router = new ServerRouter(component);
+        router.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        router.stop();
+        super.tearDown();
+    }
+
+    public void testCachedSelection() {
+        for (int i = 0; i < 3; i++) {
+            assertSame(hostA, getHost("http://a.example.com/x"));
+            assertSame(hostB, getHost("http://b.example.com:80/y"));
+            assertSame(component.getDefaultHost(),
+                    getHost("http://c.example.com/z"));
+            assertSame(hostA, getHost("http://a.example.com:8080/x"));
+        }
+    }
+
+    public void testCaseInsensitiveKey() {
+        assertSame(hostA, getHost("http://A.Example.COM/x"));
+
+        // The selection is cached for all the spellings of the domain
+        hostA.setHostDomain("z\\.example\\.com");
+        assertSame(hostA, getHost("http://a.example.com/x"));
+        assertSame(hostA, getHost("http://a.EXAMPLE.com/x"));
+    }
+
+    public void testDisabledCache() {
+        router.setMaxCachedHosts(0);
+        assertSame(hostA, getHost("http://a.example.com/x"));
+        assertSame(hostB, getHost("http://b.example.com/y"));
+    }
+
+    public void testRoutesUpdate() {
+        assertSame(hostA, getHost("http://a.example.com/x"));
+
+        // Detaching the host must invalidate the cache
+        router.getRoutes().remove(0);
+        assertSame(component.getDefaultHost(),
+                getHost("http://a.example.com/x"));
+
+        // Attaching a host must invalidate the cache
+        VirtualHost hostC = new VirtualHost(component.getContext());
+        hostC.setHostDomain("a\\.example\\.com");
+        router.getRoutes().add(0, new HostRoute(router, hostC));
+        assertSame(hostC, getHost("http://a.example.com/x"));
+    }
+
+    public void testWildcardHostNotCached() {
+        assertSame(component.getDefaultHost(),
+                getHost("http://c.example.com/z"));
+
+        // The default host matches any domain, so its selection isn't cached
+        component.getDefaultHost().setHostDomain("d\\.example\\.com");
+        assertNull(getHost("http://c.example.com/z"));
+    }
+
+}
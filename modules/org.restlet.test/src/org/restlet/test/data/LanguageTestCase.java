@@ -49,6 +49,13 @@ public class LanguageTestCase extends RestletTestCase {
     public void testValueOf() {
         assertSame(Language.FRENCH_FRANCE, Language.valueOf("fr-fr"));
         assertSame(Language.ALL, Language.valueOf("*"));
+
+        // Parsed languages are cached
+        Language language = Language.valueOf("de-CH");
+        assertSame(language, Language.valueOf("de-CH"));
+        assertEquals(Language.valueOf("DE-ch"), language);
+        assertNull(Language.valueOf(null));
+        assertNull(Language.valueOf(""));
     }
 
     public void testUnmodifiable() {
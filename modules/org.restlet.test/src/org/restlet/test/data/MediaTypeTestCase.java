@@ -351,8 +351,9 @@ public class MediaTypeTestCase extends RestletTestCase {
         assertEquals("x-restlet-test", newType.getSubType());
         assertEquals("application/x-restlet-test", newType.getName());
 
-        // Should not have got registered by call to valueOf() alone
-        assertNotSame(newType, MediaType.valueOf("application/x-restlet-test"));
+        // Should not have got registered by call to valueOf() alone, only
+        // cached for the next lookups
+        assertSame(newType, MediaType.valueOf("application/x-restlet-test"));
 
         final MediaType registeredType = MediaType.register(
                 "application/x-restlet-test", "Restlet testcase");
@@ -373,6 +374,15 @@ public class MediaTypeTestCase extends RestletTestCase {
         assertEquals(MediaType.APPLICATION_ATOM, mediaType.getParent());
     }
 
+    public void testValueOfCache() {
+        MediaType mediaType = MediaType.valueOf("text/x-cached; a=b");
+        assertSame(mediaType, MediaType.valueOf("text/x-cached; a=b"));
+        assertEquals("b", mediaType.getParameters().getFirstValue("a"));
+        assertSame(MediaType.TEXT_PLAIN, MediaType.valueOf("text/plain"));
+        assertNull(MediaType.valueOf(null));
+        assertNull(MediaType.valueOf(""));
+    }
+
     @SuppressWarnings("unchecked")
     public void testUnmodifiable() {
         Form form = new Form();
@@ -33,6 +33,7 @@
 
 package org.restlet.test.engine;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 import org.junit.Assert;
@@ -64,6 +65,68 @@ public class AnnotationUtilsTestCase extends RestletTestCase {
 
     }
 
+    static interface IHidden {
+
+        @Get
+        String represent(String name);
+
+    }
+
+    public static interface IPublic {
+
+        @Get
+        String represent(String name);
+
+    }
+
+    static class HiddenResource implements IHidden {
+
+        public String represent(String name) {
+            return "Hello " + name;
+        }
+
+    }
+
+    public static class PublicResource implements IPublic {
+
+        public String represent(String name) {
+            if (name == null) {
+                throw new IllegalStateException("No name");
+            }
+
+            return "Hello " + name;
+        }
+
+    }
+
+    public void testInvoke() throws Exception {
+        List<AnnotationInfo> infos = AnnotationUtils.getInstance()
+                .getAnnotations(PublicResource.class);
+        Assert.assertEquals("Wrong count: " + infos, 1, infos.size());
+        Assert.assertEquals("Hello world",
+                infos.get(0).invoke(new PublicResource(), "world"));
+
+        // Exceptions thrown by the method are wrapped
+        try {
+            infos.get(0).invoke(new PublicResource(), (Object) null);
+            Assert.fail("The method should have thrown an exception");
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getTargetException() instanceof IllegalStateException);
+        }
+
+        // The access checks still apply to non-public methods
+        infos = AnnotationUtils.getInstance().getAnnotations(
+                HiddenResource.class);
+        Assert.assertEquals("Wrong count: " + infos, 1, infos.size());
+
+        try {
+            infos.get(0).invoke(new HiddenResource(), "world");
+            Assert.fail("The hidden method shouldn't be accessible");
+        } catch (IllegalAccessException e) {
+            // Expected
+        }
+    }
+
     public void testGetAnnotationsWithGenericParameterType() {
         List<AnnotationInfo> infos = AnnotationUtils.getInstance()
                 .getAnnotations(IChild.class);
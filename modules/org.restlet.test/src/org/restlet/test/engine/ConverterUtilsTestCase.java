@@ -0,0 +1,195 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.data.MediaType;
+import org.restlet.engine.Engine;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.converter.ConverterUtils;
+import org.restlet.engine.converter.DefaultConverter;
+import org.restlet.engine.resource.VariantInfo;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Resource;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the converter helpers resolution.
+ * 
+ * @author Jerome Louvel
+ */
+public class ConverterUtilsTestCase extends RestletTestCase {
+
+    /**
+     * Converter counting the number of times it is scored.
+     */
+    private static class CountingConverter extends DefaultConverter {
+
+        private int objectScores;
+
+        private int representationScores;
+
+        @Override
+        public float score(Object source, Variant target, Resource resource) {
+            representationScores++;
+            return 2.0F;
+        }
+
+        @Override
+        public <T> float score(Representation source, Class<T> target,
+                Resource resource) {
+            objectScores++;
+            return 2.0F;
+        }
+    }
+
+    private List<ConverterHelper> converters;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.converters = new ArrayList<ConverterHelper>(Engine.getInstance()
+                .getRegisteredConverters());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Engine.getInstance().setRegisteredConverters(this.converters);
+        super.tearDown();
+    }
+
+    public void testCacheInvalidation() {
+        List<ConverterHelper> registered = Engine.getInstance()
+                .getRegisteredConverters();
+        CountingConverter first = new CountingConverter();
+        CountingConverter second = new CountingConverter();
+        registered.add(0, first);
+
+        Variant text = new Variant(MediaType.TEXT_PLAIN);
+        assertSame(first, ConverterUtils.getBestHelper("test", text, null));
+
+        // Replacing a converter in place invalidates the cache
+        registered.set(0, second);
+        assertSame(second, ConverterUtils.getBestHelper("test", text, null));
+        assertEquals(1, second.representationScores);
+
+        // Changes made via views also invalidate the cache
+        registered.subList(0, 1).set(0, first);
+        assertSame(first, ConverterUtils.getBestHelper("test", text, null));
+        assertEquals(2, first.representationScores);
+    }
+
+    public void testGetBestHelperForObject() {
+        CountingConverter converter = new CountingConverter();
+        Engine.getInstance().getRegisteredConverters().add(converter);
+
+        Representation text = new StringRepresentation("test");
+        assertSame(converter,
+                ConverterUtils.getBestHelper(text, String.class, null));
+        assertEquals(1, converter.objectScores);
+
+        // The helper is cached for the same classes and media type
+        assertSame(converter, ConverterUtils.getBestHelper(
+                new StringRepresentation("other"), String.class, null));
+        assertEquals(1, converter.objectScores);
+
+        assertSame(converter, ConverterUtils.getBestHelper(
+                new StringRepresentation("test", MediaType.TEXT_HTML),
+                String.class, null));
+        assertEquals(2, converter.objectScores);
+
+        // The cache is invalidated when the converters change
+        Engine.getInstance().getRegisteredConverters().remove(converter);
+        assertNotSame(converter,
+                ConverterUtils.getBestHelper(text, String.class, null));
+        assertEquals(2, converter.objectScores);
+    }
+
+    public void testGetBestHelperForRepresentation() {
+        CountingConverter converter = new CountingConverter();
+        Engine.getInstance().getRegisteredConverters().add(converter);
+
+        Variant text = new Variant(MediaType.TEXT_PLAIN);
+        assertSame(converter, ConverterUtils.getBestHelper("test", text, null));
+        assertEquals(1, converter.representationScores);
+
+        // The helper is cached for the same class and media type
+        assertSame(converter,
+                ConverterUtils.getBestHelper("other", text, null));
+        assertEquals(1, converter.representationScores);
+
+        assertSame(converter, ConverterUtils.getBestHelper("test",
+                new Variant(MediaType.TEXT_HTML), null));
+        assertEquals(2, converter.representationScores);
+
+        // The cache is invalidated when the converters change
+        Engine.getInstance().getRegisteredConverters().remove(converter);
+        assertNotSame(converter,
+                ConverterUtils.getBestHelper("test", text, null));
+        assertEquals(2, converter.representationScores);
+    }
+
+    public void testGetObjectClasses() {
+        Variant text = new Variant(MediaType.TEXT_PLAIN);
+        List<Class<?>> classes = ConverterUtils.getObjectClasses(text);
+        assertTrue(classes.contains(String.class));
+
+        // Cached lists aren't shared with the callers
+        classes.clear();
+        assertTrue(ConverterUtils.getObjectClasses(text).contains(
+                String.class));
+    }
+
+    public void testGetVariants() {
+        List<VariantInfo> variants = ConverterUtils.getVariants(String.class,
+                null);
+        assertNotNull(variants);
+        MediaType mediaType = variants.get(0).getMediaType();
+        int size = variants.size();
+
+        // Cached variants aren't shared with the callers
+        variants = ConverterUtils.getVariants(String.class, null);
+        assertEquals(size, variants.size());
+        variants.get(0).setMediaType(MediaType.IMAGE_PNG);
+        variants.clear();
+        variants = ConverterUtils.getVariants(String.class, null);
+        assertEquals(size, variants.size());
+        assertEquals(mediaType, variants.get(0).getMediaType());
+    }
+
+}
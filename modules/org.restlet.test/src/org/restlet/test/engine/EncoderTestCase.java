@@ -0,0 +1,194 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.restlet.Context;
+import org.restlet.data.ClientInfo;
+import org.restlet.data.Encoding;
+import org.restlet.data.MediaType;
+import org.restlet.data.Preference;
+import org.restlet.engine.application.CachedEncodeRepresentation;
+import org.restlet.engine.application.EncodeCache;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.engine.application.Encoder;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.service.EncoderService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link Encoder} filter.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncoderTestCase extends RestletTestCase {
+
+    private ClientInfo client;
+
+    private Encoder encoder;
+
+    private EncoderService encoderService;
+
+    private static String decode(Representation representation)
+            throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        representation.write(baos);
+        return IoUtils.toString(new GZIPInputStream(
+                new ByteArrayInputStream(baos.toByteArray())));
+    }
+
+    private static Representation entity(String text, Date modificationDate) {
+        Representation result = new StringRepresentation(text);
+        result.setLocationRef("http://localhost/test.txt");
+        result.setModificationDate(modificationDate);
+        return result;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.client = new ClientInfo();
+        this.client.getAcceptedEncodings().add(
+                new Preference<Encoding>(Encoding.GZIP));
+        this.encoderService = new EncoderService();
+        this.encoder = new Encoder(new Context(), false, true,
+                this.encoderService);
+    }
+
+    public void testCache() throws Exception {
+        Date date = new Date(1000000L);
+
+        // Disabled by default
+        assertEquals(0, this.encoderService.getMaxCachedSize());
+        Representation result = this.encoder.encode(this.client,
+                entity("0123456789", date));
+        assertFalse(result instanceof CachedEncodeRepresentation);
+
+        // Recorded after the first write, then served from memory
+        this.encoderService.setMaxCachedSize(1024);
+        EncodeCache cache = this.encoderService.getEncodeCache();
+        result = this.encoder.encode(this.client, entity("0123456789", date));
+        assertTrue(result instanceof CachedEncodeRepresentation);
+        assertFalse(((CachedEncodeRepresentation) result).isCached());
+        assertEquals(Representation.UNKNOWN_SIZE, result.getSize());
+        assertEquals("0123456789", decode(result));
+        assertEquals(1, cache.getCount());
+
+        result = this.encoder.encode(this.client, entity("0123456789", date));
+        assertTrue(((CachedEncodeRepresentation) result).isCached());
+        assertEquals(cache.getSize(), result.getSize());
+        assertEquals("0123456789", decode(result));
+        assertEquals("0123456789", IoUtils.toString(new GZIPInputStream(
+                result.getStream())));
+
+        // A new version of the entity is a new entry
+        result = this.encoder.encode(this.client,
+                entity("9876543210", new Date(2000000L)));
+        assertFalse(((CachedEncodeRepresentation) result).isCached());
+        assertEquals("9876543210", decode(result));
+        assertEquals(2, cache.getCount());
+
+        // Entities without a validator aren't cached
+        Representation entity = entity("0123456789", null);
+        result = this.encoder.encode(this.client, entity);
+        assertFalse(result instanceof CachedEncodeRepresentation);
+        assertTrue(result instanceof EncodeRepresentation);
+
+        // The cache is bounded by the number of bytes
+        long size = cache.getSize();
+        cache.setMaxSize(size - 1);
+        assertEquals(1, cache.getCount());
+        assertTrue(cache.getSize() < size);
+        cache.setMaxSize(0);
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testPrecompressed() throws Exception {
+        File testDir = new File(System.getProperty("java.io.tmpdir"),
+                "encoderTestCase");
+        IoUtils.delete(testDir, true);
+        testDir.mkdirs();
+
+        try {
+            File file = new File(testDir, "test.txt");
+            FileOutputStream fos = new FileOutputStream(file);
+            fos.write("0123456789".getBytes());
+            fos.close();
+            File sibling = new File(testDir, "test.txt.gz");
+            GZIPOutputStream gos = new GZIPOutputStream(new FileOutputStream(
+                    sibling));
+            gos.write("precompressed".getBytes());
+            gos.close();
+            file.setLastModified(sibling.lastModified() - 10000);
+
+            // Disabled by default
+            FileRepresentation entity = new FileRepresentation(file,
+                    MediaType.TEXT_PLAIN);
+            Representation result = this.encoder.encode(this.client, entity);
+            assertEquals("0123456789", decode(result));
+
+            // Serves the sibling with the metadata of the original file
+            this.encoderService.setPrecompressed(true);
+            result = this.encoder.encode(this.client, entity);
+            assertTrue(result instanceof FileRepresentation);
+            assertEquals(sibling, ((FileRepresentation) result).getFile());
+            assertEquals(MediaType.TEXT_PLAIN, result.getMediaType());
+            assertTrue(result.getEncodings().contains(Encoding.GZIP));
+            assertEquals(entity.getModificationDate(),
+                    result.getModificationDate());
+            assertEquals(sibling.length(), result.getSize());
+            assertEquals("precompressed", decode(result));
+
+            // Unless the sibling is older than the file
+            file.setLastModified(sibling.lastModified() + 10000);
+            entity = new FileRepresentation(file, MediaType.TEXT_PLAIN);
+            result = this.encoder.encode(this.client, entity);
+            assertEquals("0123456789", decode(result));
+        } finally {
+            IoUtils.delete(testDir, true);
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine;
+
+import java.io.File;
+import java.io.FileWriter;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.LocalReference;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.data.Range;
+import org.restlet.data.Tag;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.DigesterRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the file client connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class FileClientHelperTestCase extends RestletTestCase {
+
+    private Client client;
+
+    private File file;
+
+    private File testDir;
+
+    private Response get(Method method) {
+        return this.client.handle(new Request(method, LocalReference
+                .createFileReference(this.file)));
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.testDir = new File(System.getProperty("java.io.tmpdir"),
+                "fileClientHelperTestCase");
+        IoUtils.delete(this.testDir, true);
+        this.testDir.mkdirs();
+        this.file = new File(this.testDir, "test.txt");
+        write("0123456789");
+
+        Context context = new Context();
+        context.getParameters().add("tagAlgorithm", "MD5");
+        this.client = new Client(context, Protocol.FILE);
+        this.client.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.client.stop();
+        IoUtils.delete(this.testDir, true);
+        super.tearDown();
+    }
+
+    public void testTag() throws Exception {
+        // The tag is computed while the file is written
+        Response response = get(Method.HEAD);
+        assertNull(response.getEntity().getTag());
+        response = get(Method.GET);
+        assertTrue(response.getEntity() instanceof DigesterRepresentation);
+        assertNull(response.getEntity().getTag());
+        assertEquals("0123456789", response.getEntity().getText());
+        Tag tag = ((DigesterRepresentation) response.getEntity())
+                .getComputedTag();
+        assertFalse(tag.isWeak());
+
+        // Then cached for the next requests
+        response = get(Method.GET);
+        assertFalse(response.getEntity() instanceof DigesterRepresentation);
+        assertEquals(tag, response.getEntity().getTag());
+        assertEquals(tag, get(Method.HEAD).getEntity().getTag());
+
+        // Until the file is modified
+        write("9876543210");
+        this.file.setLastModified(this.file.lastModified() - 10000);
+        response = get(Method.GET);
+        assertNull(response.getEntity().getTag());
+        response.getEntity().exhaust();
+        assertFalse(tag.equals(get(Method.GET).getEntity().getTag()));
+
+        // Partial contents don't compute the tag
+        write("0123");
+        Request request = new Request(Method.GET,
+                LocalReference.createFileReference(this.file));
+        request.getRanges().add(new Range(0, 2));
+        response = this.client.handle(request);
+        assertFalse(response.getEntity() instanceof DigesterRepresentation);
+        response.getEntity().exhaust();
+        response = get(Method.GET);
+        assertTrue(response.getEntity() instanceof DigesterRepresentation);
+    }
+
+    private void write(String content) throws Exception {
+        FileWriter writer = new FileWriter(this.file);
+        writer.write(content);
+        writer.close();
+    }
+
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Protocol;
+import org.restlet.engine.Engine;
+import org.restlet.engine.connector.ConnectorHelper;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Base test case starting a server connector and sending it raw HTTP calls on
+ * new connections. The server helpers to test are registered in front of the
+ * default ones.
+ * 
+ * @author Jerome Louvel
+ */
+public abstract class BaseServerTestCase extends RestletTestCase {
+
+    /** The number of calls being handled. */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /** The maximum number of calls handled at the same time. */
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    /** The server tested. */
+    private Server server;
+
+    /** The threads that handled the calls. */
+    private final Set<Thread> threads = Collections
+            .newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+    /**
+     * Sends a request on a new connection and returns the response status
+     * code.
+     */
+    protected int call(String path) throws Exception {
+        return call(path, 30000);
+    }
+
+    /**
+     * Sends a request on a new connection and returns the response status
+     * code, or 0 if no response was received in time.
+     */
+    protected int call(String path, int timeoutMs) throws Exception {
+        Socket socket = new Socket("localhost", getServer().getEphemeralPort());
+
+        try {
+            socket.setSoTimeout(timeoutMs);
+            OutputStream os = socket.getOutputStream();
+            os.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Connection: close\r\n\r\n").getBytes("US-ASCII"));
+            os.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), "US-ASCII"));
+            String statusLine = reader.readLine();
+            return Integer.parseInt(statusLine.split(" ")[1]);
+        } catch (SocketTimeoutException e) {
+            return 0;
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Sends concurrent requests on new connections and returns the response
+     * status codes.
+     */
+    protected List<Integer> callConcurrently(int count) throws Exception {
+        return callConcurrently(count, 30000);
+    }
+
+    /**
+     * Sends concurrent requests on new connections and returns the response
+     * status codes, or 0 for the requests not answered in time.
+     */
+    protected List<Integer> callConcurrently(int count, final int timeoutMs)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                final String path = "/" + i;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        return BaseServerTestCase.this.call(path, timeoutMs);
+                    }
+                }));
+            }
+
+            List<Integer> result = new ArrayList<Integer>();
+
+            for (Future<Integer> future : futures) {
+                result.add(future.get(60, TimeUnit.SECONDS));
+            }
+
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the server helpers to test.
+     * 
+     * @return The server helpers to test.
+     */
+    protected abstract List<ConnectorHelper<Server>> createServerHelpers();
+
+    /**
+     * Returns the maximum number of calls handled at the same time.
+     * 
+     * @return The maximum number of calls handled at the same time.
+     */
+    protected int getMaxActive() {
+        return this.maxActive.get();
+    }
+
+    /**
+     * Returns the server tested.
+     * 
+     * @return The server tested.
+     */
+    protected Server getServer() {
+        return this.server;
+    }
+
+    /**
+     * Returns the threads that handled the calls.
+     * 
+     * @return The threads that handled the calls.
+     */
+    protected Set<Thread> getThreads() {
+        return this.threads;
+    }
+
+    @Override
+    protected void setUpEngine() {
+        super.setUpEngine();
+        Engine.getInstance().getRegisteredServers()
+                .addAll(0, createServerHelpers());
+    }
+
+    /**
+     * Starts an HTTP server with the given parameters, answering after the
+     * given delay, plus the one given by the optional "sleep" query parameter.
+     */
+    protected void start(long delay, String... parameters) throws Exception {
+        start(Protocol.HTTP, delay, parameters);
+    }
+
+    /**
+     * Starts a server with the given protocol and parameters, answering after
+     * the given delay, plus the one given by the optional "sleep" query
+     * parameter. The calls handled are counted and their threads recorded.
+     */
+    protected void start(Protocol protocol, final long delay,
+            String... parameters) throws Exception {
+        start(protocol, new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                int current = active.incrementAndGet();
+                int max = maxActive.get();
+                threads.add(Thread.currentThread());
+
+                while ((current > max)
+                        && !maxActive.compareAndSet(max, current)) {
+                    max = maxActive.get();
+                }
+
+                String sleep = request.getResourceRef().getQueryAsForm()
+                        .getFirstValue("sleep", "0");
+
+                try {
+                    Thread.sleep(delay + Long.parseLong(sleep));
+                } catch (InterruptedException e) {
+                    // Answer right away
+                } finally {
+                    active.decrementAndGet();
+                }
+
+                response.setEntity("hello "
+                        + request.getResourceRef().getPath(),
+                        MediaType.TEXT_PLAIN);
+            }
+        }, parameters);
+    }
+
+    /**
+     * Starts a server with the given protocol, root Restlet and parameters.
+     */
+    protected void start(Protocol protocol, Restlet root,
+            String... parameters) throws Exception {
+        this.server = new Server(new Context(), protocol, 0, root);
+
+        for (int i = 0; i < parameters.length; i += 2) {
+            this.server.getContext().getParameters()
+                    .add(parameters[i], parameters[i + 1]);
+        }
+
+        this.server.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (this.server != null) {
+            this.server.stop();
+            this.server = null;
+        }
+
+        super.tearDown();
+    }
+
+}
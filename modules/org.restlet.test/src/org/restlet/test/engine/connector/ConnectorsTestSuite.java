@@ -62,6 +62,9 @@ public class ConnectorsTestSuite extends TestSuite {
         addTestSuite(ChunkedEncodingTestCase.class);
         addTestSuite(GetTestCase.class);
         addTestSuite(GetChunkedTestCase.class);
+        addTestSuite(NetServerHelperTestCase.class);
+        addTestSuite(NioClientTestCase.class);
+        addTestSuite(NioServerTestCase.class);
         addTestSuite(PostPutTestCase.class);
         addTestSuite(RemoteClientAddressTestCase.class);
         addTestSuite(SslClientContextGetTestCase.class);
@@ -33,12 +33,19 @@
 
 package org.restlet.test.engine.connector;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.restlet.Context;
 import org.restlet.Server;
 import org.restlet.data.Header;
 import org.restlet.data.Protocol;
 import org.restlet.engine.Engine;
+import org.restlet.engine.header.HeaderConstants;
 import org.restlet.ext.nio.HttpServerHelper;
+import org.restlet.ext.nio.internal.buffer.HeaderParser;
 import org.restlet.ext.nio.internal.connection.Connection;
 import org.restlet.ext.nio.internal.request.HttpInboundRequest;
 import org.restlet.test.RestletTestCase;
@@ -51,6 +58,162 @@ import org.restlet.util.Series;
  */
 public class HttpInboundRequestTestCase extends RestletTestCase {
 
+    /**
+     * Parses the headers received in several successive buffer fills.
+     * 
+     * @param parser
+     *            The header parser.
+     * @param fills
+     *            The successive buffer contents.
+     * @return The headers parsed, followed by a null element if the end of
+     *         the headers was reached.
+     */
+    private static List<Header> parse(HeaderParser parser, String... fills)
+            throws IOException {
+        List<Header> result = new ArrayList<Header>();
+        boolean ended = false;
+
+        for (int i = 0; !ended && (i < fills.length); i++) {
+            ByteBuffer bytes = ByteBuffer.wrap(fills[i]
+                    .getBytes("ISO-8859-1"));
+
+            while (!ended && parser.fill(bytes)) {
+                Header header = parser.readHeader();
+                result.add(header);
+                ended = (header == null);
+            }
+
+            assertFalse("Bytes must be consumed or left for the next line",
+                    !ended && bytes.hasRemaining());
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses the headers received in several successive buffer fills with a
+     * default header parser.
+     * 
+     * @param fills
+     *            The successive buffer contents.
+     * @return The headers parsed, followed by a null element if the end of
+     *         the headers was reached.
+     */
+    private static List<Header> parse(String... fills) throws IOException {
+        return parse(new HeaderParser(), fills);
+    }
+
+    public void testCrlfSplitBetweenFills() throws Exception {
+        List<Header> headers = parse("Host: localhost\r",
+                "\nAccept: */*\r\n\r", "\n");
+
+        assertEquals(3, headers.size());
+        assertEquals("localhost", headers.get(0).getValue());
+        assertEquals("*/*", headers.get(1).getValue());
+        assertNull(headers.get(2));
+    }
+
+    public void testEmptyValue() throws Exception {
+        List<Header> headers = parse("X-Empty:\r\nX-Blank:  \t\r\n\r\n");
+
+        assertEquals(3, headers.size());
+        assertEquals("X-Empty", headers.get(0).getName());
+        assertEquals("", headers.get(0).getValue());
+        assertEquals("X-Blank", headers.get(1).getName());
+        assertEquals("", headers.get(1).getValue());
+        assertNull(headers.get(2));
+    }
+
+    public void testFoldedLine() throws Exception {
+        List<Header> headers = parse("X-Folded: a,\r\n   b,\r\n",
+                "\tc\r\nAccept: */*\r\n\r\n");
+
+        assertEquals(3, headers.size());
+        assertEquals("X-Folded", headers.get(0).getName());
+        assertEquals("a, b, c", headers.get(0).getValue());
+        assertEquals("*/*", headers.get(1).getValue());
+        assertNull(headers.get(2));
+    }
+
+    public void testGarbageLine() throws Exception {
+        try {
+            parse("Host: localhost\r\n\u0001\u0002garbage\r\n\r\n");
+            fail("Control characters in a header name must be rejected");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        try {
+            parse("Bad name: value\r\n\r\n");
+            fail("Spaces in a header name must be rejected");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        try {
+            parse("NoColonHere\r\n\r\n");
+            fail("Lines without a colon must be rejected");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        try {
+            parse("Host: localhost\r\r\n\r\n");
+            fail("Carriage returns without line feed must be rejected");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    public void testHeaderSplitAcrossFills() throws Exception {
+        List<Header> headers = parse("Content-Ty", "pe: text/pl",
+                "ain\r\nAccept: */*\r\n\r\n");
+
+        assertEquals(3, headers.size());
+        assertSame(HeaderConstants.HEADER_CONTENT_TYPE, headers.get(0)
+                .getName());
+        assertEquals("text/plain", headers.get(0).getValue());
+        assertEquals("Accept", headers.get(1).getName());
+        assertNull(headers.get(2));
+    }
+
+    public void testMixedCaseNames() throws Exception {
+        List<Header> headers = parse("content-TYPE: text/plain\r\n"
+                + "Content-Type: text/html\r\n\r\n");
+
+        assertEquals(3, headers.size());
+        assertEquals("content-TYPE", headers.get(0).getName());
+        assertSame(HeaderConstants.HEADER_CONTENT_TYPE, headers.get(1)
+                .getName());
+
+        Series<Header> series = new Series<Header>(Header.class,
+                headers.subList(0, 2));
+        assertEquals("text/plain", series.getFirstValue(
+                HeaderConstants.HEADER_CONTENT_TYPE, true));
+    }
+
+    public void testOversizedLine() throws Exception {
+        StringBuilder value = new StringBuilder();
+
+        for (int i = 0; i < 100; i++) {
+            value.append("0123456789");
+        }
+
+        // Each fill stays under the limit, the line itself does not
+        String half = value.substring(0, 500);
+        List<Header> headers = parse(new HeaderParser(1024), "X-Big: ",
+                half, "\r\n\r\n");
+        assertEquals(half, headers.get(0).getValue());
+
+        try {
+            parse(new HeaderParser(1024), "X-Big: ", value.toString(),
+                    value.toString(), "\r\n\r\n");
+            fail("Lines longer than the maximum must be rejected");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
     public void testRequestUri() throws Exception {
         Engine.register(false);
         Engine.getInstance().getRegisteredServers()
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.Server;
+import org.restlet.engine.connector.ConnectorHelper;
+import org.restlet.engine.connector.HttpServerHelper;
+
+/**
+ * Unit tests for the worker pool of the internal server connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class NetServerHelperTestCase extends BaseServerTestCase {
+
+    @Override
+    protected List<ConnectorHelper<Server>> createServerHelpers() {
+        List<ConnectorHelper<Server>> result =
+                new ArrayList<ConnectorHelper<Server>>();
+        result.add(new HttpServerHelper(null));
+        return result;
+    }
+
+    public void testCallerRunsWhenSaturated() throws Exception {
+        start(300, "minThreads", "1", "maxThreads", "2", "maxQueued", "0");
+
+        for (int status : callConcurrently(6)) {
+            assertEquals(200, status);
+        }
+
+        // Two workers, plus the dispatcher thread once they are busy
+        assertTrue(getMaxActive() >= 2);
+        assertTrue(getMaxActive() <= 3);
+        assertTrue(getThreads().size() <= 3);
+    }
+
+    public void testQueuedCalls() throws Exception {
+        start(200, "minThreads", "1", "maxThreads", "1", "maxQueued", "-1");
+
+        for (int status : callConcurrently(4)) {
+            assertEquals(200, status);
+        }
+
+        // A single worker handles all the queued calls in turn
+        assertEquals(1, getMaxActive());
+        assertEquals(1, getThreads().size());
+    }
+
+}
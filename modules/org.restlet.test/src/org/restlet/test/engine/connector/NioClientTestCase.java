@@ -0,0 +1,185 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.engine.Engine;
+import org.restlet.ext.nio.HttpClientHelper;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the NIO client connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class NioClientTestCase extends RestletTestCase {
+
+    /**
+     * NIO client helper exposing its host queues.
+     */
+    public static class TestClientHelper extends HttpClientHelper {
+
+        public TestClientHelper(Client client) {
+            super(client);
+        }
+
+        @Override
+        public ConcurrentMap<InetSocketAddress, Queue<Response>> getHostQueues() {
+            return super.getHostQueues();
+        }
+    }
+
+    private Client client;
+
+    private List<Server> servers;
+
+    private TestClientHelper getHelper() {
+        return (TestClientHelper) this.client.getContext().getAttributes()
+                .get("org.restlet.engine.helper");
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.servers = new ArrayList<Server>();
+    }
+
+    @Override
+    protected void setUpEngine() {
+        super.setUpEngine();
+        Engine.getInstance().getRegisteredClients()
+                .add(0, new TestClientHelper(null));
+        Engine.getInstance().getRegisteredServers()
+                .add(0, new org.restlet.ext.nio.HttpServerHelper(null));
+    }
+
+    /**
+     * Starts a server answering after a short delay.
+     */
+    private String start(final String name) throws Exception {
+        Server server = new Server(new Context(), Protocol.HTTP, 0,
+                new Restlet() {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            // Answer right away
+                        }
+
+                        response.setEntity(name, MediaType.TEXT_PLAIN);
+                    }
+                });
+        server.start();
+        this.servers.add(server);
+        return "http://localhost:" + server.getEphemeralPort() + "/";
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (this.client != null) {
+            this.client.stop();
+        }
+
+        for (Server server : this.servers) {
+            server.stop();
+        }
+
+        super.tearDown();
+    }
+
+    public void testHostQueues() throws Exception {
+        final String[] uris = { start("a"), start("b") };
+        this.client = new Client(new Context(), Protocol.HTTP);
+        this.client.getContext().getParameters()
+                .add("maxConnectionsPerHost", "1");
+        this.client.start();
+        assertTrue(this.client.getContext().getAttributes()
+                .get("org.restlet.engine.helper") instanceof TestClientHelper);
+
+        // Concurrent requests beyond the connection limit wait in queues
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                final String uri = uris[i % 2];
+                futures.add(executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        Response response = client.handle(new Request(
+                                Method.GET, uri));
+                        return response.getStatus().getCode() + " "
+                                + response.getEntity().getText();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < 8; i++) {
+                assertEquals("200 " + (i % 2 == 0 ? "a" : "b"), futures.get(i)
+                        .get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(getHelper().getQueueWaitCount() > 0);
+
+        // The drained queues are removed by the controller
+        for (int i = 0; (i < 50) && !getHelper().getHostQueues().isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(getHelper().getHostQueues().isEmpty());
+    }
+
+}
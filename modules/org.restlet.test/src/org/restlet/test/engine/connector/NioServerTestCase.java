@@ -0,0 +1,553 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.restlet.Application;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Protocol;
+import org.restlet.engine.connector.ConnectorHelper;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.util.SystemUtils;
+import org.restlet.ext.nio.HttpServerHelper;
+import org.restlet.ext.nio.HttpsServerHelper;
+import org.restlet.ext.nio.internal.buffer.BufferPool;
+import org.restlet.ext.nio.internal.controller.SelectorController;
+import org.restlet.representation.FileRepresentation;
+
+/**
+ * Unit tests for the NIO server connector.
+ * 
+ * @author Jerome Louvel
+ */
+public class NioServerTestCase extends BaseServerTestCase {
+
+    @Override
+    protected List<ConnectorHelper<Server>> createServerHelpers() {
+        List<ConnectorHelper<Server>> result =
+                new ArrayList<ConnectorHelper<Server>>();
+        result.add(new HttpServerHelper(null));
+        result.add(new HttpsServerHelper(null));
+        return result;
+    }
+
+    private HttpServerHelper getHelper() {
+        return (HttpServerHelper) getServer().getContext().getAttributes()
+                .get("org.restlet.engine.helper");
+    }
+
+    /**
+     * Reads a successful response from the given reader and returns its
+     * entity.
+     */
+    private String readResponse(BufferedReader reader) throws Exception {
+        return readResponse(reader, 200);
+    }
+
+    /**
+     * Reads a response with the given status from the given reader and
+     * returns its entity.
+     */
+    private String readResponse(BufferedReader reader, int status)
+            throws Exception {
+        String statusLine = reader.readLine();
+        assertNotNull("Missing response", statusLine);
+        assertEquals(status, Integer.parseInt(statusLine.split(" ")[1]));
+        int length = -1;
+
+        for (String line = reader.readLine(); (line != null)
+                && (line.length() > 0); line = reader.readLine()) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+
+        assertTrue("Missing Content-Length header", length >= 0);
+        char[] entity = new char[length];
+
+        for (int read = 0; read < length;) {
+            int count = reader.read(entity, read, length - read);
+            assertTrue("Truncated entity", count != -1);
+            read += count;
+        }
+
+        return new String(entity);
+    }
+
+    /**
+     * Writes the given raw bytes and reads until the server closes the
+     * connection. Fails if the server neither answers nor closes in time.
+     * 
+     * @return The number of bytes received.
+     */
+    private int send(byte[] raw) throws Exception {
+        Socket socket = new Socket("localhost", getServer().getEphemeralPort());
+        int result = 0;
+
+        try {
+            socket.setSoTimeout(10000);
+            OutputStream os = socket.getOutputStream();
+
+            try {
+                os.write(raw);
+                os.flush();
+            } catch (IOException e) {
+                // The server may close before all the bytes are written
+            }
+
+            InputStream is = socket.getInputStream();
+            byte[] buffer = new byte[1024];
+
+            try {
+                for (int read = is.read(buffer); read != -1; read = is
+                        .read(buffer)) {
+                    result += read;
+                }
+            } catch (SocketException e) {
+                // Connection reset by the server
+            }
+        } finally {
+            socket.close();
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends a request on the given persistent connection and indicates if it
+     * was served, or if the connection was closed by the server instead.
+     */
+    private boolean serve(Socket socket, String path) throws Exception {
+        try {
+            socket.setSoTimeout(10000);
+            socket.getOutputStream().write(
+                    ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                            .getBytes("US-ASCII"));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), "US-ASCII"));
+            reader.mark(1);
+
+            if (reader.read() == -1) {
+                return false;
+            }
+
+            reader.reset();
+            assertEquals("hello " + path, readResponse(reader));
+            return true;
+        } catch (SocketException e) {
+            // Connection reset by the server
+            return false;
+        }
+    }
+
+    public void testFileTransfer() throws Exception {
+        // Larger than the socket buffers, so that transfers are partial
+        byte[] content = new byte[1024 * 1024];
+        new Random(1).nextBytes(content);
+        final File file = File.createTempFile("nio", ".bin");
+        file.deleteOnExit();
+        OutputStream fos = new FileOutputStream(file);
+
+        try {
+            fos.write(content);
+        } finally {
+            fos.close();
+        }
+
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                return new Restlet(getContext()) {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity(new FileRepresentation(file,
+                                MediaType.APPLICATION_OCTET_STREAM));
+                    }
+                };
+            }
+        };
+
+        start(Protocol.HTTP, application);
+        Socket socket = new Socket("localhost", getServer().getEphemeralPort());
+
+        try {
+            socket.setSoTimeout(30000);
+            OutputStream os = socket.getOutputStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), "ISO-8859-1"));
+            String expected = new String(content, "ISO-8859-1");
+
+            // Checks the Content-Length header and the bytes received
+            os.write("GET /file HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    .getBytes("US-ASCII"));
+            os.flush();
+            assertEquals(expected, readResponse(reader));
+
+            // Partial content on the same connection
+            os.write(("GET /file HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Range: bytes=1000-200999\r\n\r\n")
+                    .getBytes("US-ASCII"));
+            os.flush();
+            assertEquals(expected.substring(1000, 201000),
+                    readResponse(reader, 206));
+
+            // Both entities went through the zero-copy path, counted once
+            // the last transfer returns on the server side
+            long expectedBytes = content.length + 200000;
+            HttpServerHelper helper = getHelper();
+
+            for (int i = 0; (helper.getFileTransferredBytes() < expectedBytes)
+                    && (i < 50); i++) {
+                Thread.sleep(100);
+            }
+
+            assertEquals(expectedBytes, helper.getFileTransferredBytes());
+        } finally {
+            socket.close();
+            file.delete();
+        }
+    }
+
+    public void testInvalidHeaders() throws Exception {
+        start(0);
+        send(("GET /a HTTP/1.1\r\nHost: localhost\r\n"
+                + "\u0001garbage\r\n\r\n").getBytes("ISO-8859-1"));
+
+        StringBuilder big = new StringBuilder("GET /b HTTP/1.1\r\nX-Big: ");
+
+        while (big.length() < 100000) {
+            big.append("0123456789");
+        }
+
+        send(big.append("\r\n\r\n").toString().getBytes("ISO-8859-1"));
+
+        // The server must still serve well-formed requests
+        assertEquals(200, call("/c"));
+    }
+
+    public void testLoadSheddingDisabled() throws Exception {
+        // Saturate a small worker pool with the default settings
+        start(200, "lowThreads", "1", "maxThreads", "2");
+        int served = 0;
+
+        // Calls dispatched while the connector is overloaded are dropped
+        for (int status : callConcurrently(8, 3000)) {
+            if (status == 200) {
+                served++;
+            } else {
+                assertEquals(0, status);
+            }
+        }
+
+        assertTrue(served > 0);
+        assertEquals(0, getHelper().getShedCount());
+
+        // The connector accepts new work once the overload ends
+        assertEquals(200, call("/after"));
+    }
+
+    public void testLoadSheddingEnabled() throws Exception {
+        start(300, "lowThreads", "1", "maxThreads", "1", "maxQueued", "-1",
+                "maxQueueDelayMs", "1");
+        List<Integer> statuses = callConcurrently(8);
+        int shed = 0;
+
+        for (int status : statuses) {
+            if (status == 503) {
+                shed++;
+            } else {
+                assertEquals(200, status);
+            }
+        }
+
+        assertTrue(shed > 0);
+        assertEquals(shed, getHelper().getShedCount());
+    }
+
+    public void testMaxTotalConnections() throws Exception {
+        start(0, "selectorThreads", "2", "maxTotalConnections", "2");
+        List<Socket> sockets = new ArrayList<Socket>();
+
+        try {
+            // Open a burst of connections before the selectors open them
+            for (int i = 0; i < 4; i++) {
+                sockets.add(new Socket("localhost", getServer()
+                        .getEphemeralPort()));
+            }
+
+            int served = 0;
+
+            for (int i = 0; i < sockets.size(); i++) {
+                if (serve(sockets.get(i), "/" + i)) {
+                    served++;
+                }
+            }
+
+            assertEquals(2, served);
+
+            // Closing the connections releases their slots
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+
+            boolean accepted = false;
+
+            for (int i = 0; !accepted && (i < 50); i++) {
+                Socket socket = new Socket("localhost",
+                        getServer().getEphemeralPort());
+                sockets.add(socket);
+                accepted = serve(socket, "/again");
+
+                if (!accepted) {
+                    Thread.sleep(100);
+                }
+            }
+
+            assertTrue(accepted);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    public void testPipelining() throws Exception {
+        start(0, "pipeliningConnections", "true");
+        Socket socket = new Socket("localhost", getServer().getEphemeralPort());
+
+        try {
+            socket.setSoTimeout(30000);
+            OutputStream os = socket.getOutputStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), "US-ASCII"));
+
+            // Send all requests at once, the first ones completing last
+            StringBuilder requests = new StringBuilder();
+
+            for (int i = 0; i < 3; i++) {
+                requests.append("GET /").append(i).append("?sleep=")
+                        .append(600 - (i * 300))
+                        .append(" HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            }
+
+            os.write(requests.toString().getBytes("US-ASCII"));
+            os.flush();
+
+            for (int i = 0; i < 3; i++) {
+                assertEquals("hello /" + i, readResponse(reader));
+            }
+
+            // The connection must remain usable
+            os.write(("GET /3 HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes("US-ASCII"));
+            os.flush();
+            assertEquals("hello /3", readResponse(reader));
+        } finally {
+            socket.close();
+        }
+    }
+
+    public void testPooledBuffers() throws Exception {
+        start(0, "pooledBuffers", "true");
+        BufferPool pool = getHelper().getBufferPool();
+        Socket socket = new Socket("localhost", getServer().getEphemeralPort());
+
+        try {
+            assertTrue(serve(socket, "/a"));
+            assertTrue(pool.getAllocatedBytes() > 0);
+
+            // The idle persistent connection gives its buffers back
+            for (int i = 0; (pool.getLeasedBytes() > 0) && (i < 50); i++) {
+                Thread.sleep(100);
+            }
+
+            assertEquals(0, pool.getLeasedBytes());
+
+            // The connection leases them again for the next request
+            long allocated = pool.getAllocatedBytes();
+            assertTrue(serve(socket, "/b"));
+            assertEquals(allocated, pool.getAllocatedBytes());
+        } finally {
+            socket.close();
+        }
+    }
+
+    public void testSelectorThreads() throws Exception {
+        start(0, "selectorThreads", "3");
+        List<SelectorController> controllers = new ArrayList<SelectorController>(
+                getHelper().getSelectorControllers());
+        assertEquals(3, controllers.size());
+        List<Socket> sockets = new ArrayList<Socket>();
+
+        try {
+            // Keep two persistent connections per selector open
+            for (int i = 0; i < 6; i++) {
+                Socket socket = new Socket("localhost",
+                        getServer().getEphemeralPort());
+                sockets.add(socket);
+                socket.setSoTimeout(10000);
+                socket.getOutputStream().write(
+                        ("GET /" + i + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                                .getBytes("US-ASCII"));
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(),
+                                "US-ASCII"));
+                assertEquals("hello /" + i, readResponse(reader));
+            }
+
+            // The accepted connections are spread in a round robin way
+            for (SelectorController controller : controllers) {
+                assertTrue(controller.isRunning());
+                assertEquals(2, controller.getConnections().size());
+            }
+
+            getServer().stop();
+
+            // All selectors are stopped and have released their connections
+            for (SelectorController controller : controllers) {
+                assertFalse(controller.isRunning());
+            }
+
+            for (Socket socket : sockets) {
+                try {
+                    assertEquals(-1, socket.getInputStream().read());
+                } catch (SocketException e) {
+                    // Connection reset, also closed by the server
+                }
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    public void testSslSessionResumption() throws Exception {
+        String keystore = new File(getClass().getResource("dummy.jks")
+                .toURI()).getPath();
+        start(Protocol.HTTPS, 0, "keystorePath", keystore,
+                "keystorePassword", "testtest", "keyPassword", "testtest");
+
+        KeyStore trustStore = KeyStore.getInstance("JKS");
+        InputStream is = new FileInputStream(keystore);
+
+        try {
+            trustStore.load(is, "testtest".toCharArray());
+        } finally {
+            is.close();
+        }
+
+        TrustManagerFactory tmf = TrustManagerFactory
+                .getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(trustStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, tmf.getTrustManagers(), null);
+        String[] sessionIds = new String[2];
+
+        for (int i = 0; i < sessionIds.length; i++) {
+            SSLSocket socket = (SSLSocket) sslContext.getSocketFactory()
+                    .createSocket("localhost", getServer().getEphemeralPort());
+
+            try {
+                // TLS 1.3 resumptions get a new session identifier
+                socket.setEnabledProtocols(new String[] { "TLSv1.2" });
+                socket.setSoTimeout(30000);
+                OutputStream os = socket.getOutputStream();
+                os.write(("GET /" + i + " HTTP/1.1\r\nHost: localhost\r\n"
+                        + "Connection: close\r\n\r\n").getBytes("US-ASCII"));
+                os.flush();
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(),
+                                "US-ASCII"));
+                assertEquals("hello /" + i, readResponse(reader));
+                sessionIds[i] = IoUtils.toHexString(socket.getSession()
+                        .getId());
+            } finally {
+                socket.close();
+            }
+        }
+
+        // The client resumed the session of the first connection
+        assertEquals(sessionIds[0], sessionIds[1]);
+        HttpServerHelper helper = getHelper();
+        assertEquals(2, helper.getSslHandshakeCount());
+        assertEquals(1, helper.getSslResumedHandshakeCount());
+        assertEquals(0.5, helper.getSslResumptionRate(), 0.0);
+    }
+
+    public void testVirtualThreads() throws Exception {
+        start(0, "virtualThreads", "true", "maxThreads", "4");
+        assertEquals(200, call("/a"));
+        HttpServerHelper helper = getHelper();
+        assertEquals(1, getThreads().size());
+        Thread thread = getThreads().iterator().next();
+        assertTrue(thread.getName().startsWith("Restlet-"));
+
+        if (!SystemUtils.isVirtualThreadsSupported()) {
+            // Falls back on the bounded pool of platform threads
+            assertFalse(helper.isVirtualThreads());
+            assertEquals(4, helper.getWorkerService().getMaximumPoolSize());
+            return;
+        }
+
+        assertTrue(helper.isVirtualThreads());
+        assertEquals(Integer.MAX_VALUE, helper.getWorkerService()
+                .getMaximumPoolSize());
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual")
+                .invoke(thread));
+    }
+
+}
@@ -34,10 +34,14 @@
 package org.restlet.test.engine.io;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
@@ -83,4 +87,109 @@ public class BioUtilsTestCase extends RestletTestCase {
         }
     }
 
+    public void testPipeCancel() throws Exception {
+        final CountDownLatch failed = new CountDownLatch(1);
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                try {
+                    while (true) {
+                        outputStream.write(new byte[1024]);
+                    }
+                } catch (IOException ioe) {
+                    failed.countDown();
+                    throw ioe;
+                }
+            }
+        };
+
+        InputStream is = or.getStream();
+        assertEquals(0, is.read());
+        is.close();
+
+        // The writer must be released once the reader is closed
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testPipeError() throws IOException {
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                outputStream.write(new byte[10]);
+                throw new IOException("Test failure");
+            }
+        };
+
+        InputStream is = or.getStream();
+
+        try {
+            IoUtils.exhaust(is);
+            fail("The writing error should be reported to the reader");
+        } catch (IOException ioe) {
+            assertEquals("Test failure", ioe.getMessage());
+        }
+    }
+
+    public void testPipeLarge() throws IOException {
+        final byte[] content = new byte[100000];
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                outputStream.write(content, 0, 10);
+                outputStream.write(content[10]);
+                outputStream.flush();
+                outputStream.write(content, 11, content.length - 11);
+            }
+        };
+
+        InputStream is = or.getStream();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        IoUtils.copy(is, baos);
+        assertTrue(Arrays.equals(content, baos.toByteArray()));
+    }
+
+    public void testPipeSlowProducer() throws Exception {
+        final CountDownLatch[] acks = { new CountDownLatch(1),
+                new CountDownLatch(1), new CountDownLatch(1) };
+
+        // Each byte is only written once the previous one has been read,
+        // without flushing the stream
+        OutputRepresentation or = new OutputRepresentation(
+                MediaType.APPLICATION_OCTET_STREAM) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                try {
+                    for (int i = 0; i < acks.length; i++) {
+                        outputStream.write('a' + i);
+
+                        if (!acks[i].await(10, TimeUnit.SECONDS)) {
+                            throw new IOException("The byte wasn't read");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    throw new IOException("Interrupted");
+                }
+            }
+        };
+
+        InputStream is = or.getStream();
+        long start = System.currentTimeMillis();
+
+        for (int i = 0; i < acks.length; i++) {
+            assertEquals('a' + i, is.read());
+            acks[i].countDown();
+        }
+
+        assertEquals(-1, is.read());
+        assertTrue(System.currentTimeMillis() - start < 4000);
+    }
+
 }
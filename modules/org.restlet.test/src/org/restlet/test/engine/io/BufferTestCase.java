@@ -36,6 +36,7 @@ package org.restlet.test.engine.io;
 import java.io.IOException;
 
 import org.restlet.ext.nio.internal.buffer.Buffer;
+import org.restlet.ext.nio.internal.buffer.BufferPool;
 import org.restlet.ext.nio.internal.buffer.BufferState;
 import org.restlet.test.RestletTestCase;
 
@@ -73,4 +74,53 @@ public class BufferTestCase extends RestletTestCase {
         buffer.drain(sb, BufferState.FILLING);
         assertEquals("Remaining buffer", "ijklmnopqrstuvwxyz", sb.toString());
     }
+
+    public void testRelease() throws IOException {
+        BufferPool pool = new BufferPool(false);
+        Buffer buffer = new Buffer(8192, pool);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, pool.getAllocatedBytes());
+
+        buffer.fill("abcdef");
+        assertEquals(8192, pool.getLeasedBytes());
+
+        // Can't release a buffer with bytes in flight
+        buffer.release();
+        assertEquals(8192, pool.getLeasedBytes());
+
+        buffer.flip();
+        StringBuilder sb = new StringBuilder();
+        buffer.drain(sb, BufferState.FILLING);
+        assertEquals("abcdef", sb.toString());
+        buffer.release();
+        assertEquals(0, pool.getLeasedBytes());
+        assertTrue(buffer.isEmpty());
+        assertTrue(buffer.canFill());
+
+        // Leases the same byte buffer again
+        buffer.fill("ghi");
+        assertEquals(8192, pool.getAllocatedBytes());
+        assertEquals(8192, pool.getHighWaterBytes());
+    }
+
+    public void testSizeClasses() throws IOException {
+        assertEquals(1024, BufferPool.getSizeClass(1000));
+        assertEquals(1024, BufferPool.getSizeClass(1024));
+        assertEquals(2048, BufferPool.getSizeClass(1025));
+
+        // Buffers of similar sizes share the same size class
+        BufferPool pool = new BufferPool(false);
+        Buffer first = new Buffer(5000, pool);
+        assertEquals(8192, first.capacity());
+        first.fill("abc");
+        first.flip();
+        first.drain(new StringBuilder(), BufferState.FILLING);
+        first.release();
+
+        Buffer second = new Buffer(6000, pool);
+        second.fill("def");
+        assertEquals(8192, second.getBytes().capacity());
+        assertEquals(8192, pool.getAllocatedBytes());
+        assertEquals(8192, pool.getLeasedBytes());
+    }
 }
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import org.restlet.data.Language;
+import org.restlet.data.MediaType;
+import org.restlet.engine.util.MetadataRegistry;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link MetadataRegistry} class.
+ * 
+ * @author Jerome Louvel
+ */
+public class MetadataRegistryTestCase extends RestletTestCase {
+
+    public void testCaseInsensitiveKeys() {
+        MetadataRegistry<Language> registry = new MetadataRegistry<Language>(
+                false);
+        Language language = registry.cache("de-CH", new Language("de-CH"));
+        assertSame(language, registry.get(" DE-ch "));
+        assertSame(language, registry.cache("de-ch", new Language("de-ch")));
+        assertEquals(1, registry.getCachedCount());
+    }
+
+    public void testCaseSensitiveKeys() {
+        MetadataRegistry<MediaType> registry = new MetadataRegistry<MediaType>(
+                true);
+        MediaType mediaType = registry.cache("text/x-a; b=C", new MediaType(
+                "text/x-a; b=C"));
+        assertSame(mediaType, registry.get("text/x-a; b=C "));
+        assertNull(registry.get("text/x-a; b=c"));
+    }
+
+    public void testEviction() {
+        MetadataRegistry<Language> registry = new MetadataRegistry<Language>(
+                false, 3);
+        Language used = registry.cache("a", new Language("a"));
+        registry.cache("b", new Language("b"));
+        registry.cache("c", new Language("c"));
+        assertSame(used, registry.get("a"));
+
+        // Arbitrary values only evict the entries not looked up recently
+        for (int i = 0; i < 100; i++) {
+            String name = "x" + i;
+            registry.cache(name, new Language(name));
+            assertSame(used, registry.get("a"));
+            assertEquals(3, registry.getCachedCount());
+        }
+
+        assertNull(registry.get("b"));
+        assertNull(registry.get("c"));
+    }
+
+    public void testRegistered() {
+        MetadataRegistry<Language> registry = new MetadataRegistry<Language>(
+                false);
+        Language cached = registry.cache("fr-BE", new Language("fr-BE"));
+        Language registered = registry.register("FR-be", new Language("fr-BE"));
+        assertNotSame(cached, registered);
+        assertSame(registered, registry.get("fr-be"));
+        assertSame(registered, registry.getRegistered("Fr-Be"));
+        assertEquals(0, registry.getCachedCount());
+    }
+
+}
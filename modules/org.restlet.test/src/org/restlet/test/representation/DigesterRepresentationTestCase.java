@@ -33,8 +33,14 @@
 
 package org.restlet.test.representation;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 import org.restlet.Application;
@@ -43,10 +49,16 @@ import org.restlet.Component;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
+import org.restlet.data.Digest;
+import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.util.Base64;
 import org.restlet.representation.DigesterRepresentation;
+import org.restlet.representation.OutputRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.test.RestletTestCase;
@@ -118,6 +130,46 @@ public class DigesterRepresentationTestCase extends RestletTestCase {
         super.tearDown();
     }
 
+    /**
+     * Tests that the digest and the entity tag are kept once the wrapped
+     * representation has been entirely read.
+     * 
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    @Test
+    public void testComputedTag() throws IOException, NoSuchAlgorithmException {
+        final List<Digest> digests = new ArrayList<Digest>();
+        DigesterRepresentation digester = new DigesterRepresentation(
+                new StringRepresentation("0123456789"),
+                Digest.ALGORITHM_SHA_256) {
+            @Override
+            protected void onDigestComputed(Digest digest) {
+                digests.add(digest);
+            }
+        };
+
+        InputStream stream = digester.getStream();
+        IoUtils.exhaust(stream);
+        assertEquals(-1, stream.read());
+        assertEquals(1, digests.size());
+
+        MessageDigest md = MessageDigest.getInstance(Digest.ALGORITHM_SHA_256);
+        byte[] expected = md.digest("0123456789".getBytes());
+        assertEquals(new Digest(Digest.ALGORITHM_SHA_256, expected),
+                digester.getComputedDigest());
+        assertEquals(digests.get(0), digester.getComputedDigest());
+
+        Tag tag = digester.getComputedTag();
+        assertFalse(tag.isWeak());
+        assertEquals(Base64.encode(expected, false), tag.getName());
+
+        // Writing the content again gives the same digest
+        digester.write(new ByteArrayOutputStream());
+        assertEquals(2, digests.size());
+        assertEquals(tag, digester.getComputedTag());
+    }
+
     /**
      * Tests partial Get requests.
      * 
@@ -153,4 +205,39 @@ public class DigesterRepresentationTestCase extends RestletTestCase {
             fail(e.getMessage());
         }
     }
+
+    /**
+     * Tests that the digest of a streaming producer is computed on the calling
+     * thread.
+     * 
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    @Test
+    public void testStreamingProducer() throws IOException,
+            NoSuchAlgorithmException {
+        final List<Thread> writers = new ArrayList<Thread>();
+        Representation rep = new OutputRepresentation(MediaType.TEXT_PLAIN) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                writers.add(Thread.currentThread());
+                outputStream.write("0123456789".getBytes());
+            }
+        };
+
+        DigesterRepresentation digester = new DigesterRepresentation(rep);
+        assertEquals(10, digester.exhaust());
+
+        DigesterRepresentation expected = new DigesterRepresentation(
+                new StringRepresentation("0123456789"));
+        expected.exhaust();
+        assertEquals(expected.getComputedDigest(),
+                digester.getComputedDigest());
+        assertEquals(expected.computeDigest(Digest.ALGORITHM_SHA_1),
+                digester.computeDigest(Digest.ALGORITHM_SHA_1));
+
+        assertEquals(2, writers.size());
+        assertSame(Thread.currentThread(), writers.get(0));
+        assertSame(Thread.currentThread(), writers.get(1));
+    }
 }
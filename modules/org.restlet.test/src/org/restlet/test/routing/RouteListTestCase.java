@@ -35,7 +35,9 @@ package org.restlet.test.routing;
 
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.Restlet;
 import org.restlet.routing.Route;
+import org.restlet.routing.Router;
 import org.restlet.test.RestletTestCase;
 import org.restlet.util.RouteList;
 
@@ -75,6 +77,57 @@ public class RouteListTestCase extends RestletTestCase {
         assertNull(list.getLast(null, null, 6f));
     }
 
+    public void testGetLeastLoaded() {
+        final RouteList list = new RouteList();
+
+        assertNull(list.getLeastLoaded(null, null, 1f));
+
+        final Route first = new MockScoringRoute(5);
+        final Route second = new MockScoringRoute(5);
+        list.add(first);
+        list.add(second);
+
+        // Calls are only counted for routers balancing the load
+        Request request = new Request();
+        first.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                assertEquals(0, first.getPendingCalls());
+            }
+        });
+        first.handle(request, new Response(request));
+
+        Router router = new Router();
+        router.setRoutingMode(Router.MODE_LEAST_LOADED_MATCH);
+        first.setRouter(router);
+        second.setRouter(router);
+
+        // Idle routes are selected in turn
+        assertSame(first, list.getLeastLoaded(null, null, 1f));
+        assertSame(second, list.getLeastLoaded(null, null, 1f));
+        assertNull(list.getLeastLoaded(null, null, 6f));
+
+        // A busy route is avoided while it handles a call
+        final Route[] selected = new Route[2];
+        first.setNext(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                assertEquals(1, first.getPendingCalls());
+                selected[0] = list.getLeastLoaded(null, null, 1f);
+                selected[1] = list.getLeastLoaded(null, null, 1f);
+            }
+        });
+        first.handle(request, new Response(request));
+        assertSame(second, selected[0]);
+        assertSame(second, selected[1]);
+        assertEquals(0, first.getPendingCalls());
+
+        // Routes without weight are ignored
+        second.setWeight(0);
+        assertSame(first, list.getLeastLoaded(null, null, 1f));
+        assertSame(first, list.getLeastLoaded(null, null, 1f));
+    }
+
     public void testGetNext() {
         final RouteList list = new RouteList();
 
@@ -93,6 +146,12 @@ public class RouteListTestCase extends RestletTestCase {
         assertSame(third, list.getNext(null, null, 1f));
 
         assertSame(first, list.getNext(null, null, 1f));
+
+        // The snapshot of routes must be updated after a modification
+        list.remove(second);
+        assertSame(first, list.getNext(null, null, 1f));
+        assertSame(third, list.getNext(null, null, 1f));
+        assertSame(first, list.getNext(null, null, 1f));
     }
 
     public void testGetRandom() {
@@ -119,4 +178,26 @@ public class RouteListTestCase extends RestletTestCase {
         assertNull(list.getRandom(null, null, 9f));
     }
 
+    public void testSubList() {
+        final RouteList list = new RouteList();
+        final Route first = new MockScoringRoute(1);
+        final Route inserted = new MockScoringRoute(5);
+        list.add(first);
+        list.add(new MockScoringRoute(1));
+        assertNull(list.getFirst(null, null, 2f));
+        int count = list.getModificationCount();
+
+        // Changes made through the view refresh the parent list
+        RouteList view = list.subList(0, 1);
+        view.add(inserted);
+        assertEquals(3, list.size());
+        assertSame(inserted, list.get(1));
+        assertTrue(list.getModificationCount() > count);
+        assertSame(inserted, list.getFirst(null, null, 2f));
+
+        view.remove(inserted);
+        assertEquals(2, list.size());
+        assertNull(list.getFirst(null, null, 2f));
+    }
+
 }
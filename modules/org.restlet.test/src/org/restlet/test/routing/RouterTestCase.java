@@ -0,0 +1,241 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.routing;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.routing.Route;
+import org.restlet.routing.Router;
+import org.restlet.routing.Template;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.RouteList;
+
+/**
+ * Test case for the Router class.
+ * 
+ * @author Jerome Louvel
+ */
+public class RouterTestCase extends RestletTestCase {
+
+    private static final String[] PATHS = { "/", "/users", "/users/",
+            "/users/12", "/users/12/orders", "/users/12/orders/7",
+            "/users/abc/orders/7", "/orders/3", "/orders/3?sort=asc",
+            "/static/img/logo.png", "/unknown", "" };
+
+    private static Request createRequest(String path) {
+        Request request = new Request(Method.GET, "http://localhost" + path);
+        request.getResourceRef().setBaseRef("http://localhost");
+        return request;
+    }
+
+    private static Router createRouter(int routingMode, int matchingMode) {
+        Router router = new Router();
+        router.setRoutingMode(routingMode);
+        router.setDefaultMatchingMode(matchingMode);
+        Restlet target = new Restlet() {
+        };
+
+        router.attach("/users", target);
+        router.attach("/users/{id}", target);
+        router.attach("/users/{id}/orders", target);
+        router.attach("/users/{id}/orders/{orderId}", target);
+        router.attach("/orders/{id}", target).setMatchingQuery(true);
+        router.attach("/orders/{id}?sort={order}", target).setMatchingQuery(
+                true);
+        router.attach("/static", target).setMatchingMode(
+                Template.MODE_STARTS_WITH);
+        router.attach("/{anything}", target);
+        router.attach("", target);
+        return router;
+    }
+
+    private void checkIndexing(int routingMode, int matchingMode) {
+        Router router = createRouter(routingMode, matchingMode);
+
+        for (String path : PATHS) {
+            router.setIndexingRoutes(false);
+            Restlet expected = router.getNext(createRequest(path),
+                    new Response(null));
+            router.setIndexingRoutes(true);
+            Restlet actual = router.getNext(createRequest(path),
+                    new Response(null));
+            assertSame("Routing of \"" + path + "\"", expected, actual);
+        }
+    }
+
+    private static Response handleAsynchronously(Router router)
+            throws InterruptedException {
+        final CountDownLatch committed = new CountDownLatch(1);
+        Request request = new Request(Method.GET, "http://localhost/") {
+            @Override
+            public void commit(Response response) {
+                response.setCommitted(true);
+                committed.countDown();
+            }
+        };
+        Response response = new Response(request);
+        router.handle(request, response);
+
+        // The response is committed later by the scheduler thread
+        assertFalse(response.isAutoCommitting());
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        assertTrue(response.isAutoCommitting());
+        return response;
+    }
+
+    public void testIndexingBestMatch() {
+        checkIndexing(Router.MODE_BEST_MATCH, Template.MODE_EQUALS);
+        checkIndexing(Router.MODE_BEST_MATCH, Template.MODE_STARTS_WITH);
+    }
+
+    public void testIndexingFirstMatch() {
+        checkIndexing(Router.MODE_FIRST_MATCH, Template.MODE_EQUALS);
+        checkIndexing(Router.MODE_FIRST_MATCH, Template.MODE_STARTS_WITH);
+    }
+
+    public void testIndexingCustomRoute() {
+        Router router = new Router();
+        router.setIndexingRoutes(true);
+        final Route custom = new Route(router, new Restlet() {
+        }) {
+            @Override
+            public float score(Request request, Response response) {
+                return 0.8F;
+            }
+        };
+
+        router.attach("/users", new Restlet() {
+        });
+        router.getRoutes().add(custom);
+        assertSame(custom,
+                router.getNext(createRequest("/orders"), new Response(null)));
+    }
+
+    public void testIndexingUpdate() {
+        Router router = new Router();
+        router.setIndexingRoutes(true);
+        Restlet target = new Restlet() {
+        };
+
+        assertNull(router.getNext(createRequest("/users/12"), new Response(
+                null)));
+
+        TemplateRoute route = router.attach("/users/{id}", target);
+        assertSame(route,
+                router.getNext(createRequest("/users/12"), new Response(null)));
+
+        router.getRoutes().remove(route);
+        assertNull(router.getNext(createRequest("/users/12"), new Response(
+                null)));
+    }
+
+    public void testPublishRoutes() {
+        Router router = new Router();
+        router.setIndexingRoutes(true);
+        Restlet target = new Restlet() {
+        };
+
+        TemplateRoute users = router.attach("/users/{id}", target);
+        RouteList previous = router.getRoutes();
+
+        // Prepare the new routes without affecting the current ones
+        RouteList routes = router.copyRoutes();
+        routes.remove(users);
+        TemplateRoute orders = router.attach(routes, "/orders/{id}", target);
+        assertEquals(1, previous.size());
+        assertSame(users,
+                router.getNext(createRequest("/users/12"), new Response(null)));
+        assertNull(router.getNext(createRequest("/orders/3"), new Response(
+                null)));
+
+        router.publishRoutes(routes);
+        assertSame(routes, router.getRoutes());
+        assertSame(users, previous.get(0));
+        assertSame(orders,
+                router.getNext(createRequest("/orders/3"), new Response(null)));
+        assertNull(router.getNext(createRequest("/users/12"), new Response(
+                null)));
+    }
+
+    public void testRetryAsynchronously() throws Exception {
+        final Thread[] handlingThread = new Thread[1];
+        final int[] scores = new int[1];
+        Context context = new Context();
+        context.setExecutorService(Executors.newScheduledThreadPool(1));
+        Router router = new Router(context);
+        router.setMaxAttempts(3);
+        router.setRetryDelay(10L);
+        router.setRetryingAsynchronously(true);
+
+        // The route only matches from the third attempt
+        router.getRoutes().add(new Route(new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                handlingThread[0] = Thread.currentThread();
+                response.setStatus(Status.SUCCESS_NO_CONTENT);
+            }
+        }) {
+            @Override
+            public float score(Request request, Response response) {
+                return (++scores[0] >= 3) ? 1F : 0F;
+            }
+        });
+
+        try {
+            Response response = handleAsynchronously(router);
+            assertEquals(3, scores[0]);
+            assertEquals(Status.SUCCESS_NO_CONTENT, response.getStatus());
+            assertNotNull(handlingThread[0]);
+            assertNotSame(Thread.currentThread(), handlingThread[0]);
+
+            // No match after the last attempt
+            scores[0] = -10;
+            response = handleAsynchronously(router);
+            assertEquals(-7, scores[0]);
+            assertEquals(Status.CLIENT_ERROR_NOT_FOUND, response.getStatus());
+        } finally {
+            context.getExecutorService().shutdown();
+        }
+    }
+
+}
@@ -36,13 +36,26 @@ package org.restlet.test.service;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.restlet.Application;
 import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
 import org.restlet.data.MediaType;
+import org.restlet.data.Method;
 import org.restlet.data.Preference;
+import org.restlet.engine.Engine;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.converter.DefaultConverter;
+import org.restlet.engine.resource.NegotiationCache;
+import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Variant;
+import org.restlet.resource.Finder;
+import org.restlet.resource.Get;
+import org.restlet.resource.ServerResource;
 import org.restlet.service.ConnegService;
 import org.restlet.service.MetadataService;
 import org.restlet.test.RestletTestCase;
+import org.restlet.test.resource.MyServerResource13;
 
 /**
  * Unit tests for the content negotiation service.
@@ -51,6 +64,125 @@ import org.restlet.test.RestletTestCase;
  */
 public class ConnegServiceTestCase extends RestletTestCase {
 
+    /**
+     * Annotated resource with two text variants.
+     */
+    public static class TextResource extends ServerResource {
+
+        @Get("html")
+        public String toHtml() {
+            return "<p>html</p>";
+        }
+
+        @Get("txt")
+        public String toText() {
+            return "text";
+        }
+    }
+
+    /**
+     * Annotated resource declaring its own variants.
+     */
+    public static class VariantsResource extends TextResource {
+
+        @Override
+        protected List<Variant> getVariants(Method method) {
+            return super.getVariants(method);
+        }
+    }
+
+    private static Request createRequest(String uri, MediaType mediaType) {
+        Request result = new Request(Method.GET, uri);
+        result.getClientInfo().getAcceptedMediaTypes()
+                .add(new Preference<MediaType>(mediaType));
+        return result;
+    }
+
+    public void testNegotiationCache() throws Exception {
+        ConnegService connegService = new ConnegService();
+        NegotiationCache cache = connegService
+                .getNegotiationCache(MyServerResource13.class);
+        assertTrue(cache.isEnabled());
+        assertSame(cache,
+                connegService.getNegotiationCache(MyServerResource13.class));
+        assertFalse(connegService.getNegotiationCache(VariantsResource.class)
+                .isEnabled());
+
+        // Unconstrained query parameters are ignored
+        String key = cache.getKey(
+                createRequest("http://localhost/test?shallow&page=1",
+                        MediaType.APPLICATION_JSON), "GET", false);
+        assertEquals(key, cache.getKey(
+                createRequest("http://localhost/test?shallow&page=2",
+                        MediaType.APPLICATION_JSON), "GET", false));
+        assertFalse(key.equals(cache.getKey(
+                createRequest("http://localhost/test?shallow",
+                        MediaType.APPLICATION_JSON), "GET", false)));
+        assertFalse(key.equals(cache.getKey(
+                createRequest("http://localhost/test?deep&page=1",
+                        MediaType.APPLICATION_JSON), "GET", false)));
+        assertFalse(key.equals(cache.getKey(
+                createRequest("http://localhost/test?shallow&page=1",
+                        MediaType.APPLICATION_XML), "GET", false)));
+        assertFalse(key.equals(cache.getKey(
+                createRequest("http://localhost/test?shallow&page=1",
+                        MediaType.APPLICATION_JSON), "GET", true)));
+
+        // Copies are cached and returned
+        VariantInfo variant = new VariantInfo(MediaType.APPLICATION_JSON);
+        cache.put(key, variant);
+        assertEquals(variant, cache.get(key));
+        assertNotSame(variant, cache.get(key));
+
+        // Registering or removing converters clears the cached variants
+        List<ConverterHelper> converters = Engine.getInstance()
+                .getRegisteredConverters();
+        converters.add(new DefaultConverter());
+        assertNull(cache.get(key));
+        cache.put(key, variant);
+        assertNotNull(cache.get(key));
+        converters.remove(converters.size() - 1);
+        assertNull(cache.get(key));
+        cache.put(key, variant);
+
+        // The least recently used entries are evicted first
+        connegService.setMaxCachedVariants(2);
+        cache = connegService.getNegotiationCache(MyServerResource13.class);
+        cache.put("a", variant);
+        cache.put("b", variant);
+        cache.get("a");
+        cache.put("c", variant);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+
+        // The negotiated variants are reused by the resources
+        Application application = new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                return new Finder(getContext(), TextResource.class);
+            }
+        };
+        cache = application.getConnegService().getNegotiationCache(
+                TextResource.class);
+
+        for (int i = 0; i < 2; i++) {
+            Request request = createRequest("http://localhost/test",
+                    MediaType.TEXT_HTML);
+            Response response = new Response(request);
+            application.handle(request, response);
+            assertEquals("<p>html</p>", response.getEntity().getText());
+            assertEquals(1, cache.size());
+        }
+
+        Request request = createRequest("http://localhost/test",
+                MediaType.TEXT_PLAIN);
+        Response response = new Response(request);
+        application.handle(request, response);
+        assertEquals("text", response.getEntity().getText());
+        assertEquals(2, cache.size());
+    }
+
     public void testStrict() {
         List<Variant> variants = new ArrayList<Variant>();
         Variant variant = new Variant(MediaType.APPLICATION_XML);
@@ -33,6 +33,7 @@
 
 package org.restlet.test.service;
 
+import org.restlet.data.Language;
 import org.restlet.data.MediaType;
 import org.restlet.service.MetadataService;
 import org.restlet.test.RestletTestCase;
@@ -44,6 +45,29 @@ import org.restlet.test.RestletTestCase;
  */
 public class MetadataServiceTestCase extends RestletTestCase {
 
+    public void testExtensions() {
+        MetadataService ms = new MetadataService();
+        assertEquals(MediaType.TEXT_XML, ms.getMediaType("xml"));
+        assertEquals(2, ms.getAllMediaTypes("xml").size());
+        assertEquals("xml", ms.getExtension(MediaType.APPLICATION_XML));
+        assertEquals(Language.FRENCH, ms.getLanguage("fr"));
+        assertNull(ms.getLanguage("xml"));
+
+        // Preferred mappings take precedence
+        ms.addExtension("foo", MediaType.APPLICATION_XML, true);
+        assertEquals("foo", ms.getExtension(MediaType.APPLICATION_XML));
+        assertEquals(MediaType.APPLICATION_XML, ms.getMediaType("foo"));
+
+        ms.addExtension("foo", Language.FRENCH);
+        assertEquals(2, ms.getAllMetadata("foo").size());
+        assertEquals(Language.FRENCH, ms.getAllLanguages("foo").get(0));
+
+        ms.clearExtensions();
+        assertNull(ms.getMediaType("xml"));
+        assertNull(ms.getAllMetadata("foo"));
+        assertNull(ms.getExtension(MediaType.APPLICATION_XML));
+    }
+
     public void testStrict() {
         MetadataService ms = new MetadataService();
         MediaType ma = ms.getMediaType("ma");
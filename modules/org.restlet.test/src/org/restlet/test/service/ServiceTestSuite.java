@@ -44,6 +44,7 @@ public class ServiceTestSuite {
         // $JUnit-BEGIN$
         suite.addTestSuite(ConnegServiceTestCase.class);
         suite.addTestSuite(MetadataServiceTestCase.class);
+        suite.addTestSuite(TaskServiceTestCase.class);
         // $JUnit-END$
 
         return suite;
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.restlet.Context;
+import org.restlet.engine.util.SystemUtils;
+import org.restlet.service.TaskService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the task service.
+ * 
+ * @author Jerome Louvel
+ */
+public class TaskServiceTestCase extends RestletTestCase {
+
+    /**
+     * Executes and schedules tasks with the given service.
+     * 
+     * @return The thread that executed the immediate task.
+     */
+    private Thread testExecute(TaskService taskService) throws Exception {
+        final Context context = new Context();
+        final AtomicReference<Context> executedContext = new AtomicReference<Context>();
+        final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Context.setCurrent(context);
+
+        try {
+            taskService.start();
+            taskService.execute(new Runnable() {
+                public void run() {
+                    executedContext.set(Context.getCurrent());
+                    executingThread.set(Thread.currentThread());
+                    latch.countDown();
+                }
+            });
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertSame(context, executedContext.get());
+
+            ScheduledFuture<String> future = taskService.schedule(
+                    new Callable<String>() {
+                        public String call() {
+                            return "done";
+                        }
+                    }, 10, TimeUnit.MILLISECONDS);
+            assertEquals("done", future.get(5, TimeUnit.SECONDS));
+            return executingThread.get();
+        } finally {
+            Context.setCurrent(null);
+            taskService.stop();
+        }
+    }
+
+    public void testPlatformThreads() throws Exception {
+        testExecute(new TaskService());
+    }
+
+    public void testVirtualThreads() throws Exception {
+        TaskService taskService = new TaskService();
+        taskService.setVirtualThreads(true);
+        assertTrue(taskService.isVirtualThreads());
+        Thread thread = testExecute(taskService);
+
+        if (!SystemUtils.isVirtualThreadsSupported()) {
+            // Documented fallback on the core pool of platform threads
+            assertTrue(thread.getName().startsWith("restlet-"));
+            assertFalse(thread.getName().startsWith("restlet-virtual-"));
+            return;
+        }
+
+        assertEquals(Boolean.TRUE,
+                Thread.class.getMethod("isVirtual").invoke(thread));
+        assertTrue(thread.getName().startsWith("restlet-virtual-"));
+    }
+}
@@ -90,6 +90,53 @@ public class TemplateTestCase extends RestletTestCase {
         assertEquals("123/456", variables3.get("v1"));
     }
 
+    public void testSimpleMatching() {
+        Template template = new Template("/users/{user}/orders/{order}");
+        template.getVariables().put("user",
+                new Variable(Variable.TYPE_URI_SEGMENT));
+        template.getVariables().put("order",
+                new Variable(Variable.TYPE_DIGIT));
+
+        Map<String, Object> variables = new HashMap<String, Object>();
+        assertEquals(22, template.parse("/users/j%20d/orders/42", variables));
+        assertEquals("j%20d", variables.get("user"));
+        assertEquals("42", variables.get("order"));
+
+        assertEquals(-1, template.match("/users/jd/orders/4a"));
+        assertEquals(-1, template.match("/users//orders/42"));
+        assertEquals(-1, template.match("/users/j/d/orders/42"));
+        assertEquals(-1, template.match("/users/jd%2/orders/42"));
+
+        template.setMatchingMode(Template.MODE_STARTS_WITH);
+        assertEquals(19, template.match("/users/jd/orders/42a"));
+        assertEquals(19, template.match("/users/jd/orders/42/items"));
+
+        template.getVariables().get("user").setDecodingOnParse(true);
+        variables.clear();
+        assertEquals(22, template.parse("/users/j%20d/orders/42", variables));
+        assertEquals("j d", variables.get("user"));
+
+        template.setPattern("/files/{path}");
+        template.getVariables().put("path",
+                new Variable(Variable.TYPE_URI_PATH, null, false, false));
+        variables.clear();
+        assertEquals(12, template.parse("/files/a/b.c?x=y", variables));
+        assertEquals("a/b.c", variables.get("path"));
+        assertEquals(7, template.parse("/files/?x=y", variables));
+        assertEquals("", variables.get("path"));
+
+        // Adjacent and repeated variables rely on the Regex pattern
+        template.setPattern("/{a}{b}");
+        variables.clear();
+        assertEquals(4, template.parse("/xyz", variables));
+        assertEquals("xy", variables.get("a"));
+        assertEquals("z", variables.get("b"));
+
+        template.setPattern("/{a}/{a}");
+        assertEquals(-1, template.match("/x/y"));
+        assertEquals(4, template.match("/x/x"));
+    }
+
     public void testVariableNames() throws Exception {
         Template tpl = new Template(
                 "http://{userId}.restlet.com/invoices/{invoiceId}");
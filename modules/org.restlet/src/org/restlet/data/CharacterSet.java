@@ -33,12 +33,21 @@
 
 package org.restlet.data;
 
+import org.restlet.engine.util.MetadataRegistry;
+
 /**
  * Metadata used to specify the character set of textual representations.
  * 
  * @author Jerome Louvel
  */
 public final class CharacterSet extends Metadata {
+    /**
+     * The character sets recently parsed by {@link #valueOf(String)}.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final MetadataRegistry<CharacterSet> _registry = new MetadataRegistry<CharacterSet>(
+            false);
+
     /** All character sets acceptable. */
     public static final CharacterSet ALL = new CharacterSet("*",
             "All character sets");
@@ -232,26 +241,31 @@ public final class CharacterSet extends Metadata {
      * @return The associated character set.
      */
     public static CharacterSet valueOf(String name) {
-        CharacterSet result = null;
-        name = getIanaName(name);
-
-        if ((name != null) && !name.equals("")) {
-            if (name.equalsIgnoreCase(ALL.getName())) {
-                result = ALL;
-            } else if (name.equalsIgnoreCase(ISO_8859_1.getName())) {
-                result = ISO_8859_1;
-            } else if (name.equalsIgnoreCase(US_ASCII.getName())) {
-                result = US_ASCII;
-            } else if (name.equalsIgnoreCase(UTF_8.getName())) {
-                result = UTF_8;
-            } else if (name.equalsIgnoreCase(UTF_16.getName())) {
-                result = UTF_16;
-            } else if (name.equalsIgnoreCase(WINDOWS_1252.getName())) {
-                result = WINDOWS_1252;
-            } else if (name.equalsIgnoreCase(MACINTOSH.getName())) {
-                result = MACINTOSH;
-            } else {
-                result = new CharacterSet(name);
+        CharacterSet result = _registry.get(name);
+
+        if (result == null) {
+            String ianaName = getIanaName(name);
+
+            if ((ianaName != null) && !ianaName.equals("")) {
+                if (ianaName.equalsIgnoreCase(ALL.getName())) {
+                    result = ALL;
+                } else if (ianaName.equalsIgnoreCase(ISO_8859_1.getName())) {
+                    result = ISO_8859_1;
+                } else if (ianaName.equalsIgnoreCase(US_ASCII.getName())) {
+                    result = US_ASCII;
+                } else if (ianaName.equalsIgnoreCase(UTF_8.getName())) {
+                    result = UTF_8;
+                } else if (ianaName.equalsIgnoreCase(UTF_16.getName())) {
+                    result = UTF_16;
+                } else if (ianaName.equalsIgnoreCase(WINDOWS_1252.getName())) {
+                    result = WINDOWS_1252;
+                } else if (ianaName.equalsIgnoreCase(MACINTOSH.getName())) {
+                    result = MACINTOSH;
+                } else {
+                    result = new CharacterSet(ianaName);
+                }
+
+                result = _registry.cache(name, result);
             }
         }
 
@@ -33,6 +33,8 @@
 
 package org.restlet.data;
 
+import org.restlet.engine.util.MetadataRegistry;
+
 /**
  * Modifier of a representation's media type. Useful to apply compression
  * without losing the identity of the underlying media type.
@@ -40,6 +42,13 @@ package org.restlet.data;
  * @author Jerome Louvel
  */
 public final class Encoding extends Metadata {
+    /**
+     * The encodings recently parsed by {@link #valueOf(String)}.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final MetadataRegistry<Encoding> _registry = new MetadataRegistry<Encoding>(
+            false);
+
     /** All encodings acceptable. */
     public static final Encoding ALL = new Encoding("*", "All encodings");
 
@@ -83,9 +92,9 @@ public final class Encoding extends Metadata {
      * @return The associated encoding.
      */
     public static Encoding valueOf(final String name) {
-        Encoding result = null;
+        Encoding result = _registry.get(name);
 
-        if ((name != null) && !name.equals("")) {
+        if ((result == null) && (name != null) && !name.equals("")) {
             if (name.equalsIgnoreCase(ALL.getName())) {
                 result = ALL;
             } else if (name.equalsIgnoreCase(GZIP.getName())) {
@@ -107,6 +116,8 @@ public final class Encoding extends Metadata {
             } else {
                 result = new Encoding(name);
             }
+
+            result = _registry.cache(name, result);
         }
 
         return result;
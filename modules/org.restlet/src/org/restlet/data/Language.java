@@ -37,6 +37,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.restlet.engine.util.MetadataRegistry;
+
 /**
  * Language used in representations and preferences. A language tag is composed
  * of one or more parts: A primary language tag and a possibly empty series of
@@ -45,6 +47,13 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @author Jerome Louvel
  */
 public final class Language extends Metadata {
+    /**
+     * The languages recently parsed by {@link #valueOf(String)}.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final MetadataRegistry<Language> _registry = new MetadataRegistry<Language>(
+            false);
+
     /** All languages acceptable. */
     public static final Language ALL = new Language("*", "All languages");
 
@@ -89,9 +98,9 @@ public final class Language extends Metadata {
      * @return The associated language.
      */
     public static Language valueOf(final String name) {
-        Language result = null;
+        Language result = _registry.get(name);
 
-        if ((name != null) && !name.equals("")) {
+        if ((result == null) && (name != null) && !name.equals("")) {
             if (name.equalsIgnoreCase(ALL.getName())) {
                 result = ALL;
             } else if (name.equalsIgnoreCase(ENGLISH.getName())) {
@@ -107,6 +116,8 @@ public final class Language extends Metadata {
             } else {
                 result = new Language(name);
             }
+
+            result = _registry.cache(name, result);
         }
 
         return result;
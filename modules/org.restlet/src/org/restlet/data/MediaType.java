@@ -33,10 +33,8 @@
 
 package org.restlet.data;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.restlet.engine.header.HeaderWriter;
+import org.restlet.engine.util.MetadataRegistry;
 import org.restlet.engine.util.SystemUtils;
 import org.restlet.util.Series;
 
@@ -60,10 +58,13 @@ public final class MediaType extends Metadata {
 
     /**
      * The known media types registered with {@link #register(String, String)},
-     * retrievable using {@link #valueOf(String)}.<br>
+     * and the media types recently parsed, retrievable using
+     * {@link #valueOf(String)}. Names are case sensitive as they can contain
+     * parameter values.<br>
      * Keep the underscore for the ordering.
      */
-    private static volatile Map<String, MediaType> _types = null;
+    private static final MetadataRegistry<MediaType> _types = new MetadataRegistry<MediaType>(
+            true);
 
     public static final MediaType ALL = register("*/*", "All media");
 
@@ -728,18 +729,6 @@ public final class MediaType extends Metadata {
         return mostSpecific;
     }
 
-    /**
-     * Returns the known media types map.
-     * 
-     * @return the known media types map.
-     */
-    private static Map<String, MediaType> getTypes() {
-        if (_types == null) {
-            _types = new HashMap<String, MediaType>();
-        }
-        return _types;
-    }
-
     /**
      * Normalizes the specified token.
      * 
@@ -841,20 +830,20 @@ public final class MediaType extends Metadata {
      *            The description.
      * @return The registered media type
      */
-    public static synchronized MediaType register(String name,
-            String description) {
+    public static MediaType register(String name, String description) {
+        MediaType result = _types.getRegistered(name);
 
-        if (!getTypes().containsKey(name)) {
-            final MediaType type = new MediaType(name, description);
-            getTypes().put(name, type);
+        if (result == null) {
+            result = _types.register(name, new MediaType(name, description));
         }
 
-        return getTypes().get(name);
+        return result;
     }
 
     /**
      * Returns the media type associated to a name. If an existing constant
-     * exists then it is returned, otherwise a new instance is created.
+     * exists then it is returned, otherwise a new instance is created and
+     * cached for the next lookups of the same name.
      * 
      * @param name
      *            The name.
@@ -864,9 +853,10 @@ public final class MediaType extends Metadata {
         MediaType result = null;
 
         if ((name != null) && !name.equals("")) {
-            result = getTypes().get(name);
+            result = _types.get(name);
+
             if (result == null) {
-                result = new MediaType(name);
+                result = _types.cache(name, new MediaType(name));
             }
         }
 
@@ -145,18 +145,16 @@ public class Engine {
 
     // [ifndef gwt] method
     /**
-     * Creates a new standalone thread with local Restlet thread variable
-     * properly set.
+     * Creates a task running the given runnable task with the local Restlet
+     * thread variables of the calling thread, clearing them once done.
      * 
      * @param runnable
      *            The runnable task to execute.
-     * @param name
-     *            The thread name.
-     * @return The thread with proper variables ready to run the given runnable
+     * @return The task with proper variables ready to run the given runnable
      *         task.
      */
-    public static Thread createThreadWithLocalVariables(
-            final Runnable runnable, String name) {
+    public static Runnable createRunnableWithLocalVariables(
+            final Runnable runnable) {
         // Save the thread local variables
         final org.restlet.Application currentApplication = org.restlet.Application
                 .getCurrent();
@@ -165,7 +163,7 @@ public class Engine {
                 .getCurrent();
         final Response currentResponse = Response.getCurrent();
 
-        return new Thread(new Runnable() {
+        return new Runnable() {
 
             @Override
             public void run() {
@@ -183,7 +181,24 @@ public class Engine {
                 }
             }
 
-        }, name);
+        };
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Creates a new standalone thread with local Restlet thread variable
+     * properly set.
+     * 
+     * @param runnable
+     *            The runnable task to execute.
+     * @param name
+     *            The thread name.
+     * @return The thread with proper variables ready to run the given runnable
+     *         task.
+     */
+    public static Thread createThreadWithLocalVariables(
+            final Runnable runnable, String name) {
+        return new Thread(createRunnableWithLocalVariables(runnable), name);
     }
 
     // [ifndef gwt] method
@@ -455,7 +470,7 @@ public class Engine {
 
     // [ifndef gwt] member
     /** List of available converter helpers. */
-    private final List<org.restlet.engine.converter.ConverterHelper> registeredConverters;
+    private final org.restlet.engine.converter.ConverterHelperList registeredConverters;
 
     /** List of available protocol helpers. */
     private final List<org.restlet.engine.connector.ProtocolHelper> registeredProtocols;
@@ -513,7 +528,7 @@ public class Engine {
         // [ifndef gwt]
         this.registeredServers = new CopyOnWriteArrayList<org.restlet.engine.connector.ConnectorHelper<org.restlet.Server>>();
         this.registeredAuthenticators = new CopyOnWriteArrayList<org.restlet.engine.security.AuthenticatorHelper>();
-        this.registeredConverters = new CopyOnWriteArrayList<org.restlet.engine.converter.ConverterHelper>();
+        this.registeredConverters = new org.restlet.engine.converter.ConverterHelperList();
         // [enddef]
 
         if (discoverHelpers) {
@@ -836,6 +851,19 @@ public class Engine {
         return registeredConverters;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns the number of structural modifications of the list of available
+     * converters. This allows results derived from the converters, such as the
+     * lookups cached by the converter service, to detect that they must be
+     * computed again.
+     * 
+     * @return The number of modifications of the list of available converters.
+     */
+    public int getRegisteredConvertersModificationCount() {
+        return this.registeredConverters.getModificationCount();
+    }
+
     /**
      * Returns the list of available protocol connectors.
      * 
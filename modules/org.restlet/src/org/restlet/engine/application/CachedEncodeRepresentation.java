@@ -0,0 +1,210 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+
+import org.restlet.data.Encoding;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.Representation;
+
+// [excludes gwt]
+/**
+ * Encoded representation backed by an {@link EncodeCache}. When the encoded
+ * content is already cached, it is served from memory with a known size.
+ * Otherwise, the content is encoded while being written and recorded in the
+ * cache once complete.
+ * 
+ * @author Jerome Louvel
+ */
+public class CachedEncodeRepresentation extends EncodeRepresentation {
+
+    /**
+     * Output stream recording the bytes written, up to a given limit.
+     */
+    private static class RecordingOutputStream extends FilterOutputStream {
+
+        /** The recorded bytes, or null if the limit was exceeded. */
+        private ByteArrayOutputStream copy;
+
+        /** The maximum number of bytes recorded. */
+        private final long limit;
+
+        /**
+         * Constructor.
+         * 
+         * @param out
+         *            The target output stream.
+         * @param limit
+         *            The maximum number of bytes recorded.
+         */
+        public RecordingOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.copy = new ByteArrayOutputStream();
+            this.limit = limit;
+        }
+
+        /**
+         * Returns the recorded bytes, or null if the limit was exceeded.
+         * 
+         * @return The recorded bytes, or null.
+         */
+        public byte[] getContent() {
+            return (this.copy == null) ? null : this.copy.toByteArray();
+        }
+
+        /**
+         * Records the given bytes, unless the limit is exceeded.
+         * 
+         * @param b
+         *            The bytes to record.
+         * @param off
+         *            The start offset.
+         * @param len
+         *            The number of bytes.
+         */
+        private void record(byte[] b, int off, int len) {
+            if (this.copy != null) {
+                if (this.copy.size() + (long) len > this.limit) {
+                    this.copy = null;
+                } else {
+                    this.copy.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            record(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            record(new byte[] { (byte) b }, 0, 1);
+        }
+    }
+
+    /** The parent cache. */
+    private final EncodeCache cache;
+
+    /** The encoded content, or null if not available yet. */
+    private volatile byte[] content;
+
+    /** The cache key. */
+    private final String key;
+
+    /**
+     * Constructor.
+     * 
+     * @param encoding
+     *            Encoder algorithm.
+     * @param wrappedRepresentation
+     *            The wrapped representation.
+     * @param cache
+     *            The parent cache.
+     * @param key
+     *            The cache key.
+     */
+    public CachedEncodeRepresentation(Encoding encoding,
+            Representation wrappedRepresentation, EncodeCache cache,
+            String key) {
+        super(encoding, wrappedRepresentation);
+        this.cache = cache;
+        this.key = key;
+        this.content = cache.get(key);
+    }
+
+    @Override
+    public long getAvailableSize() {
+        byte[] current = this.content;
+        return (current == null) ? super.getAvailableSize() : current.length;
+    }
+
+    @Override
+    public ReadableByteChannel getChannel() throws IOException {
+        return (this.content == null) ? super.getChannel() : IoUtils
+                .getChannel(getStream());
+    }
+
+    @Override
+    public long getSize() {
+        byte[] current = this.content;
+        return (current == null) ? super.getSize() : current.length;
+    }
+
+    @Override
+    public InputStream getStream() throws IOException {
+        byte[] current = this.content;
+        return (current == null) ? super.getStream()
+                : new ByteArrayInputStream(current);
+    }
+
+    /**
+     * Indicates if the encoded content was served from the cache or recorded
+     * in it.
+     * 
+     * @return True if the encoded content is available in memory.
+     */
+    public boolean isCached() {
+        return this.content != null;
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        byte[] current = this.content;
+
+        if (current != null) {
+            outputStream.write(current);
+        } else {
+            RecordingOutputStream ros = new RecordingOutputStream(
+                    outputStream, this.cache.getMaxSize());
+            super.write(ros);
+            current = ros.getContent();
+
+            if (current != null) {
+                this.cache.put(this.key, current);
+                this.content = current;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.restlet.data.Encoding;
+import org.restlet.representation.Representation;
+
+// [excludes gwt]
+/**
+ * Cache of encoded entities, bounded by the total number of bytes cached. The
+ * entries are keyed by the identity of the entity version, that is its
+ * location, tag, modification date, size and media type, and by the encoding
+ * applied. Only the entities with a location, a validator and a known size are
+ * eligible, so that they can be identified without being read. The least
+ * recently used entries are evicted first.
+ * 
+ * @author Jerome Louvel
+ */
+public class EncodeCache {
+
+    /** The cached contents, in access order. */
+    private final LinkedHashMap<String, byte[]> entries;
+
+    /** The maximum number of bytes cached. */
+    private volatile long maxSize;
+
+    /** The number of bytes currently cached. */
+    private long size;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of bytes cached. Zero disables the cache.
+     */
+    public EncodeCache(long maxSize) {
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+        this.maxSize = maxSize;
+        this.size = 0;
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the cached content for a given key.
+     * 
+     * @param key
+     *            The cache key.
+     * @return The cached content or null.
+     */
+    public synchronized byte[] get(String key) {
+        return this.entries.get(key);
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * 
+     * @return The number of cached entries.
+     */
+    public synchronized int getCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the cache key for a given entity and encoding, or null if the
+     * entity isn't eligible or if the cache is disabled.
+     * 
+     * @param representation
+     *            The entity to encode.
+     * @param encoding
+     *            The encoding to apply.
+     * @return The cache key or null.
+     */
+    public String getKey(Representation representation, Encoding encoding) {
+        String result = null;
+
+        if ((getMaxSize() > 0) && (representation != null)
+                && (encoding != null) && !Encoding.IDENTITY.equals(encoding)
+                && EncodeRepresentation.getSupportedEncodings().contains(
+                        encoding) && representation.isAvailable()
+                && !representation.isTransient()
+                && (representation.getRange() == null)
+                && (representation.getLocationRef() != null)
+                && ((representation.getTag() != null) || (representation
+                        .getModificationDate() != null))
+                && (representation.getSize() != Representation.UNKNOWN_SIZE)
+                && (representation.getSize() <= getMaxSize())) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(representation.getLocationRef()).append('\n');
+            sb.append(representation.getTag()).append('\n');
+
+            if (representation.getModificationDate() != null) {
+                sb.append(representation.getModificationDate().getTime());
+            }
+
+            sb.append('\n').append(representation.getSize()).append('\n');
+            sb.append(representation.getMediaType()).append('\n');
+            sb.append(encoding.getName());
+            result = sb.toString();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of bytes cached. Zero disables the cache.
+     * 
+     * @return The maximum number of bytes cached.
+     */
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the number of bytes currently cached.
+     * 
+     * @return The number of bytes currently cached.
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Caches the encoded content for a given key. Contents larger than the
+     * maximum size are ignored, and the least recently used entries are
+     * evicted until the cache fits within the maximum size.
+     * 
+     * @param key
+     *            The cache key.
+     * @param content
+     *            The encoded content.
+     */
+    public synchronized void put(String key, byte[] content) {
+        if ((key != null) && (content != null)
+                && (content.length <= getMaxSize())) {
+            byte[] previous = this.entries.put(key, content);
+
+            if (previous != null) {
+                this.size -= previous.length;
+            }
+
+            this.size += content.length;
+            trim();
+        }
+    }
+
+    /**
+     * Sets the maximum number of bytes cached. Zero disables the cache.
+     * 
+     * @param maxSize
+     *            The maximum number of bytes cached.
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        trim();
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits within the
+     * maximum size.
+     */
+    private void trim() {
+        for (Iterator<Map.Entry<String, byte[]>> iter = this.entries
+                .entrySet().iterator(); (this.size > getMaxSize())
+                && iter.hasNext();) {
+            this.size -= iter.next().getValue().length;
+            iter.remove();
+        }
+    }
+
+}
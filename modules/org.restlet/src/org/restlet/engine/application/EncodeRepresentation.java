@@ -33,6 +33,8 @@
 
 package org.restlet.engine.application;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -53,16 +55,20 @@ import org.restlet.data.Disposition;
 import org.restlet.data.Encoding;
 import org.restlet.engine.io.IoUtils;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StreamingProducer;
 import org.restlet.util.WrapperList;
 import org.restlet.util.WrapperRepresentation;
 
 // [excludes gwt]
 /**
  * Content that encodes a wrapped content. Allows to apply only one encoding.
+ * The encoding is applied while writing, on the calling thread, so consumers
+ * should prefer the write methods to {@link #getStream()} that needs a pipe.
  * 
  * @author Jerome Louvel
  */
-public class EncodeRepresentation extends WrapperRepresentation {
+public class EncodeRepresentation extends WrapperRepresentation
+        implements StreamingProducer {
     /**
      * Returns the list of supported encodings.
      * 
@@ -259,7 +265,11 @@ public class EncodeRepresentation extends WrapperRepresentation {
     @Override
     public String getText() throws IOException {
         if (canEncode()) {
-            return IoUtils.toString(getStream(), getCharacterSet());
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            write(baos);
+            return IoUtils.toString(
+                    new ByteArrayInputStream(baos.toByteArray()),
+                    getCharacterSet());
         } else {
             return getWrappedRepresentation().getText();
         }
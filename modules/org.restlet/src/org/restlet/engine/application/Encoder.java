@@ -33,6 +33,7 @@
 
 package org.restlet.engine.application;
 
+import java.io.File;
 import java.util.Iterator;
 import java.util.List;
 
@@ -42,6 +43,7 @@ import org.restlet.Response;
 import org.restlet.data.ClientInfo;
 import org.restlet.data.Encoding;
 import org.restlet.data.Preference;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
 import org.restlet.service.EncoderService;
@@ -54,6 +56,9 @@ import org.restlet.service.EncoderService;
  * If the {@link org.restlet.representation.Representation} has an unknown size,
  * it will always be a candidate for encoding. Candidate representations need to
  * respect media type criteria by the lists of accepted and ignored media types.
+ * Encoded entities with a stable identity can be cached by the parent service
+ * and precompressed ".gz" siblings of files can be served instead of encoding
+ * them again.
  * 
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
@@ -151,7 +156,22 @@ public class Encoder extends Filter {
         Encoding bestEncoding = getBestEncoding(client);
 
         if (bestEncoding != null) {
-            result = new EncodeRepresentation(bestEncoding, representation);
+            result = getPrecompressed(bestEncoding, representation);
+
+            if (result == null) {
+                EncodeCache cache = (getEncoderService() == null) ? null
+                        : getEncoderService().getEncodeCache();
+                String key = (cache == null) ? null : cache.getKey(
+                        representation, bestEncoding);
+
+                if (key != null) {
+                    result = new CachedEncodeRepresentation(bestEncoding,
+                            representation, cache, key);
+                } else {
+                    result = new EncodeRepresentation(bestEncoding,
+                            representation);
+                }
+            }
         }
 
         return result;
@@ -201,6 +221,53 @@ public class Encoder extends Filter {
         return encoderService;
     }
 
+    /**
+     * Returns the precompressed sibling of a file representation, if the
+     * encoder service allows it. The sibling is a file with the same path
+     * plus a ".gz" extension that is at least as recent as the original
+     * file. It is only used for the GZip encoding.
+     * 
+     * @param encoding
+     *            The encoding to apply.
+     * @param representation
+     *            The representation to encode.
+     * @return The precompressed sibling or null.
+     */
+    protected Representation getPrecompressed(Encoding encoding,
+            Representation representation) {
+        Representation result = null;
+
+        if (Encoding.GZIP.equals(encoding)
+                && (representation instanceof FileRepresentation)
+                && (representation.getRange() == null)
+                && (getEncoderService() != null)
+                && getEncoderService().isPrecompressed()) {
+            File file = ((FileRepresentation) representation).getFile();
+            File sibling = new File(file.getPath() + ".gz");
+
+            if (sibling.isFile()
+                    && (sibling.lastModified() >= file.lastModified())) {
+                FileRepresentation precompressed = new FileRepresentation(
+                        sibling, representation.getMediaType());
+                precompressed.setCharacterSet(representation
+                        .getCharacterSet());
+                precompressed.setDisposition(representation.getDisposition());
+                precompressed.getEncodings().add(Encoding.GZIP);
+                precompressed.setExpirationDate(representation
+                        .getExpirationDate());
+                precompressed.getLanguages().addAll(
+                        representation.getLanguages());
+                precompressed.setLocationRef(representation.getLocationRef());
+                precompressed.setModificationDate(representation
+                        .getModificationDate());
+                precompressed.setTag(representation.getTag());
+                result = precompressed;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the list of supported encodings. By default it calls
      * {@link EncodeRepresentation#getSupportedEncodings()} static method.
@@ -33,6 +33,8 @@
 
 package org.restlet.engine.component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
@@ -52,6 +54,10 @@ import org.restlet.routing.VirtualHost;
  * @author Jerome Louvel
  */
 public class HostRoute extends Route {
+
+    /** The compiled patterns of the virtual host criteria. */
+    private final Map<String, Pattern> patterns;
+
     /**
      * Constructor.
      * 
@@ -62,6 +68,7 @@ public class HostRoute extends Route {
      */
     public HostRoute(Router router, VirtualHost target) {
         super(router, target);
+        this.patterns = new ConcurrentHashMap<String, Pattern>();
     }
 
     /**
@@ -95,41 +102,20 @@ public class HostRoute extends Route {
     }
 
     /**
-     * Returns the target virtual host.
-     * 
-     * @return The target virtual host.
-     */
-    public VirtualHost getVirtualHost() {
-        return (VirtualHost) getNext();
-    }
-
-    /**
-     * Matches a formatted string against a regex pattern, in a case insensitive
-     * manner.
-     * 
-     * @param regex
-     *            The pattern to use.
-     * @param formattedString
-     *            The formatted string to match.
-     * @return True if the formatted string matched the pattern.
-     */
-    private boolean matches(String regex, String formattedString) {
-        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE)
-                .matcher(formattedString).matches();
-    }
-
-    /**
-     * Returns the score for a given call (between 0 and 1.0).
+     * Returns the values matched against the virtual host criteria, in the
+     * order of the {@link #score(Request, Response)} checks.
      * 
      * @param request
-     *            The request to score.
+     *            The request to match.
      * @param response
-     *            The response to score.
-     * @return The score for a given call (between 0 and 1.0).
+     *            The response to match.
+     * @return The values matched or null if the call can't be matched.
      */
-    @Override
-    public float score(Request request, Response response) {
-        float result = 0F;
+    private static String[] getMatchedValues(Request request,
+            Response response) {
+        if (request.getResourceRef() == null) {
+            return null;
+        }
 
         // Prepare the value to be matched
         String hostDomain = "";
@@ -159,58 +145,162 @@ public class HostRoute extends Route {
             }
         }
 
-        if (request.getResourceRef() != null) {
-            String resourceDomain = request.getResourceRef().getHostDomain();
+        String resourceDomain = request.getResourceRef().getHostDomain();
 
-            if (resourceDomain == null) {
-                resourceDomain = "";
-            }
+        if (resourceDomain == null) {
+            resourceDomain = "";
+        }
 
-            int resourcePortValue = request.getResourceRef().getHostPort();
+        int resourcePortValue = request.getResourceRef().getHostPort();
 
-            if (resourcePortValue == -1) {
-                resourcePortValue = request.getResourceRef()
-                        .getSchemeProtocol().getDefaultPort();
-            }
+        if (resourcePortValue == -1) {
+            resourcePortValue = request.getResourceRef().getSchemeProtocol()
+                    .getDefaultPort();
+        }
 
-            String resourcePort = Integer.toString(resourcePortValue);
-            String resourceScheme = request.getResourceRef().getScheme();
+        String resourcePort = Integer.toString(resourcePortValue);
+        String resourceScheme = request.getResourceRef().getScheme();
 
-            if (resourceScheme == null) {
-                resourceScheme = "";
-            }
+        if (resourceScheme == null) {
+            resourceScheme = "";
+        }
 
-            String serverAddress = response.getServerInfo().getAddress();
+        String serverAddress = response.getServerInfo().getAddress();
 
-            if (serverAddress == null) {
-                serverAddress = "";
-            }
+        if (serverAddress == null) {
+            serverAddress = "";
+        }
 
-            int serverPortValue = response.getServerInfo().getPort();
+        String serverPort = Integer.toString(response.getServerInfo()
+                .getPort());
 
-            if (serverPortValue == -1) {
-                serverPortValue = request.getProtocol().getDefaultPort();
-            }
+        return new String[] { hostDomain, hostPort, hostScheme,
+                resourceDomain, resourcePort, resourceScheme, serverAddress,
+                serverPort };
+    }
+
+    /**
+     * Returns a key identifying the values matched against the virtual host
+     * criteria. Calls with the same key always get the same score. As the
+     * criteria are matched in a case insensitive manner, the key is in lower
+     * case. Calls whose resource domain differs from their host domain, such as
+     * calls with an absolute request URI, have no key.
+     * 
+     * @param request
+     *            The request to match.
+     * @param response
+     *            The response to match.
+     * @return The matching key or null.
+     */
+    static String getMatchingKey(Request request, Response response) {
+        String[] values = getMatchedValues(request, response);
 
-            String serverPort = Integer.toString(response.getServerInfo()
-                    .getPort());
-
-            // Check if all the criteria match
-            if (matches(getVirtualHost().getHostDomain(), hostDomain)
-                    && matches(getVirtualHost().getHostPort(), hostPort)
-                    && matches(getVirtualHost().getHostScheme(), hostScheme)
-                    && matches(getVirtualHost().getResourceDomain(),
-                            resourceDomain)
-                    && matches(getVirtualHost().getResourcePort(), resourcePort)
-                    && matches(getVirtualHost().getResourceScheme(),
-                            resourceScheme)
-                    && matches(getVirtualHost().getServerAddress(),
-                            serverAddress)
-                    && matches(getVirtualHost().getServerPort(), serverPort)) {
-                result = 1F;
+        if ((values == null) || !values[0].equalsIgnoreCase(values[3])) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (String value : values) {
+            sb.append(value).append('\n');
+        }
+
+        return sb.toString().toLowerCase();
+    }
+
+    /**
+     * Returns the target virtual host.
+     * 
+     * @return The target virtual host.
+     */
+    public VirtualHost getVirtualHost() {
+        return (VirtualHost) getNext();
+    }
+
+    /**
+     * Indicates if the selection of this route can be cached, using the key
+     * returned by {@link #getMatchingKey(Request, Response)}. This is only the
+     * case if the host or the resource domain criterion is an explicit name,
+     * as wildcard criteria would let clients fill the cache with arbitrary
+     * host names.
+     * 
+     * @return True if the selection of this route can be cached.
+     */
+    public boolean isCacheable() {
+        return isExplicit(getVirtualHost().getHostDomain())
+                || isExplicit(getVirtualHost().getResourceDomain());
+    }
+
+    /**
+     * Indicates if a regex pattern only matches explicit names, possibly
+     * separated by alternations, without quantifiers, classes or groups.
+     * 
+     * @param regex
+     *            The pattern to test.
+     * @return True if the pattern only matches explicit names.
+     */
+    private static boolean isExplicit(String regex) {
+        if ((regex == null) || (regex.length() == 0)) {
+            return false;
+        }
+
+        for (int i = 0; i < regex.length(); i++) {
+            if ("*+?{}[]()^$".indexOf(regex.charAt(i)) != -1) {
+                return false;
             }
         }
 
+        return true;
+    }
+
+    /**
+     * Matches a formatted string against a regex pattern, in a case insensitive
+     * manner.
+     * 
+     * @param regex
+     *            The pattern to use.
+     * @param formattedString
+     *            The formatted string to match.
+     * @return True if the formatted string matched the pattern.
+     */
+    private boolean matches(String regex, String formattedString) {
+        Pattern pattern = this.patterns.get(regex);
+
+        if (pattern == null) {
+            pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            this.patterns.put(regex, pattern);
+        }
+
+        return pattern.matcher(formattedString).matches();
+    }
+
+    /**
+     * Returns the score for a given call (between 0 and 1.0).
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @return The score for a given call (between 0 and 1.0).
+     */
+    @Override
+    public float score(Request request, Response response) {
+        float result = 0F;
+        String[] values = getMatchedValues(request, response);
+
+        // Check if all the criteria match
+        if ((values != null)
+                && matches(getVirtualHost().getHostDomain(), values[0])
+                && matches(getVirtualHost().getHostPort(), values[1])
+                && matches(getVirtualHost().getHostScheme(), values[2])
+                && matches(getVirtualHost().getResourceDomain(), values[3])
+                && matches(getVirtualHost().getResourcePort(), values[4])
+                && matches(getVirtualHost().getResourceScheme(), values[5])
+                && matches(getVirtualHost().getServerAddress(), values[6])
+                && matches(getVirtualHost().getServerPort(), values[7])) {
+            result = 1F;
+        }
+
         // Log the result of the matching
         if (getLogger().isLoggable(Level.FINER)) {
             getLogger().finer(
@@ -40,13 +40,25 @@ import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Status;
+import org.restlet.engine.util.BoundedCache;
+import org.restlet.routing.Route;
 import org.restlet.routing.Router;
 import org.restlet.routing.VirtualHost;
+import org.restlet.util.RouteList;
 
 /**
  * Router that collects calls from all server connectors and dispatches them to
  * the appropriate host routers. The host routers then dispatch them to the user
- * applications.
+ * applications.<br>
+ * <br>
+ * The virtual host selected for a given combination of host, resource and
+ * server values is cached, in order to not evaluate the criteria of each
+ * virtual host for every call. Only the virtual hosts matching explicit domain
+ * names are cached, so that clients can't fill the cache with arbitrary host
+ * names matched by a wildcard virtual host. This cache is cleared when the
+ * list of routes is modified. Changes to the criteria of existing virtual hosts must be followed
+ * by a call to {@link Component#updateHosts()}, which replaces this router.<br>
+ * <br>
  * 
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
@@ -59,6 +71,18 @@ public class ServerRouter extends Router {
     /** The parent component. */
     private volatile Component component;
 
+    /** The cache of host routes selected for each matching key. */
+    private final BoundedCache<String, Route> hostCache;
+
+    /** Indicates if the cache can be used for the current routes. */
+    private volatile boolean hostCacheEnabled;
+
+    /** The modification count of the routes when the cache was validated. */
+    private volatile int hostCacheModificationCount;
+
+    /** The routes for which the cache was validated. */
+    private volatile RouteList hostCacheRoutes;
+
     /**
      * Constructor.
      * 
@@ -69,9 +93,20 @@ public class ServerRouter extends Router {
         super((component == null) ? null : component.getContext()
                 .createChildContext());
         this.component = component;
+        this.hostCache = new BoundedCache<String, Route>();
+        this.hostCacheEnabled = false;
+        this.hostCacheModificationCount = -1;
+        this.hostCacheRoutes = null;
         setRoutingMode(MODE_FIRST_MATCH);
     }
 
+    /**
+     * Clears the cache of selected host routes.
+     */
+    public void clearHostCache() {
+        this.hostCache.clear();
+    }
+
     /**
      * Returns the parent component.
      * 
@@ -81,6 +116,87 @@ public class ServerRouter extends Router {
         return this.component;
     }
 
+    /**
+     * Returns the cache of selected host routes if it can be used for the
+     * current routes, clearing it when the routes have been modified.
+     * 
+     * @return The cache of selected host routes or null.
+     */
+    private BoundedCache<String, Route> getHostCache() {
+        if (!this.hostCache.isEnabled()
+                || (getRoutingMode() != MODE_FIRST_MATCH)) {
+            return null;
+        }
+
+        RouteList routes = getRoutes();
+        int modificationCount = routes.getModificationCount();
+
+        if ((routes != this.hostCacheRoutes)
+                || (modificationCount != this.hostCacheModificationCount)) {
+            synchronized (this.hostCache) {
+                this.hostCache.clear();
+                boolean enabled = true;
+
+                // Only the criteria of the host routes are known
+                for (Route route : routes) {
+                    enabled = enabled && (route.getClass() == HostRoute.class);
+                }
+
+                this.hostCacheEnabled = enabled;
+                this.hostCacheModificationCount = modificationCount;
+                this.hostCacheRoutes = routes;
+            }
+        }
+
+        return this.hostCacheEnabled ? this.hostCache : null;
+    }
+
+    /**
+     * Returns the maximum number of host routes cached. Defaults to 1024.
+     * 
+     * @return The maximum number of host routes cached.
+     */
+    public int getMaxCachedHosts() {
+        return this.hostCache.getMaxSize();
+    }
+
+    /**
+     * Returns the next Restlet, reusing the host route previously selected for
+     * the same host, resource and server values if available.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @return The next Restlet if available or null.
+     */
+    @Override
+    public Restlet getNext(Request request, Response response) {
+        BoundedCache<String, Route> cache = getHostCache();
+        String key = (cache == null) ? null : HostRoute.getMatchingKey(
+                request, response);
+        Route result = (key == null) ? null : cache.get(key);
+
+        if (result != null) {
+            if (request.isLoggable()) {
+                logRoute(result);
+            }
+
+            return result;
+        }
+
+        Restlet next = super.getNext(request, response);
+
+        if ((key != null) && (next instanceof HostRoute)
+                && ((HostRoute) next).isCacheable()
+                && (this.hostCacheModificationCount == getRoutes()
+                        .getModificationCount())) {
+            cache.put(key, (Route) next);
+        }
+
+        return next;
+    }
+
     @Override
     protected void logRoute(org.restlet.routing.Route route) {
         if (getLogger().isLoggable(Level.FINE)) {
@@ -101,6 +217,17 @@ public class ServerRouter extends Router {
         }
     }
 
+    /**
+     * Sets the maximum number of host routes cached. A value of zero or less
+     * disables the cache.
+     * 
+     * @param maxCachedHosts
+     *            The maximum number of host routes cached.
+     */
+    public void setMaxCachedHosts(int maxCachedHosts) {
+        this.hostCache.setMaxSize(maxCachedHosts);
+    }
+
     /** Starts the Restlet. */
     @Override
     public synchronized void start() throws Exception {
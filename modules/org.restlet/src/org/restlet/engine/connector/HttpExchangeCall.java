@@ -37,6 +37,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 import org.restlet.Server;
 import org.restlet.data.Header;
@@ -104,9 +105,9 @@ public class HttpExchangeCall extends ServerCall {
         if (!this.requestHeadersAdded) {
             final Headers headers = this.exchange.getRequestHeaders();
 
-            for (String name : headers.keySet()) {
-                for (String value : (List<String>) headers.get(name)) {
-                    result.add(name, value);
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                for (String value : entry.getValue()) {
+                    result.add(entry.getKey(), value);
                 }
             }
             this.requestHeadersAdded = true;
@@ -144,11 +145,13 @@ public class HttpExchangeCall extends ServerCall {
             headers.add(header.getName(), header.getValue());
         }
 
-        // Send the headers
+        // Send the headers. A length of '0' asks for a chunked body while '-1'
+        // indicates that there is no body at all
         Representation entity = restletResponse.getEntity();
         long responseLength = 0;
 
-        if (entity == null || !entity.isAvailable()) {
+        if (entity == null || !entity.isAvailable()
+                || (entity.getAvailableSize() == 0)) {
             responseLength = -1;
         } else if (entity.getAvailableSize() != Representation.UNKNOWN_SIZE) {
             responseLength = entity.getAvailableSize();
@@ -34,7 +34,6 @@
 package org.restlet.engine.connector;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
 
 import org.restlet.Server;
 import org.restlet.data.Protocol;
@@ -44,7 +43,8 @@ import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 /**
- * Internal HTTP server connector.
+ * Internal HTTP server connector. See the {@link NetServerHelper} class for the
+ * list of supported parameters.
  * 
  * @author Jerome Louvel
  */
@@ -65,8 +65,8 @@ public class HttpServerHelper extends NetServerHelper {
 
     @Override
     public void start() throws Exception {
-        this.server = HttpServer.create(new InetSocketAddress(getHelped()
-                .getPort()), 0);
+        setServerProperties();
+        this.server = HttpServer.create(createSocketAddress(), getBacklog());
         server.createContext("/", new HttpHandler() {
             @Override
             public void handle(HttpExchange httpExchange) throws IOException {
@@ -74,17 +74,19 @@ public class HttpServerHelper extends NetServerHelper {
                         httpExchange));
             }
         });
-        server.setExecutor(null); // creates a default executor
+        setExecutor(createExecutor());
+        server.setExecutor(getExecutor());
         server.start();
 
         setConfidential(false);
         setEphemeralPort(server.getAddress().getPort());
         super.start();
     }
-    
+
     @Override
     public synchronized void stop() throws Exception {
         super.stop();
         this.server.stop(0);
+        stopExecutor();
     }
 }
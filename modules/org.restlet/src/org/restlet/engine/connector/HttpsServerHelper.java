@@ -34,8 +34,6 @@
 package org.restlet.engine.connector;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
@@ -73,7 +71,8 @@ import com.sun.net.httpserver.HttpsServer;
  * </tr>
  * </table>
  * For the default SSL parameters see the Javadocs of the
- * {@link DefaultSslContextFactory} class.
+ * {@link DefaultSslContextFactory} class. See the {@link NetServerHelper} class
+ * for the other supported parameters.
  * 
  * @author Jerome Louvel
  */
@@ -99,28 +98,11 @@ public class HttpsServerHelper extends NetServerHelper {
         SslContextFactory sslContextFactory = SslUtils
                 .getSslContextFactory(this);
         SSLContext sslContext = sslContextFactory.createSslContext();
-        String addr = getHelped().getAddress();
-
-        if (addr != null) {
-            // This call may throw UnknownHostException and otherwise always
-            // returns an instance of INetAddress.
-            // Note: textual representation of inet addresses are supported
-            InetAddress iaddr = InetAddress.getByName(addr);
-
-            // Note: the backlog of 50 is the default
-            setAddress(new InetSocketAddress(iaddr, getHelped().getPort()));
-        } else {
-            int port = getHelped().getPort();
-
-            // Use ephemeral port
-            if (port > 0) {
-                setAddress(new InetSocketAddress(getHelped().getPort()));
-            }
-        }
+        setAddress(createSocketAddress());
 
         // Complete initialization
-        this.server = HttpsServer.create(new InetSocketAddress(
-                getHelped().getPort()), 0);
+        setServerProperties();
+        this.server = HttpsServer.create(getAddress(), getBacklog());
         final SSLParameters sslParams = sslContext.getDefaultSSLParameters();
         server.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
             public void configure(HttpsParameters params) {
@@ -135,7 +117,8 @@ public class HttpsServerHelper extends NetServerHelper {
                         httpExchange));
             }
         });
-        server.setExecutor(null); // creates a default executor
+        setExecutor(createExecutor());
+        server.setExecutor(getExecutor());
         server.start();
 
         setConfidential(false);
@@ -147,6 +130,7 @@ public class HttpsServerHelper extends NetServerHelper {
     public synchronized void stop() throws Exception {
         super.stop();
         this.server.stop(0);
+        stopExecutor();
     }
 
 }
@@ -33,10 +33,20 @@
 
 package org.restlet.engine.connector;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.Server;
 import org.restlet.engine.adapter.HttpServerHelper;
+import org.restlet.engine.log.LoggingThreadFactory;
 
 /**
  * Abstract Internal web server connector based on com.sun.net.httpserver
@@ -49,7 +59,82 @@ import org.restlet.engine.adapter.HttpServerHelper;
  * <th>Default value</th>
  * <th>Description</th>
  * </tr>
+ * <tr>
+ * <td>minThreads</td>
+ * <td>int</td>
+ * <td>1</td>
+ * <td>Minimum number of worker threads waiting to service calls, even if they
+ * are idle.</td>
+ * </tr>
+ * <tr>
+ * <td>maxThreads</td>
+ * <td>int</td>
+ * <td>10</td>
+ * <td>Maximum number of worker threads that can service calls. If this number
+ * is reached then additional calls are queued if the "maxQueued" value hasn't
+ * been reached.</td>
+ * </tr>
+ * <tr>
+ * <td>maxQueued</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Maximum number of calls that can be queued if there aren't any worker
+ * thread available to service them. If the value is '0', then no queue is used.
+ * If the value is '-1', then an unbounded queue is used. When the queue is
+ * full, calls are handled by the thread dispatching them, which stops accepting
+ * new calls in the meantime.</td>
+ * </tr>
+ * <tr>
+ * <td>maxThreadIdleTimeMs</td>
+ * <td>int</td>
+ * <td>60 000</td>
+ * <td>Time for an idle thread to wait for an operation before being collected.</td>
+ * </tr>
+ * <tr>
+ * <td>backlog</td>
+ * <td>int</td>
+ * <td>0</td>
+ * <td>Maximum number of pending connections waiting to be accepted. If the
+ * value is '0', a system default value is used.</td>
+ * </tr>
+ * <tr>
+ * <td>maxIoIdleTimeMs</td>
+ * <td>int</td>
+ * <td>30 000</td>
+ * <td>Maximum time for an idle persistent connection to wait for a new request
+ * before being closed. JVM-wide, see the note below.</td>
+ * </tr>
+ * <tr>
+ * <td>maxIdleConnections</td>
+ * <td>int</td>
+ * <td>200</td>
+ * <td>Maximum number of idle persistent connections kept open. JVM-wide, see
+ * the note below.</td>
+ * </tr>
+ * <tr>
+ * <td>maxRequestTimeMs</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Maximum time to read a request before closing the connection. If the
+ * value is '-1', there is no limit. JVM-wide, see the note below.</td>
+ * </tr>
+ * <tr>
+ * <td>maxResponseTimeMs</td>
+ * <td>int</td>
+ * <td>-1</td>
+ * <td>Maximum time to write a response before closing the connection. If the
+ * value is '-1', there is no limit. JVM-wide, see the note below.</td>
+ * </tr>
  * </table>
+ * Note that the last four parameters can't be set per server. They are mapped
+ * to the "sun.net.httpserver.idleInterval",
+ * "sun.net.httpserver.maxIdleConnections", "sun.net.httpserver.maxReqTime" and
+ * "sun.net.httpserver.maxRspTime" system properties, unless these are already
+ * set. The JDK reads them once, when the first server of the JVM is started,
+ * so they are ignored for the servers started later and the values of the
+ * first server apply to all of them. To get predictable values, set them as
+ * JVM startup options instead, for example
+ * "-Dsun.net.httpserver.maxReqTime=30" (in seconds).
  * 
  * @author Jerome Louvel
  */
@@ -64,6 +149,9 @@ public abstract class NetServerHelper extends HttpServerHelper {
      */
     private volatile InetSocketAddress address;
 
+    /** The executor handling the calls. */
+    private volatile ExecutorService executor;
+
     /**
      * Constructor.
      * 
@@ -74,6 +162,120 @@ public abstract class NetServerHelper extends HttpServerHelper {
         super(server);
     }
 
+    /**
+     * Creates the executor handling the calls, based on a pool of worker
+     * threads.
+     * 
+     * @return The executor handling the calls.
+     */
+    protected ExecutorService createExecutor() {
+        BlockingQueue<Runnable> queue = null;
+
+        if (getMaxQueued() == 0) {
+            queue = new SynchronousQueue<Runnable>();
+        } else if (getMaxQueued() < 0) {
+            queue = new LinkedBlockingQueue<Runnable>();
+        } else {
+            queue = new ArrayBlockingQueue<Runnable>(getMaxQueued());
+        }
+
+        ThreadPoolExecutor result = new ThreadPoolExecutor(getMinThreads(),
+                getMaxThreads(), getMaxThreadIdleTimeMs(),
+                TimeUnit.MILLISECONDS, queue, new LoggingThreadFactory(
+                        getLogger(), true));
+
+        // Slow down the dispatching of calls instead of losing them
+        result.setRejectedExecutionHandler(
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        result.prestartAllCoreThreads();
+        return result;
+    }
+
+    /**
+     * Creates the socket address to listen to, based on the address and port
+     * of the helped server.
+     * 
+     * @return The socket address to listen to.
+     * @throws UnknownHostException
+     */
+    protected InetSocketAddress createSocketAddress()
+            throws UnknownHostException {
+        String addr = getHelped().getAddress();
+
+        if (addr != null) {
+            // This call may throw UnknownHostException and otherwise always
+            // returns an instance of INetAddress.
+            // Note: textual representation of inet addresses are supported
+            InetAddress iaddr = InetAddress.getByName(addr);
+            return new InetSocketAddress(iaddr, getHelped().getPort());
+        }
+
+        return new InetSocketAddress(getHelped().getPort());
+    }
+
+    /**
+     * Returns the maximum number of pending connections waiting to be
+     * accepted.
+     * 
+     * @return The maximum number of pending connections.
+     */
+    public int getBacklog() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "backlog", "0"));
+    }
+
+    /**
+     * Returns the executor handling the calls.
+     * 
+     * @return The executor handling the calls.
+     */
+    protected ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the maximum number of calls that can be queued if there aren't
+     * any worker thread available to service them.
+     * 
+     * @return The maximum number of calls that can be queued.
+     */
+    public int getMaxQueued() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxQueued", "0"));
+    }
+
+    /**
+     * Returns the time for an idle thread to wait for an operation before
+     * being collected.
+     * 
+     * @return The time for an idle thread to wait for an operation.
+     */
+    public int getMaxThreadIdleTimeMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxThreadIdleTimeMs", "60000"));
+    }
+
+    /**
+     * Returns the maximum number of worker threads that can service calls.
+     * 
+     * @return The maximum number of worker threads.
+     */
+    public int getMaxThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxThreads", "10"));
+    }
+
+    /**
+     * Returns the minimum number of worker threads waiting to service calls,
+     * even if they are idle.
+     * 
+     * @return The minimum number of worker threads.
+     */
+    public int getMinThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "minThreads", "1"));
+    }
+
     /**
      * Returns the socket address this server is listening to.
      * 
@@ -112,6 +314,63 @@ public abstract class NetServerHelper extends HttpServerHelper {
         this.address = address;
     }
 
+    /**
+     * Sets a system property of the JDK HTTP server from a helper parameter,
+     * unless the parameter is missing or the property is already set. As the
+     * JDK reads these properties once, this has no effect after the first
+     * server of the JVM is started.
+     * 
+     * @param parameter
+     *            The parameter name.
+     * @param property
+     *            The system property name.
+     * @param seconds
+     *            Indicates if the parameter value in milliseconds must be
+     *            converted to seconds.
+     */
+    private void setServerProperty(String parameter, String property,
+            boolean seconds) {
+        String value = getHelpedParameters().getFirstValue(parameter);
+
+        if ((value != null) && (System.getProperty(property) == null)) {
+            long number = Long.parseLong(value);
+
+            if (seconds && (number > 0)) {
+                // Round up so that short timeouts aren't disabled
+                number = (number + 999) / 1000;
+            }
+
+            System.setProperty(property, Long.toString(number));
+        }
+    }
+
+    /**
+     * Sets the timeout related system properties of the JDK HTTP server from
+     * the helper parameters. Must be called before the creation of the server.
+     * These properties are process-wide and only honored for the first server
+     * started in the JVM.
+     */
+    protected void setServerProperties() {
+        setServerProperty("maxIoIdleTimeMs", "sun.net.httpserver.idleInterval",
+                true);
+        setServerProperty("maxIdleConnections",
+                "sun.net.httpserver.maxIdleConnections", false);
+        setServerProperty("maxRequestTimeMs", "sun.net.httpserver.maxReqTime",
+                true);
+        setServerProperty("maxResponseTimeMs",
+                "sun.net.httpserver.maxRspTime", true);
+    }
+
+    /**
+     * Sets the executor handling the calls.
+     * 
+     * @param executor
+     *            The executor handling the calls.
+     */
+    protected void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     @Override
     public synchronized void start() throws Exception {
         super.start();
@@ -125,4 +384,15 @@ public abstract class NetServerHelper extends HttpServerHelper {
         getLogger().info("Stopping the internal server");
     }
 
+    /**
+     * Shuts down the executor handling the calls, once the server stopped
+     * dispatching them.
+     */
+    protected void stopExecutor() {
+        if (getExecutor() != null) {
+            getExecutor().shutdown();
+            setExecutor(null);
+        }
+    }
+
 }
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.converter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.restlet.util.WrapperList;
+
+/**
+ * Modifiable list of converter helpers counting its structural modifications.
+ * This allows the lookup results derived from the registered converters to be
+ * cached until the list changes, see {@link ConverterUtils}. Structural
+ * changes are thread-safe, using an underlying {@link CopyOnWriteArrayList}.
+ * Changes made via the views returned by {@link #subList(int, int)} are also
+ * counted.
+ * 
+ * @author Jerome Louvel
+ */
+public final class ConverterHelperList extends WrapperList<ConverterHelper> {
+
+    /** The number of structural modifications of the list. */
+    private volatile int modificationCount;
+
+    /** The parent list of a sub-list view, or null. */
+    private final ConverterHelperList parent;
+
+    /**
+     * Constructor.
+     */
+    public ConverterHelperList() {
+        this(new CopyOnWriteArrayList<ConverterHelper>(), null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param delegate
+     *            The delegate list.
+     * @param parent
+     *            The parent list of a sub-list view, or null.
+     */
+    private ConverterHelperList(List<ConverterHelper> delegate,
+            ConverterHelperList parent) {
+        super(delegate);
+        this.parent = parent;
+    }
+
+    @Override
+    public boolean add(ConverterHelper element) {
+        boolean result = super.add(element);
+        modified();
+        return result;
+    }
+
+    @Override
+    public void add(int index, ConverterHelper element) {
+        super.add(index, element);
+        modified();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends ConverterHelper> elements) {
+        boolean result = super.addAll(elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index,
+            Collection<? extends ConverterHelper> elements) {
+        boolean result = super.addAll(index, elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        modified();
+    }
+
+    /**
+     * Returns the number of structural modifications of the list.
+     * 
+     * @return The number of structural modifications of the list.
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
+    /**
+     * Records a structural modification of the list and of its parent list.
+     */
+    private void modified() {
+        this.modificationCount++;
+
+        if (this.parent != null) {
+            this.parent.modified();
+        }
+    }
+
+    @Override
+    public ConverterHelper remove(int index) {
+        ConverterHelper result = super.remove(index);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        boolean result = super.remove(element);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        boolean result = super.removeAll(elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        boolean result = super.retainAll(elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public ConverterHelper set(int index, ConverterHelper element) {
+        ConverterHelper result = super.set(index, element);
+        modified();
+        return result;
+    }
+
+    /**
+     * Returns a view of the portion of this list between the specified
+     * fromIndex, inclusive, and toIndex, exclusive. Changes made via the view
+     * are counted as modifications of this list.
+     * 
+     * @param fromIndex
+     *            The start position.
+     * @param toIndex
+     *            The end position (exclusive).
+     * @return The sub-list.
+     */
+    @Override
+    public List<ConverterHelper> subList(int fromIndex, int toIndex) {
+        return new ConverterHelperList(getDelegate().subList(fromIndex,
+                toIndex), this);
+    }
+}
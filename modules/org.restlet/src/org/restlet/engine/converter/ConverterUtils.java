@@ -34,12 +34,16 @@
 package org.restlet.engine.converter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.engine.Engine;
 import org.restlet.engine.resource.VariantInfo;
+import org.restlet.engine.util.BoundedCache;
+import org.restlet.representation.ObjectRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
@@ -52,7 +56,162 @@ import org.restlet.resource.Resource;
 public class ConverterUtils {
 
     /**
-     * Returns the best converter helper matching the given parameters.
+     * Key of the cached converter helpers, made of the conversion source,
+     * metadata and target.
+     */
+    private static final class HelperKey {
+
+        /** The source class. */
+        private final Class<?> source;
+
+        /** The representation metadata. */
+        private final Object metadata;
+
+        /** The target class. */
+        private final Class<?> target;
+
+        /**
+         * Constructor.
+         * 
+         * @param source
+         *            The source class.
+         * @param metadata
+         *            The representation metadata.
+         * @param target
+         *            The target class.
+         */
+        private HelperKey(Class<?> source, Object metadata, Class<?> target) {
+            this.source = source;
+            this.metadata = metadata;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean result = (obj instanceof HelperKey);
+
+            if (result && (obj != this)) {
+                HelperKey other = (HelperKey) obj;
+                result = (this.source == other.source)
+                        && (this.target == other.target)
+                        && ((this.metadata == null) ? (other.metadata == null)
+                                : this.metadata.equals(other.metadata));
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (this.source == null) ? 0 : this.source.hashCode();
+            result = 31 * result
+                    + ((this.metadata == null) ? 0 : this.metadata.hashCode());
+            return 31 * result
+                    + ((this.target == null) ? 0 : this.target.hashCode());
+        }
+    }
+
+    /** Marker of the cached lookups that found no result. */
+    private static final List<Object> NO_RESULT = new ArrayList<Object>(0);
+
+    /** The engine whose converters were used to compute the cached results. */
+    private static volatile Engine cachedEngine;
+
+    /**
+     * The modification count of the registered converters when the cached
+     * results were computed.
+     */
+    private static volatile int cachedModificationCount;
+
+    /**
+     * The {@link ObjectRepresentation#VARIANT_OBJECT_BINARY_SUPPORTED} setting
+     * used to compute the cached results.
+     */
+    private static volatile boolean cachedObjectBinary;
+
+    /**
+     * The {@link ObjectRepresentation#VARIANT_OBJECT_XML_SUPPORTED} setting
+     * used to compute the cached results.
+     */
+    private static volatile boolean cachedObjectXml;
+
+    /** The object classes that can be converted from a given variant. */
+    private static final BoundedCache<HelperKey, List<?>> objectClasses = new BoundedCache<HelperKey, List<?>>();
+
+    /** The best helpers for the conversions of representations to objects. */
+    private static final BoundedCache<HelperKey, ConverterHelper> objectHelpers = new BoundedCache<HelperKey, ConverterHelper>();
+
+    /** The best helpers for the conversions of objects to representations. */
+    private static final BoundedCache<HelperKey, ConverterHelper> representationHelpers = new BoundedCache<HelperKey, ConverterHelper>();
+
+    /** The variants that can be converted from a given object class. */
+    private static final BoundedCache<HelperKey, List<?>> variants = new BoundedCache<HelperKey, List<?>>();
+
+    /**
+     * Clears the cached results if the engine, its registered converters or
+     * the object representation settings have changed since they were
+     * computed.
+     */
+    private static void checkCache() {
+        Engine engine = Engine.getInstance();
+        int modificationCount = engine
+                .getRegisteredConvertersModificationCount();
+        boolean objectBinary = ObjectRepresentation.VARIANT_OBJECT_BINARY_SUPPORTED;
+        boolean objectXml = ObjectRepresentation.VARIANT_OBJECT_XML_SUPPORTED;
+
+        if ((engine != cachedEngine)
+                || (modificationCount != cachedModificationCount)
+                || (objectBinary != cachedObjectBinary)
+                || (objectXml != cachedObjectXml)) {
+            clearCache();
+            cachedEngine = engine;
+            cachedModificationCount = modificationCount;
+            cachedObjectBinary = objectBinary;
+            cachedObjectXml = objectXml;
+        }
+    }
+
+    /**
+     * Clears the cached converter helpers, variants and object classes. This is
+     * done automatically when the registered converters change.
+     */
+    public static void clearCache() {
+        objectClasses.clear();
+        objectHelpers.clear();
+        representationHelpers.clear();
+        variants.clear();
+    }
+
+    /**
+     * Returns a copy of a list of variants, so that the cached variants aren't
+     * shared with the callers.
+     * 
+     * @param source
+     *            The variants to copy.
+     * @return The copied variants.
+     */
+    private static List<VariantInfo> copy(List<?> source) {
+        List<VariantInfo> result = new ArrayList<VariantInfo>(source.size());
+
+        for (Object item : source) {
+            VariantInfo variant = (VariantInfo) item;
+            VariantInfo copy = new VariantInfo(variant.getMediaType(),
+                    variant.getAnnotationInfo());
+            copy.setCharacterSet(variant.getCharacterSet());
+            copy.getEncodings().addAll(variant.getEncodings());
+            copy.getLanguages().addAll(variant.getLanguages());
+            copy.setInputScore(variant.getInputScore());
+            result.add(copy);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the best converter helper matching the given parameters. The
+     * helper found is cached for the source class and the target media type,
+     * so the registered converters are expected to score based on those
+     * elements only.
      * 
      * @param source
      *            The object to convert to a representation.
@@ -64,34 +223,49 @@ public class ConverterUtils {
      */
     public static ConverterHelper getBestHelper(Object source, Variant target,
             Resource resource) {
-        ConverterHelper result = null;
-        float bestScore = -1.0F;
-        float currentScore;
+        checkCache();
+        HelperKey key = new HelperKey((source == null) ? null
+                : source.getClass(), (target == null) ? null
+                : target.getMediaType(), (target == null) ? null
+                : Variant.class);
+        ConverterHelper result = representationHelpers.get(key);
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
-            if (ch != null) {
-                try {
-                    currentScore = ch.score(source, target, resource);
+        if (result == null) {
+            float bestScore = -1.0F;
+            float currentScore;
 
-                    if (currentScore > bestScore) {
-                        bestScore = currentScore;
-                        result = ch;
+            for (ConverterHelper ch : Engine.getInstance()
+                    .getRegisteredConverters()) {
+                if (ch != null) {
+                    try {
+                        currentScore = ch.score(source, target, resource);
+
+                        if (currentScore > bestScore) {
+                            bestScore = currentScore;
+                            result = ch;
+                        }
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().log(
+                                Level.SEVERE,
+                                "Unable get the score of the " + ch
+                                        + " converter helper.", e);
                     }
-                } catch (Exception e) {
-                    Context.getCurrentLogger().log(
-                            Level.SEVERE,
-                            "Unable get the score of the " + ch
-                                    + " converter helper.", e);
                 }
             }
+
+            if (result != null) {
+                representationHelpers.put(key, result);
+            }
         }
 
         return result;
     }
 
     /**
-     * Returns the best converter helper matching the given parameters.
+     * Returns the best converter helper matching the given parameters. The
+     * helper found is cached for the representation class, its media type and
+     * the target class, so the registered converters are expected to score
+     * based on those elements only.
      * 
      * @param <T>
      *            The target class.
@@ -105,20 +279,87 @@ public class ConverterUtils {
      */
     public static <T> ConverterHelper getBestHelper(Representation source,
             Class<T> target, Resource resource) {
-        ConverterHelper result = null;
-        float bestScore = -1.0F;
-        float currentScore;
+        checkCache();
+        HelperKey key = new HelperKey(source.getClass(),
+                source.getMediaType(), target);
+        ConverterHelper result = objectHelpers.get(key);
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
-            if (ch != null) {
-                currentScore = ch.score(source, target, resource);
+        if (result == null) {
+            float bestScore = -1.0F;
+            float currentScore;
+
+            for (ConverterHelper ch : Engine.getInstance()
+                    .getRegisteredConverters()) {
+                if (ch != null) {
+                    currentScore = ch.score(source, target, resource);
+
+                    if (currentScore > bestScore) {
+                        bestScore = currentScore;
+                        result = ch;
+                    }
+                }
+            }
+
+            if (result != null) {
+                objectHelpers.put(key, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a key describing the metadata of a variant.
+     * 
+     * @param variant
+     *            The variant or null.
+     * @return The variant key.
+     */
+    private static Object getKey(Variant variant) {
+        return (variant == null) ? null : Arrays.asList(
+                variant.getMediaType(), variant.getCharacterSet(),
+                new ArrayList<Object>(variant.getLanguages()),
+                new ArrayList<Object>(variant.getEncodings()));
+    }
+
+    /**
+     * Returns the list of object classes that can be converted from a given
+     * variant.
+     * 
+     * @param source
+     *            The source variant.
+     * @return The list of object class that can be converted.
+     */
+    public static List<Class<?>> getObjectClasses(Variant source) {
+        checkCache();
+        HelperKey key = new HelperKey(null, getKey(source), null);
+        List<?> cached = objectClasses.get(key);
+        List<Class<?>> result = null;
+
+        if (cached == null) {
+            List<Class<?>> helperObjectClasses = null;
 
-                if (currentScore > bestScore) {
-                    bestScore = currentScore;
-                    result = ch;
+            for (ConverterHelper ch : Engine.getInstance()
+                    .getRegisteredConverters()) {
+                helperObjectClasses = ch.getObjectClasses(source);
+
+                if (helperObjectClasses != null) {
+                    if (result == null) {
+                        result = new ArrayList<Class<?>>();
+                    }
+
+                    result.addAll(helperObjectClasses);
                 }
             }
+
+            objectClasses.put(key, (result == null) ? NO_RESULT
+                    : new ArrayList<Class<?>>(result));
+        } else if (cached != NO_RESULT) {
+            result = new ArrayList<Class<?>>();
+
+            for (Object objectClass : cached) {
+                result.add((Class<?>) objectClass);
+            }
         }
 
         return result;
@@ -136,6 +377,14 @@ public class ConverterUtils {
      */
     public static List<VariantInfo> getVariants(Class<?> sourceClass,
             Variant targetVariant) {
+        checkCache();
+        HelperKey key = new HelperKey(sourceClass, getKey(targetVariant), null);
+        List<?> cached = variants.get(key);
+
+        if (cached != null) {
+            return (cached == NO_RESULT) ? null : copy(cached);
+        }
+
         List<VariantInfo> result = null;
 
         for (ConverterHelper ch : Engine.getInstance()
@@ -152,6 +401,12 @@ public class ConverterUtils {
             }
         }
 
+        if (result == null) {
+            variants.put(key, NO_RESULT);
+        } else {
+            variants.put(key, copy(result));
+        }
+
         return result;
     }
 
@@ -76,14 +76,14 @@ public class ContentTypeReader extends HeaderReader<ContentType> {
 
             if (charSet != null) {
                 parameters.removeAll("charset");
-                characterSet = new CharacterSet(charSet);
+                characterSet = CharacterSet.valueOf(charSet);
             }
 
             return new ContentType(new MediaType(mediaType.toString(),
                     parameters), characterSet);
         }
 
-        return new ContentType(new MediaType(mediaType.toString()), null);
+        return new ContentType(MediaType.valueOf(mediaType.toString()), null);
     }
 
     @Override
@@ -50,6 +50,10 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.restlet.Context;
@@ -57,7 +61,9 @@ import org.restlet.data.CharacterSet;
 import org.restlet.data.Range;
 import org.restlet.engine.Edition;
 import org.restlet.engine.Engine;
+import org.restlet.engine.log.LoggingThreadFactory;
 import org.restlet.representation.Representation;
+import org.restlet.representation.StreamingProducer;
 
 /**
  * IO manipulation utilities.
@@ -75,6 +81,13 @@ public class IoUtils {
     public static final int BUFFER_SIZE = getProperty(
             "org.restlet.engine.io.bufferSize", 8192);
 
+    // [ifndef gwt] member
+    /**
+     * The shared executor running the pipe writing tasks when no executor
+     * service is available in the current context.
+     */
+    private static volatile ExecutorService pipeExecutor;
+
     // [ifndef gwt] member
     /** Support for byte to hexa conversions. */
     private static final char[] HEXDIGITS = "0123456789ABCDEF".toCharArray();
@@ -272,6 +285,45 @@ public class IoUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Executes a pipe writing task, using the executor service of the current
+     * context if available or a shared pool of daemon threads otherwise. In
+     * the latter case, the thread local variables of the calling thread are
+     * copied to the thread executing the task.
+     * 
+     * @param task
+     *            The task to execute.
+     */
+    private static void execute(final Runnable task) {
+        Context context = Context.getCurrent();
+
+        if ((context != null) && (context.getExecutorService() != null)) {
+            context.getExecutorService().execute(task);
+        } else {
+            ExecutorService executor = pipeExecutor;
+
+            if (executor == null) {
+                synchronized (IoUtils.class) {
+                    executor = pipeExecutor;
+
+                    if (executor == null) {
+                        // Writing tasks block until their pipe is read, so
+                        // the number of threads can't be bounded
+                        executor = new ThreadPoolExecutor(0,
+                                Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                                new SynchronousQueue<Runnable>(),
+                                new LoggingThreadFactory(
+                                        Context.getCurrentLogger(), true));
+                        pipeExecutor = executor;
+                    }
+                }
+            }
+
+            executor.execute(Engine.createRunnableWithLocalVariables(task));
+        }
+    }
+
     // [ifndef gwt] method
     /**
      * Exhaust the content of the representation by reading it and silently
@@ -298,6 +350,22 @@ public class IoUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Exhausts the content of a streaming producer by writing it on the calling
+     * thread to a sink silently discarding anything written. Contrary to
+     * {@link #exhaust(InputStream)}, no pipe is needed.
+     * 
+     * @param producer
+     *            The streaming producer to exhaust.
+     * @return The number of bytes consumed.
+     */
+    public static long exhaust(StreamingProducer producer) throws IOException {
+        NullOutputStream sink = new NullOutputStream();
+        producer.write(sink);
+        return sink.getCount();
+    }
+
     /**
      * Returns the size effectively available. This returns the same value as
      * {@link Representation#getSize()} if no range is defined, otherwise it
@@ -416,14 +484,7 @@ public class IoUtils {
                 }
             };
 
-            org.restlet.Context context = org.restlet.Context.getCurrent();
-
-            if (context != null && context.getExecutorService() != null) {
-                context.getExecutorService().execute(task);
-            } else {
-                Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                        .start();
-            }
+            execute(task);
 
             result = pipe.source();
             // [enddef]
@@ -489,7 +550,7 @@ public class IoUtils {
 
             @SuppressWarnings("resource")
             java.io.PipedReader pipedReader = new java.io.PipedReader(
-                    pipedWriter);
+                    pipedWriter, BUFFER_SIZE);
 
             // Gets a thread that will handle the task of continuously
             // writing the representation into the input side of the pipe
@@ -514,14 +575,7 @@ public class IoUtils {
                 }
             };
 
-            org.restlet.Context context = org.restlet.Context.getCurrent();
-
-            if (context != null && context.getExecutorService() != null) {
-                context.getExecutorService().execute(task);
-            } else {
-                Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                        .start();
-            }
+            execute(task);
 
             result = pipedReader;
             // [enddef]
@@ -596,8 +650,9 @@ public class IoUtils {
     // [ifndef gwt] method
     /**
      * Returns an input stream based on the given representation's content and
-     * its write(OutputStream) method. Internally, it uses a writer thread and a
-     * pipe stream.
+     * its write(OutputStream) method. Internally, it uses a writer task and a
+     * pipe stream. Closing the returned stream before its end cancels the
+     * writing, while writing errors are reported to the reader.
      * 
      * @param representation
      *            the representation to get the {@link java.io.OutputStream}
@@ -624,10 +679,17 @@ public class IoUtils {
                         representation.write(os);
                         os.flush();
                     } catch (IOException ioe) {
-                        Context.getCurrentLogger()
-                                .log(Level.WARNING,
-                                        "Error while writing to the piped input stream.",
-                                        ioe);
+                        if (pipe.isClosed()) {
+                            Context.getCurrentLogger().log(Level.FINE,
+                                    "The piped input stream has been closed.",
+                                    ioe);
+                        } else {
+                            Context.getCurrentLogger()
+                                    .log(Level.WARNING,
+                                            "Error while writing to the piped input stream.",
+                                            ioe);
+                            pipe.abort(ioe);
+                        }
                     } finally {
                         try {
                             os.close();
@@ -639,14 +701,7 @@ public class IoUtils {
                 }
             };
 
-            org.restlet.Context context = org.restlet.Context.getCurrent();
-
-            if (context != null && context.getExecutorService() != null) {
-                context.getExecutorService().execute(task);
-            } else {
-                Engine.createThreadWithLocalVariables(task, "Restlet-IoUtils")
-                        .start();
-            }
+            execute(task);
 
             result = pipe.getInputStream();
             // [enddef]
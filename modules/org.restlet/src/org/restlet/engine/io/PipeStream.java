@@ -43,21 +43,112 @@ import java.util.concurrent.TimeUnit;
 // [excludes gwt]
 /**
  * Pipe stream that pipes output streams into input streams. Implementation
- * based on a shared synchronized queue.
+ * based on a bounded queue of byte chunks. The bytes written are accumulated
+ * in a chunk that is queued once full or when the output stream is flushed or
+ * closed. A partially filled chunk is also handed over as soon as the reader
+ * runs out of bytes, so that slow writers don't delay the reader. When the
+ * queue is full, the writer is blocked until the reader consumes a chunk.
+ * Consumed chunks are recycled for the next writes.<br>
+ * <br>
+ * Closing the input stream cancels the pipe, causing further writes to fail,
+ * while the {@link #abort(IOException)} method lets the writer report an
+ * error to the reader.
  * 
  * @author Jerome Louvel
  */
 public class PipeStream {
 
+    /**
+     * Chunk of bytes moved through the pipe.
+     */
+    private static final class Chunk {
+
+        /** The bytes. */
+        private final byte[] bytes;
+
+        /** The number of bytes used. */
+        private int length;
+
+        /**
+         * Constructor.
+         * 
+         * @param size
+         *            The size of the chunk.
+         */
+        private Chunk(int size) {
+            this.bytes = new byte[size];
+            this.length = 0;
+        }
+    }
+
+    /** The chunk marking the end of the stream. */
+    private static final Chunk END = new Chunk(0);
+
     /** The queue timeout. */
     private static final long QUEUE_TIMEOUT = 5;
 
-    /** The supporting synchronized queue. */
-    private final BlockingQueue<Integer> queue;
+    /** The size of the chunks. */
+    private final int chunkSize;
+
+    /** Indicates if the reader has closed the pipe. */
+    private volatile boolean closed;
+
+    /** The error reported by the writer. */
+    private volatile IOException error;
+
+    /** The chunks that can be reused. */
+    private final BlockingQueue<Chunk> freeChunks;
+
+    /** The lock guarding the pending chunk and the waiting reader flag. */
+    private final Object lock;
+
+    /** The chunk being filled by the writer. */
+    private Chunk pending;
+
+    /** The supporting synchronized queue of chunks. */
+    private final BlockingQueue<Chunk> queue;
+
+    /** Indicates if the reader is waiting for the next chunk. */
+    private boolean waiting;
 
     /** Constructor. */
     public PipeStream() {
-        this.queue = new ArrayBlockingQueue<Integer>(1024);
+        this(IoUtils.BUFFER_SIZE, 8);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param chunkSize
+     *            The size of the chunks.
+     * @param maxChunks
+     *            The maximum number of chunks queued before blocking the
+     *            writer.
+     */
+    public PipeStream(int chunkSize, int maxChunks) {
+        this.chunkSize = chunkSize;
+        this.closed = false;
+        this.error = null;
+        this.freeChunks = new ArrayBlockingQueue<Chunk>(maxChunks + 2);
+        this.lock = new Object();
+        this.pending = null;
+        this.queue = new ArrayBlockingQueue<Chunk>(maxChunks + 1);
+        this.waiting = false;
+    }
+
+    /**
+     * Aborts the pipe from the writer side. The reader will receive the given
+     * exception instead of the remaining bytes.
+     * 
+     * @param error
+     *            The error to report to the reader.
+     */
+    public void abort(IOException error) {
+        this.error = (error != null) ? error : new IOException(
+                "The pipe has been aborted");
+
+        // Unblock the reader if waiting
+        this.queue.offer(END);
     }
 
     /**
@@ -67,29 +158,140 @@ public class PipeStream {
      */
     public InputStream getInputStream() {
         return new InputStream() {
+            /** The current chunk. */
+            private Chunk chunk = null;
+
+            /** The position in the current chunk. */
+            private int position = 0;
+
+            /** Indicates if the end of the stream has been reached. */
             private boolean endReached = false;
 
             @Override
-            public int read() throws IOException {
-                try {
-                    if (this.endReached) {
-                        return -1;
-                    }
+            public int available() throws IOException {
+                return (this.chunk == null) ? 0 : this.chunk.length
+                        - this.position;
+            }
 
-                    final Integer value = queue.poll(QUEUE_TIMEOUT,
-                            TimeUnit.SECONDS);
-                    this.endReached = (value == -1);
+            @Override
+            public void close() throws IOException {
+                closed = true;
+                this.chunk = null;
+
+                // Release the writer if waiting
+                queue.clear();
+            }
+
+            /**
+             * Makes the next chunk current if the current one has been fully
+             * read.
+             * 
+             * @return False if the end of the stream has been reached.
+             * @throws IOException
+             */
+            private boolean fill() throws IOException {
+                if (this.endReached) {
+                    return false;
+                }
+
+                if ((this.chunk != null)
+                        && (this.position < this.chunk.length)) {
+                    return true;
+                }
 
-                    if (value == null) {
+                if (closed) {
+                    throw new IOException("The pipe has been closed");
+                }
+
+                if (this.chunk != null) {
+                    freeChunks.offer(this.chunk);
+                    this.chunk = null;
+                }
+
+                try {
+                    Chunk next = (error == null) ? take() : END;
+
+                    if (next == null) {
                         throw new IOException(
                                 "Timeout while reading from the queue-based input stream");
-                    } else {
-                        return value.intValue();
                     }
+
+                    if (next == END) {
+                        this.endReached = true;
+
+                        if (error != null) {
+                            throw error;
+                        }
+
+                        return false;
+                    }
+
+                    this.chunk = next;
+                    this.position = 0;
+                    return true;
                 } catch (InterruptedException ie) {
                     throw new IOException(
-                            "Interruption occurred while writing in the queue");
+                            "Interruption occurred while reading from the queue");
+                }
+            }
+
+            /**
+             * Takes the next chunk, or the partially filled chunk of the
+             * writer if none is queued. Otherwise, waits for the writer to
+             * hand over its next chunk.
+             * 
+             * @return The next chunk or null on timeout.
+             * @throws InterruptedException
+             */
+            private Chunk take() throws InterruptedException {
+                Chunk result = null;
+
+                synchronized (lock) {
+                    result = queue.poll();
+
+                    if ((result == null) && (pending != null)
+                            && (pending.length > 0)) {
+                        result = pending;
+                        pending = null;
+                    }
+
+                    waiting = (result == null);
+                }
+
+                if (result == null) {
+                    try {
+                        result = queue.poll(QUEUE_TIMEOUT, TimeUnit.SECONDS);
+                    } finally {
+                        synchronized (lock) {
+                            waiting = false;
+                        }
+                    }
+                }
+
+                return result;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return fill() ? (this.chunk.bytes[this.position++] & 0xff)
+                        : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
                 }
+
+                if (!fill()) {
+                    return -1;
+                }
+
+                int result = Math.min(len, this.chunk.length - this.position);
+                System.arraycopy(this.chunk.bytes, this.position, b, off,
+                        result);
+                this.position += result;
+                return result;
             }
         };
     }
@@ -101,23 +303,76 @@ public class PipeStream {
      */
     public OutputStream getOutputStream() {
         return new OutputStream() {
+            /** Indicates if the stream has been closed. */
+            private boolean done = false;
+
             @Override
-            public void write(int b) throws IOException {
-                try {
-                    if (!queue.offer(b & 0xff, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
+            public void close() throws IOException {
+                if (!this.done) {
+                    this.done = true;
+
+                    if (!closed) {
+                        flush();
+                        offer(END);
                     }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
                 }
             }
 
             @Override
-            public void close() throws IOException {
+            public void flush() throws IOException {
+                Chunk current = null;
+
+                synchronized (lock) {
+                    if ((pending != null) && (pending.length > 0)) {
+                        current = pending;
+                        pending = null;
+                    }
+                }
+
+                if (current != null) {
+                    offer(current);
+                }
+            }
+
+            /**
+             * Returns the chunk being filled, reusing a consumed chunk if
+             * possible. Must be called while holding the lock.
+             * 
+             * @return The chunk being filled.
+             * @throws IOException
+             */
+            private Chunk getChunk() throws IOException {
+                if (this.done) {
+                    throw new IOException("The stream has been closed");
+                }
+
+                if (pending == null) {
+                    pending = freeChunks.poll();
+
+                    if (pending == null) {
+                        pending = new Chunk(chunkSize);
+                    } else {
+                        pending.length = 0;
+                    }
+                }
+
+                return pending;
+            }
+
+            /**
+             * Queues a chunk, blocking while the queue is full.
+             * 
+             * @param next
+             *            The chunk to queue.
+             * @throws IOException
+             */
+            private void offer(Chunk next) throws IOException {
+                if (closed) {
+                    throw new IOException("The pipe has been closed");
+                }
+
                 try {
-                    if (!queue.offer(-1, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
+                    if (!queue.offer(next, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
                         throw new IOException(
                                 "Timeout while writing to the queue-based output stream");
                     }
@@ -126,7 +381,64 @@ public class PipeStream {
                             "Interruption occurred while writing in the queue");
                 }
             }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    Chunk ready = null;
+
+                    synchronized (lock) {
+                        Chunk current = getChunk();
+                        int count = Math.min(len, chunkSize - current.length);
+                        System.arraycopy(b, off, current.bytes,
+                                current.length, count);
+                        current.length += count;
+                        off += count;
+                        len -= count;
+
+                        // Hand over the chunk when full or awaited
+                        if ((current.length == chunkSize)
+                                || (waiting && (len == 0))) {
+                            ready = current;
+                            pending = null;
+                        }
+                    }
+
+                    if (ready != null) {
+                        offer(ready);
+                    }
+                }
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                Chunk ready = null;
+
+                synchronized (lock) {
+                    Chunk current = getChunk();
+                    current.bytes[current.length++] = (byte) b;
+
+                    // Hand over the chunk when full or awaited
+                    if ((current.length == chunkSize) || waiting) {
+                        ready = current;
+                        pending = null;
+                    }
+                }
+
+                if (ready != null) {
+                    offer(ready);
+                }
+            }
         };
     }
 
+    /**
+     * Indicates if the reader has closed the pipe.
+     * 
+     * @return True if the reader has closed the pipe.
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
 }
@@ -42,6 +42,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -52,6 +53,7 @@ import org.restlet.Client;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.data.CharacterSet;
+import org.restlet.data.Digest;
 import org.restlet.data.Encoding;
 import org.restlet.data.Language;
 import org.restlet.data.LocalReference;
@@ -61,7 +63,11 @@ import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Range;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.util.BoundedCache;
+import org.restlet.representation.DigesterRepresentation;
+import org.restlet.representation.FileRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 
@@ -90,6 +96,16 @@ import org.restlet.representation.Variant;
  * <td>Indicates if a failed upload can be resumed. This will prevent the
  * deletion of the temporary file created.</td>
  * </tr>
+ * <tr>
+ * <td>tagAlgorithm</td>
+ * <td>String</td>
+ * <td></td>
+ * <td>The digest algorithm, such as "MD5" or "SHA-256", used to compute a
+ * strong entity tag for the files served. The tag is computed while a file is
+ * written to the client, then cached and set on the next representations of
+ * the same file as long as it isn't modified. An empty value disables this
+ * feature.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
@@ -97,6 +113,40 @@ import org.restlet.representation.Variant;
  */
 public class FileClientHelper extends EntityClientHelper {
 
+    /**
+     * Strong entity tag computed for a given version of a file.
+     */
+    private static final class FileTag {
+
+        /** The file length when the tag was computed. */
+        private final long length;
+
+        /** The file modification date when the tag was computed. */
+        private final long modified;
+
+        /** The entity tag. */
+        private final Tag tag;
+
+        /**
+         * Constructor.
+         * 
+         * @param length
+         *            The file length.
+         * @param modified
+         *            The file modification date.
+         * @param tag
+         *            The entity tag.
+         */
+        private FileTag(long length, long modified, Tag tag) {
+            this.length = length;
+            this.modified = modified;
+            this.tag = tag;
+        }
+    }
+
+    /** The strong entity tags computed for the files, indexed by path. */
+    private final BoundedCache<String, FileTag> tags;
+
     /**
      * Constructor.
      * 
@@ -106,6 +156,7 @@ public class FileClientHelper extends EntityClientHelper {
     public FileClientHelper(Client client) {
         super(client);
         getProtocols().add(Protocol.FILE);
+        this.tags = new BoundedCache<String, FileTag>();
     }
 
     /**
@@ -182,6 +233,16 @@ public class FileClientHelper extends EntityClientHelper {
                 getMetadataService());
     }
 
+    /**
+     * Returns the digest algorithm used to compute a strong entity tag for the
+     * files served. Defaults to "", which disables this feature.
+     * 
+     * @return The digest algorithm used to compute a strong entity tag.
+     */
+    public String getTagAlgorithm() {
+        return getHelpedParameters().getFirstValue("tagAlgorithm", "");
+    }
+
     /**
      * Returns the name of the extension to use to store the temporary content
      * while uploading content via the PUT method. Defaults to "tmp".
@@ -212,6 +273,7 @@ public class FileClientHelper extends EntityClientHelper {
         if (Method.GET.equals(request.getMethod())
                 || Method.HEAD.equals(request.getMethod())) {
             handleEntityGet(request, response, getEntity(decodedPath));
+            updateTag(request, response);
         } else if (Method.PUT.equals(request.getMethod())) {
             handleFilePut(request, response, decodedPath, new File(decodedPath));
         } else if (Method.DELETE.equals(request.getMethod())) {
@@ -478,7 +540,7 @@ public class FileClientHelper extends EntityClientHelper {
                         tmp = File.createTempFile("restlet-upload", "bin");
                         if (request.isEntityAvailable()) {
                             fos = new FileOutputStream(tmp);
-                            IoUtils.copy(request.getEntity().getStream(), fos);
+                            request.getEntity().write(fos);
                         }
                     } catch (IOException ioe) {
                         getLogger().log(Level.WARNING,
@@ -627,8 +689,7 @@ public class FileClientHelper extends EntityClientHelper {
                                 response.setStatus(Status.SUCCESS_NO_CONTENT);
                             } else {
                                 fos = new FileOutputStream(file);
-                                IoUtils.copy(request.getEntity().getStream(),
-                                        fos);
+                                request.getEntity().write(fos);
                                 response.setStatus(Status.SUCCESS_CREATED);
                             }
                         } else {
@@ -719,4 +780,51 @@ public class FileClientHelper extends EntityClientHelper {
             }
         }
     }
+
+    /**
+     * Sets the cached strong entity tag of the file returned, if it hasn't been
+     * modified since the tag was computed. Otherwise, if a tag algorithm is
+     * set, the file is wrapped so that its tag is computed while it is
+     * entirely written and cached for the next requests.
+     * 
+     * @param request
+     *            The request handled.
+     * @param response
+     *            The response to update.
+     */
+    private void updateTag(Request request, Response response) {
+        String algorithm = getTagAlgorithm();
+
+        if ((algorithm != null) && !"".equals(algorithm)
+                && (response.getEntity() instanceof FileRepresentation)
+                && (response.getEntity().getTag() == null)) {
+            FileRepresentation entity = (FileRepresentation) response
+                    .getEntity();
+            final String path = entity.getFile().getAbsolutePath();
+            final long length = entity.getFile().length();
+            final long modified = entity.getFile().lastModified();
+            FileTag fileTag = this.tags.get(path);
+
+            if ((fileTag != null) && (fileTag.length == length)
+                    && (fileTag.modified == modified)) {
+                entity.setTag(fileTag.tag);
+            } else if (Method.GET.equals(request.getMethod())
+                    && request.getRanges().isEmpty()) {
+                // Partial contents would give a wrong digest
+                try {
+                    response.setEntity(new DigesterRepresentation(entity,
+                            algorithm) {
+                        @Override
+                        protected void onDigestComputed(Digest digest) {
+                            tags.put(path, new FileTag(length, modified,
+                                    getComputedTag()));
+                        }
+                    });
+                } catch (NoSuchAlgorithmException e) {
+                    getLogger().log(Level.WARNING,
+                            "Unable to compute the entity tag of the file", e);
+                }
+            }
+        }
+    }
 }
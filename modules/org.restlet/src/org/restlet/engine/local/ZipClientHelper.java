@@ -54,6 +54,7 @@ import org.restlet.data.Protocol;
 import org.restlet.data.ReferenceList;
 import org.restlet.data.Status;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.io.UnclosableOutputStream;
 import org.restlet.representation.Representation;
 import org.restlet.service.MetadataService;
 
@@ -365,7 +366,7 @@ public class ZipClientHelper extends LocalClientHelper {
                 entry.setTime(System.currentTimeMillis());
             }
             out.putNextEntry(entry);
-            IoUtils.copy(new BufferedInputStream(entity.getStream()), out);
+            entity.write(new UnclosableOutputStream(out));
             out.closeEntry();
             return true;
         }
@@ -37,6 +37,8 @@ import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.restlet.engine.util.SystemUtils;
+
 /**
  * Thread factory that logs uncaught exceptions thrown by the created threads.
  * 
@@ -62,6 +64,9 @@ public class LoggingThreadFactory implements ThreadFactory {
     /** Indicates if threads should be created as daemons. */
     private final boolean daemon;
 
+    /** Indicates if virtual threads should be created when supported. */
+    private final boolean virtual;
+
     /**
      * Constructor.
      * 
@@ -81,8 +86,34 @@ public class LoggingThreadFactory implements ThreadFactory {
      *            Indicates if threads should be created as daemons.
      */
     public LoggingThreadFactory(Logger logger, boolean daemon) {
+        this(logger, daemon, false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param logger
+     *            The associated logger.
+     * @param daemon
+     *            Indicates if threads should be created as daemons.
+     * @param virtual
+     *            Indicates if virtual threads should be created when supported
+     *            by the Java Runtime Environment. Virtual threads are always
+     *            daemons.
+     */
+    public LoggingThreadFactory(Logger logger, boolean daemon, boolean virtual) {
         this.logger = logger;
         this.daemon = daemon;
+        this.virtual = virtual && SystemUtils.isVirtualThreadsSupported();
+    }
+
+    /**
+     * Indicates if virtual threads are created.
+     * 
+     * @return True if virtual threads are created.
+     */
+    public boolean isVirtual() {
+        return virtual;
     }
 
     /**
@@ -92,10 +123,17 @@ public class LoggingThreadFactory implements ThreadFactory {
      *            The runnable task.
      */
     public Thread newThread(Runnable r) {
-        Thread result = new Thread(r);
+        Thread result;
+
+        if (isVirtual()) {
+            result = SystemUtils.getVirtualThreadFactory().newThread(r);
+        } else {
+            result = new Thread(r);
+            result.setDaemon(this.daemon);
+        }
+
         result.setName("Restlet-" + result.hashCode());
         result.setUncaughtExceptionHandler(new LoggingExceptionHandler());
-        result.setDaemon(this.daemon);
         return result;
     }
 }
@@ -34,8 +34,12 @@
 package org.restlet.engine.resource;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -63,6 +67,34 @@ import org.restlet.service.MetadataService;
  */
 public class AnnotationInfo {
 
+    /**
+     * Returns a method handle invoking the given Java method with a target
+     * object and an array of parameters, or null if the method isn't publicly
+     * accessible.
+     * 
+     * @param javaMethod
+     *            The annotated Java method.
+     * @return The method handle or null.
+     */
+    private static MethodHandle getInvoker(
+            java.lang.reflect.Method javaMethod) {
+        MethodHandle result = null;
+
+        try {
+            result = MethodHandles
+                    .publicLookup()
+                    .unreflect(javaMethod)
+                    .asSpreader(Object[].class,
+                            javaMethod.getParameterTypes().length)
+                    .asType(MethodType.methodType(Object.class, Object.class,
+                            Object[].class));
+        } catch (IllegalAccessException e) {
+            result = null;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the actual type for a given generic type name.
      * 
@@ -165,6 +197,18 @@ public class AnnotationInfo {
     /** The upper implementation of the annotated Java method. */
     private final java.lang.reflect.Method javaMethodImpl;
 
+    /** The resolved input types of the Java method. */
+    private final Class<?>[] javaInputTypes;
+
+    /** The resolved output type of the Java method. */
+    private final Class<?> javaOutputType;
+
+    /**
+     * The method handle bound once to invoke the annotated method, or null if
+     * it isn't publicly accessible.
+     */
+    private final MethodHandle invoker;
+
     /** The output part of the annotation value. */
     private final String output;
 
@@ -208,6 +252,19 @@ public class AnnotationInfo {
             this.javaMethodImpl = javaMethod;
         }
 
+        // Resolve the Java types once, out of the request processing
+        int count = javaMethod.getParameterTypes().length;
+        this.javaInputTypes = new Class[count];
+
+        for (int i = 0; i < count; i++) {
+            this.javaInputTypes[i] = getJavaInputType(i);
+        }
+
+        this.javaOutputType = getJavaActualType(
+                javaMethodImpl.getReturnType(),
+                javaMethodImpl.getGenericReturnType());
+        this.invoker = getInvoker(javaMethod);
+
         // Parse the main components of the annotation value
         if ((value != null) && !value.equals("")) {
             int queryIndex = value.indexOf('?');
@@ -352,14 +409,7 @@ public class AnnotationInfo {
      * @return The input types of the Java method.
      */
     public Class<?>[] getJavaInputTypes() {
-        int count = getJavaMethod().getParameterTypes().length;
-        Class<?>[] classes = new Class[count];
-
-        for (int i = 0; i < count; i++) {
-            classes[i] = getJavaInputType(i);
-        }
-
-        return classes;
+        return javaInputTypes.clone();
     }
 
     /**
@@ -377,8 +427,7 @@ public class AnnotationInfo {
      * @return The output type of the Java method.
      */
     public Class<?> getJavaOutputType() {
-        return getJavaActualType(javaMethodImpl.getReturnType(),
-                javaMethodImpl.getGenericReturnType());
+        return javaOutputType;
     }
 
     /**
@@ -566,6 +615,33 @@ public class AnnotationInfo {
         return result;
     }
 
+    /**
+     * Invokes the annotated Java method on the given resource. The method
+     * handle bound at construction time is used when the method is publicly
+     * accessible, otherwise the call is delegated to
+     * {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+     * 
+     * @param resource
+     *            The resource instance.
+     * @param parameters
+     *            The method parameters.
+     * @return The object returned by the method.
+     * @throws IllegalAccessException
+     * @throws InvocationTargetException
+     */
+    public Object invoke(Object resource, Object... parameters)
+            throws IllegalAccessException, InvocationTargetException {
+        if (invoker == null) {
+            return getJavaMethod().invoke(resource, parameters);
+        }
+
+        try {
+            return (Object) invoker.invokeExact(resource, parameters);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
     /**
      * Indicates if the annotated method described is compatible with the given
      * parameters.
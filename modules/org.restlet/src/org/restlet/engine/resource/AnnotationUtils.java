@@ -102,21 +102,7 @@ public class AnnotationUtils {
             Method restletMethod = getRestletMethod(annotation,
                     methodAnnotation);
             if (restletMethod != null) {
-
-                String toString = annotation.toString();
-                int startIndex = annotation.annotationType().getCanonicalName()
-                        .length() + 8;
-                int endIndex = toString.length() - 1;
-                String value = null;
-
-                if (endIndex > startIndex) {
-                    value = toString.substring(startIndex, endIndex);
-
-                    if ("".equals(value)) {
-                        value = null;
-                    }
-                }
-
+                String value = getValue(annotation);
                 result.add(new AnnotationInfo(initialResourceClass,
                         restletMethod, javaMethod, value));
 
@@ -299,4 +285,37 @@ public class AnnotationUtils {
                         .value());
     }
 
+    /**
+     * Returns the value of a method annotation, or null if it is empty. The
+     * value() attribute is read directly when available, so that the value
+     * doesn't depend on the format of the annotation's string representation.
+     * 
+     * @param annotation
+     *            The method annotation.
+     * @return The annotation value or null.
+     */
+    private String getValue(Annotation annotation) {
+        String result = null;
+
+        try {
+            Object value = annotation.annotationType().getMethod("value")
+                    .invoke(annotation);
+
+            if (value instanceof String) {
+                result = (String) value;
+            }
+        } catch (Exception e) {
+            String toString = annotation.toString();
+            int startIndex = annotation.annotationType().getCanonicalName()
+                    .length() + 8;
+            int endIndex = toString.length() - 1;
+
+            if (endIndex > startIndex) {
+                result = toString.substring(startIndex, endIndex);
+            }
+        }
+
+        return "".equals(result) ? null : result;
+    }
+
 }
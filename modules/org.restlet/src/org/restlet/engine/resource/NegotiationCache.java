@@ -0,0 +1,355 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.resource;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.restlet.Request;
+import org.restlet.data.Form;
+import org.restlet.data.Metadata;
+import org.restlet.data.Parameter;
+import org.restlet.data.Preference;
+import org.restlet.engine.Engine;
+import org.restlet.representation.ObjectRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ServerResource;
+
+// [excludes gwt]
+/**
+ * Cache of the variants negotiated for the annotated methods of a server
+ * resource class. The entries are keyed by a normalized view of the request
+ * elements that drive the negotiation: the method, the client preferences, the
+ * request entity metadata and the query parameters that are constrained by
+ * the annotations. The least recently used entries are evicted first.<br>
+ * <br>
+ * The negotiated variants depend on the registered converters, so the cache is
+ * cleared when they change, as detected by
+ * {@link Engine#getRegisteredConvertersModificationCount()}.
+ * 
+ * @author Jerome Louvel
+ */
+public class NegotiationCache {
+
+    /**
+     * Returns a copy of the given variant, so that the cached entries aren't
+     * shared with the resources.
+     * 
+     * @param variant
+     *            The variant to copy.
+     * @return The copied variant.
+     */
+    private static VariantInfo copy(VariantInfo variant) {
+        VariantInfo result = new VariantInfo(variant.getMediaType(),
+                variant.getAnnotationInfo());
+        result.setCharacterSet(variant.getCharacterSet());
+        result.getEncodings().addAll(variant.getEncodings());
+        result.getLanguages().addAll(variant.getLanguages());
+        result.setInputScore(variant.getInputScore());
+        return result;
+    }
+
+    /**
+     * Indicates if the given resource class relies on the default
+     * annotation-based variants and negotiation, which can then be cached.
+     * 
+     * @param resourceClass
+     *            The resource class.
+     * @return True if the negotiation results can be cached.
+     */
+    private static boolean isCacheable(Class<?> resourceClass) {
+        boolean result = ServerResource.class.isAssignableFrom(resourceClass);
+
+        for (Class<?> clazz = resourceClass; result
+                && (clazz != ServerResource.class); clazz = clazz
+                .getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if ("getVariants".equals(method.getName())
+                        || "getPreferredVariant".equals(method.getName())) {
+                    result = false;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /** The engine whose converters produced the cached variants. */
+    private Engine cachedEngine;
+
+    /** The modification count of the converters for the cached variants. */
+    private int cachedModificationCount;
+
+    /** The binary object representation setting for the cached variants. */
+    private boolean cachedObjectBinary;
+
+    /** The XML object representation setting for the cached variants. */
+    private boolean cachedObjectXml;
+
+    /** Indicates if the negotiation results can be cached. */
+    private final boolean enabled;
+
+    /** The maximum number of cached entries. */
+    private final int maxSize;
+
+    /** The names of the query parameters constrained by the annotations. */
+    private final Set<String> queryNames;
+
+    /** The cached variants. */
+    private final Map<String, VariantInfo> variants;
+
+    /**
+     * Constructor.
+     * 
+     * @param resourceClass
+     *            The resource class.
+     * @param maxSize
+     *            The maximum number of cached entries.
+     */
+    public NegotiationCache(Class<?> resourceClass, int maxSize) {
+        this.enabled = (maxSize > 0) && isCacheable(resourceClass);
+        this.maxSize = maxSize;
+        this.queryNames = new HashSet<String>();
+        this.variants = new LinkedHashMap<String, VariantInfo>(16, 0.75f,
+                true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, VariantInfo> eldest) {
+                return size() > NegotiationCache.this.maxSize;
+            }
+        };
+
+        List<AnnotationInfo> annotations = AnnotationUtils.getInstance()
+                .getAnnotations(resourceClass);
+
+        if (annotations != null) {
+            for (AnnotationInfo annotation : annotations) {
+                if (annotation.getQuery() != null) {
+                    for (Parameter param : new Form(annotation.getQuery())) {
+                        this.queryNames.add(param.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the given preferences to the key.
+     * 
+     * @param key
+     *            The key being built.
+     * @param prefs
+     *            The preferences to append.
+     */
+    private <T extends Metadata> void append(StringBuilder key,
+            List<Preference<T>> prefs) {
+        for (Preference<T> pref : prefs) {
+            key.append(pref.getMetadata()).append(";q=")
+                    .append(pref.getQuality()).append(',');
+        }
+
+        key.append('\n');
+    }
+
+    /**
+     * Clears the cached entries if the engine, its registered converters or
+     * the object representation settings have changed since they were cached.
+     * Must be called while holding the lock on this cache.
+     */
+    private void checkCache() {
+        Engine engine = Engine.getInstance();
+        int modificationCount = engine
+                .getRegisteredConvertersModificationCount();
+        boolean objectBinary = ObjectRepresentation.VARIANT_OBJECT_BINARY_SUPPORTED;
+        boolean objectXml = ObjectRepresentation.VARIANT_OBJECT_XML_SUPPORTED;
+
+        if ((engine != this.cachedEngine)
+                || (modificationCount != this.cachedModificationCount)
+                || (objectBinary != this.cachedObjectBinary)
+                || (objectXml != this.cachedObjectXml)) {
+            this.variants.clear();
+            this.cachedEngine = engine;
+            this.cachedModificationCount = modificationCount;
+            this.cachedObjectBinary = objectBinary;
+            this.cachedObjectXml = objectXml;
+        }
+    }
+
+    /**
+     * Removes all the cached entries.
+     */
+    public synchronized void clear() {
+        this.variants.clear();
+    }
+
+    /**
+     * Returns a copy of the cached variant for the given key, or null if none
+     * is cached.
+     * 
+     * @param key
+     *            The key returned by {@link #getKey(Request, String, boolean)}.
+     * @return A copy of the cached variant or null.
+     */
+    public VariantInfo get(String key) {
+        VariantInfo cached;
+
+        synchronized (this) {
+            checkCache();
+            cached = this.variants.get(key);
+        }
+
+        return (cached == null) ? null : copy(cached);
+    }
+
+    /**
+     * Returns the normalized key describing the negotiation inputs of the
+     * given request, or null if the negotiation can't be cached.
+     * 
+     * @param request
+     *            The request to negotiate.
+     * @param methodName
+     *            The name of the negotiated method.
+     * @param strict
+     *            True if the negotiation strictly respects client preferences.
+     * @return The normalized key or null.
+     */
+    public String getKey(Request request, String methodName, boolean strict) {
+        if (!this.enabled) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder(methodName).append('\n');
+        key.append(strict).append('\n');
+        append(key, request.getClientInfo().getAcceptedMediaTypes());
+        append(key, request.getClientInfo().getAcceptedLanguages());
+        append(key, request.getClientInfo().getAcceptedCharacterSets());
+        append(key, request.getClientInfo().getAcceptedEncodings());
+
+        // The request entity metadata drive the input affinity
+        Representation entity = request.getEntity();
+
+        if ((entity != null) && entity.isAvailable()) {
+            key.append(entity.getMediaType()).append(';')
+                    .append(entity.getCharacterSet()).append(';')
+                    .append(entity.getLanguages()).append(';')
+                    .append(entity.getEncodings());
+        }
+
+        key.append('\n');
+
+        // Only the constrained query parameters matter, along with the
+        // presence of other ones
+        if ((request.getResourceRef() != null)
+                && (request.getResourceRef().getQuery() != null)) {
+            key.append('?');
+
+            if (this.queryNames.isEmpty()) {
+                key.append('*');
+            } else {
+                boolean others = false;
+
+                for (Parameter param : request.getResourceRef()
+                        .getQueryAsForm()) {
+                    if (this.queryNames.contains(param.getName())) {
+                        key.append(param.getName());
+
+                        if (param.getValue() != null) {
+                            key.append('=').append(param.getValue());
+                        }
+
+                        key.append('&');
+                    } else {
+                        others = true;
+                    }
+                }
+
+                key.append(others ? '*' : '.');
+            }
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Returns the maximum number of cached entries.
+     * 
+     * @return The maximum number of cached entries.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Indicates if the negotiation results can be cached.
+     * 
+     * @return True if the negotiation results can be cached.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Caches the variant negotiated for the given key.
+     * 
+     * @param key
+     *            The key returned by {@link #getKey(Request, String, boolean)}.
+     * @param variant
+     *            The negotiated variant.
+     */
+    public void put(String key, VariantInfo variant) {
+        VariantInfo copy = copy(variant);
+
+        synchronized (this) {
+            checkCache();
+            this.variants.put(key, copy);
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * 
+     * @return The number of cached entries.
+     */
+    public synchronized int size() {
+        checkCache();
+        return this.variants.size();
+    }
+
+}
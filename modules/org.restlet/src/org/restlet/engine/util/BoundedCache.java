@@ -0,0 +1,199 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent cache holding a bounded number of entries. When the cache is full,
+ * it is cleared before adding a new entry, which is cheaper than tracking the
+ * usage of entries and good enough for caches of computed values that are
+ * rarely evicted. Lookups don't block.
+ * 
+ * @author Jerome Louvel
+ * @param <K>
+ *            The key type.
+ * @param <V>
+ *            The value type.
+ */
+public class BoundedCache<K, V> {
+
+    /** The default maximum number of cached entries. */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    /** The cached entries. */
+    private final ConcurrentMap<K, V> entries;
+
+    /** The maximum number of cached entries. */
+    private volatile int maxSize;
+
+    /**
+     * Constructor using the default maximum number of cached entries.
+     */
+    public BoundedCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of cached entries. A value of zero or less
+     *            disables the cache.
+     */
+    public BoundedCache(int maxSize) {
+        this.entries = new ConcurrentHashMap<K, V>();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the cached value for the given key.
+     * 
+     * @param key
+     *            The key.
+     * @return The cached value or null.
+     */
+    public V get(K key) {
+        return (key == null) ? null : this.entries.get(key);
+    }
+
+    /**
+     * Returns the maximum number of cached entries.
+     * 
+     * @return The maximum number of cached entries.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Indicates if the cache is enabled, that is if its maximum size is
+     * strictly positive.
+     * 
+     * @return True if the cache is enabled.
+     */
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    /**
+     * Caches a value, after clearing the cache if it is full. Does nothing if
+     * the cache is disabled or if the key or the value is null.
+     * 
+     * @param key
+     *            The key.
+     * @param value
+     *            The value to cache.
+     */
+    public void put(K key, V value) {
+        if ((key != null) && (value != null) && isEnabled()) {
+            if (this.entries.size() >= this.maxSize) {
+                this.entries.clear();
+            }
+
+            this.entries.put(key, value);
+        }
+    }
+
+    /**
+     * Caches a value unless the key is already cached, after clearing the
+     * cache if it is full. Does nothing if the cache is disabled or if the key
+     * or the value is null.
+     * 
+     * @param key
+     *            The key.
+     * @param value
+     *            The value to cache.
+     * @return The value already cached for the key or the given value.
+     */
+    public V putIfAbsent(K key, V value) {
+        V result = value;
+
+        if ((key != null) && (value != null) && isEnabled()) {
+            if (this.entries.size() >= this.maxSize) {
+                this.entries.clear();
+            }
+
+            V current = this.entries.putIfAbsent(key, value);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the cached value for the given key.
+     * 
+     * @param key
+     *            The key.
+     */
+    public void remove(K key) {
+        if (key != null) {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Sets the maximum number of cached entries and clears the cache. A value
+     * of zero or less disables the cache.
+     * 
+     * @param maxSize
+     *            The maximum number of cached entries.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        clear();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * 
+     * @return The number of cached entries.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+}
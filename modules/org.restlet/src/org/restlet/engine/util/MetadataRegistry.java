@@ -0,0 +1,292 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.restlet.data.Metadata;
+
+/**
+ * Concurrent registry of metadata instances indexed by name. It holds the
+ * registered metadata, which are kept forever, and a bounded cache of the
+ * metadata parsed from other names, such as header values, so that repeated
+ * values don't need to be parsed and instantiated again. Lookups don't block.<br>
+ * <br>
+ * Names are trimmed, and lower cased if the metadata names are case
+ * insensitive, so that spelling variants share the same entry. When the cache
+ * is full, parsed metadata are evicted one at a time, giving a second chance
+ * to the ones looked up since they were cached. This approximates a least
+ * recently used eviction, so that clients sending arbitrary values can't flush
+ * the frequently used entries.
+ * 
+ * @author Jerome Louvel
+ * @param <T>
+ *            The metadata type.
+ */
+public class MetadataRegistry<T extends Metadata> {
+
+    /**
+     * Parsed metadata cached, with an indication of recent use.
+     * 
+     * @param <T>
+     *            The metadata type.
+     */
+    private static class CachedMetadata<T> {
+
+        /** The parsed metadata. */
+        private final T metadata;
+
+        /** Indicates if the metadata was looked up since the last eviction. */
+        private volatile boolean used;
+
+        /**
+         * Constructor.
+         * 
+         * @param metadata
+         *            The parsed metadata.
+         */
+        private CachedMetadata(T metadata) {
+            this.metadata = metadata;
+            this.used = false;
+        }
+    }
+
+    /** The default maximum number of parsed metadata cached. */
+    public static final int DEFAULT_MAX_CACHED = 1024;
+
+    /** Indicates if the metadata names are case sensitive. */
+    private final boolean caseSensitive;
+
+    /** The parsed metadata. */
+    private final ConcurrentMap<String, CachedMetadata<T>> cached;
+
+    /** The keys of the parsed metadata, in eviction order. */
+    private final Queue<String> cachedKeys;
+
+    /** The maximum number of parsed metadata cached. */
+    private final int maxCached;
+
+    /** The registered metadata. */
+    private final ConcurrentMap<String, T> registered;
+
+    /**
+     * Constructor using the default maximum number of parsed metadata cached.
+     * 
+     * @param caseSensitive
+     *            Indicates if the metadata names are case sensitive.
+     */
+    public MetadataRegistry(boolean caseSensitive) {
+        this(caseSensitive, DEFAULT_MAX_CACHED);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param caseSensitive
+     *            Indicates if the metadata names are case sensitive.
+     * @param maxCached
+     *            The maximum number of parsed metadata cached.
+     */
+    public MetadataRegistry(boolean caseSensitive, int maxCached) {
+        this.caseSensitive = caseSensitive;
+        this.cached = new ConcurrentHashMap<String, CachedMetadata<T>>();
+        this.cachedKeys = new ConcurrentLinkedQueue<String>();
+        this.maxCached = maxCached;
+        this.registered = new ConcurrentHashMap<String, T>();
+    }
+
+    /**
+     * Caches a metadata parsed from a given name. If the cache is full, other
+     * parsed metadata are evicted. If the name is already cached, the existing
+     * metadata is returned.
+     * 
+     * @param name
+     *            The name parsed.
+     * @param metadata
+     *            The parsed metadata.
+     * @return The cached metadata.
+     */
+    public T cache(String name, T metadata) {
+        String key = getKey(name);
+
+        if ((key == null) || (metadata == null) || (this.maxCached <= 0)) {
+            return metadata;
+        }
+
+        CachedMetadata<T> current = this.cached.putIfAbsent(key,
+                new CachedMetadata<T>(metadata));
+
+        if (current != null) {
+            return current.metadata;
+        }
+
+        this.cachedKeys.add(key);
+
+        while (this.cached.size() > this.maxCached) {
+            if (!evict()) {
+                break;
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Clears the cache of parsed metadata. The registered metadata are kept.
+     */
+    public void clearCache() {
+        this.cached.clear();
+        this.cachedKeys.clear();
+    }
+
+    /**
+     * Evicts the oldest parsed metadata that wasn't looked up since it was
+     * cached or since it was last given a second chance.
+     * 
+     * @return False if there was no parsed metadata to evict.
+     */
+    private boolean evict() {
+        String key = this.cachedKeys.poll();
+
+        while (key != null) {
+            CachedMetadata<T> candidate = this.cached.get(key);
+
+            if ((candidate != null) && candidate.used) {
+                // Give it a second chance
+                candidate.used = false;
+                this.cachedKeys.add(key);
+            } else if (candidate != null) {
+                this.cached.remove(key, candidate);
+                return true;
+            }
+
+            key = this.cachedKeys.poll();
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the registered or cached metadata with the given name.
+     * 
+     * @param name
+     *            The name.
+     * @return The registered or cached metadata or null.
+     */
+    public T get(String name) {
+        String key = getKey(name);
+        T result = null;
+
+        if (key != null) {
+            result = this.registered.get(key);
+
+            if (result == null) {
+                CachedMetadata<T> candidate = this.cached.get(key);
+
+                if (candidate != null) {
+                    if (!candidate.used) {
+                        candidate.used = true;
+                    }
+
+                    result = candidate.metadata;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of parsed metadata cached.
+     * 
+     * @return The number of parsed metadata cached.
+     */
+    public int getCachedCount() {
+        return this.cached.size();
+    }
+
+    /**
+     * Returns the key normalizing a given name.
+     * 
+     * @param name
+     *            The name.
+     * @return The key or null.
+     */
+    private String getKey(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String result = name.trim();
+        return this.caseSensitive ? result : result.toLowerCase();
+    }
+
+    /**
+     * Returns the registered metadata with the given name.
+     * 
+     * @param name
+     *            The name.
+     * @return The registered metadata or null.
+     */
+    public T getRegistered(String name) {
+        String key = getKey(name);
+        return (key == null) ? null : this.registered.get(key);
+    }
+
+    /**
+     * Registers a metadata under a given name. If the name is already
+     * registered, the existing metadata is returned.
+     * 
+     * @param name
+     *            The name.
+     * @param metadata
+     *            The metadata to register.
+     * @return The registered metadata.
+     */
+    public T register(String name, T metadata) {
+        String key = getKey(name);
+        T result = this.registered.putIfAbsent(key, metadata);
+
+        if (result == null) {
+            result = metadata;
+        }
+
+        this.cached.remove(key);
+        return result;
+    }
+
+}
@@ -40,6 +40,36 @@ package org.restlet.engine.util;
  */
 public class SystemUtils {
 
+    // [ifndef gwt] member
+    /**
+     * The factory of virtual threads, or null if not supported by the current
+     * Java Runtime Environment.
+     */
+    private static final java.util.concurrent.ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    // [ifndef gwt] method
+    /**
+     * Creates a factory of virtual threads. As virtual threads were introduced
+     * in Java 21, the builder API is looked up by reflection.
+     * 
+     * @return A factory of virtual threads or null if not supported by the
+     *         current Java Runtime Environment.
+     */
+    private static java.util.concurrent.ThreadFactory createVirtualThreadFactory() {
+        java.util.concurrent.ThreadFactory result = null;
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            result = (java.util.concurrent.ThreadFactory) builderClass
+                    .getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            result = null;
+        }
+
+        return result;
+    }
+
     /**
      * Indicates if both fields are equal. For this to be true, they must either
      * be both null or return true to the {@link Object#equals(Object)} method.
@@ -143,6 +173,30 @@ public class SystemUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Returns a factory of virtual threads, available since Java 21.
+     * 
+     * @return A factory of virtual threads or null if not supported by the
+     *         current Java Runtime Environment.
+     * @see #isVirtualThreadsSupported()
+     */
+    public static java.util.concurrent.ThreadFactory getVirtualThreadFactory() {
+        return VIRTUAL_THREAD_FACTORY;
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Indicates if the current Java Runtime Environment supports virtual
+     * threads.
+     * 
+     * @return True if the current Java Runtime Environment supports virtual
+     *         threads.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
     // [ifndef gwt] method
     /**
      * Indicates if the current operating system is in the Windows family.
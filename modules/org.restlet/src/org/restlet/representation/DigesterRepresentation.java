@@ -48,7 +48,10 @@ import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.data.Digest;
+import org.restlet.data.Tag;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.io.NullOutputStream;
+import org.restlet.engine.util.Base64;
 import org.restlet.util.WrapperRepresentation;
 
 /**
@@ -60,19 +63,30 @@ import org.restlet.util.WrapperRepresentation;
  * <br>
  * This wrapper allows to get the computed digest at the same time the
  * representation is read or written. It does not need two separate operations
- * which may require specific attention for transient representations.
+ * which may require specific attention for transient representations. Once the
+ * wrapped representation has been entirely read or written, the final digest
+ * is kept and the {@link #onDigestComputed(Digest)} method is invoked, for
+ * example to cache the strong entity tag returned by
+ * {@link #getComputedTag()}.
  * 
  * @see Representation#isTransient().
  * 
  * @author Jerome Louvel
  */
-public class DigesterRepresentation extends WrapperRepresentation {
+public class DigesterRepresentation extends WrapperRepresentation
+        implements StreamingProducer {
     /** The digest algorithm. */
     private final String algorithm;
 
     /** The computed digest value. */
     private volatile MessageDigest computedDigest;
 
+    /**
+     * The digest computed after the wrapped representation was entirely read
+     * or written.
+     */
+    private volatile Digest completedDigest;
+
     /**
      * Constructor.<br>
      * By default, the instance relies on the {@link Digest#ALGORITHM_MD5}
@@ -154,6 +168,19 @@ public class DigesterRepresentation extends WrapperRepresentation {
         return result;
     }
 
+    /**
+     * Completes the digest computation once the wrapped representation has been
+     * entirely read or written, then invokes
+     * {@link #onDigestComputed(Digest)}. The message digest is reset for the
+     * next reading or writing.
+     */
+    private void complete() {
+        Digest digest = new Digest(this.algorithm,
+                this.computedDigest.digest());
+        this.completedDigest = digest;
+        onDigestComputed(digest);
+    }
+
     /**
      * Compute the representation digest according to MD5 algorithm.<br>
      * If case this algorithm is the same than the one provided at
@@ -187,9 +214,15 @@ public class DigesterRepresentation extends WrapperRepresentation {
             try {
                 java.security.MessageDigest md = java.security.MessageDigest
                         .getInstance(algorithm);
-                java.security.DigestInputStream dis = new java.security.DigestInputStream(
-                        getStream(), md);
-                org.restlet.engine.io.IoUtils.exhaust(dis);
+
+                if (getWrappedRepresentation() instanceof StreamingProducer) {
+                    // Push the content instead of pulling it via a pipe
+                    getWrappedRepresentation().write(
+                            new DigestOutputStream(new NullOutputStream(), md));
+                } else {
+                    IoUtils.exhaust(new DigestInputStream(getStream(), md));
+                }
+
                 result = new org.restlet.data.Digest(algorithm, md.digest());
             } catch (java.security.NoSuchAlgorithmException e) {
                 Context.getCurrentLogger().log(Level.WARNING,
@@ -205,7 +238,9 @@ public class DigesterRepresentation extends WrapperRepresentation {
 
     /**
      * Exhausts the content of the representation by reading it and silently
-     * discarding anything read.
+     * discarding anything read. If the wrapped representation is a
+     * {@link StreamingProducer}, its content is written on the calling thread
+     * instead.
      * 
      * @return The number of bytes consumed or -1 if unknown.
      */
@@ -213,7 +248,11 @@ public class DigesterRepresentation extends WrapperRepresentation {
         long result = -1L;
 
         if (isAvailable()) {
-            result = IoUtils.exhaust(getStream());
+            if (getWrappedRepresentation() instanceof StreamingProducer) {
+                result = IoUtils.exhaust(this);
+            } else {
+                result = IoUtils.exhaust(getStream());
+            }
         }
 
         return result;
@@ -232,7 +271,25 @@ public class DigesterRepresentation extends WrapperRepresentation {
      * @return The current computed digest value.
      */
     public Digest getComputedDigest() {
-        return new Digest(this.algorithm, computedDigest.digest());
+        Digest result = this.completedDigest;
+
+        if (result == null) {
+            result = new Digest(this.algorithm, computedDigest.digest());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a strong entity tag based on the current computed digest value of
+     * the representation. The same restrictions as for
+     * {@link #getComputedDigest()} apply.
+     * 
+     * @return A strong entity tag based on the computed digest value.
+     */
+    public Tag getComputedTag() {
+        return new Tag(Base64.encode(getComputedDigest().getValue(), false),
+                false);
     }
 
     @Override
@@ -250,7 +307,37 @@ public class DigesterRepresentation extends WrapperRepresentation {
     @Override
     public InputStream getStream() throws IOException {
         return new DigestInputStream(getWrappedRepresentation().getStream(),
-                this.computedDigest);
+                this.computedDigest) {
+            /** Indicates if the end of the stream has been reached. */
+            private boolean ended;
+
+            /**
+             * Completes the digest computation when the end of the stream is
+             * first reached.
+             * 
+             * @param result
+             *            The result of a read operation.
+             * @return The result of the read operation.
+             */
+            private int check(int result) {
+                if ((result == -1) && !this.ended) {
+                    this.ended = true;
+                    complete();
+                }
+
+                return result;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return check(super.read());
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return check(super.read(b, off, len));
+            }
+        };
     }
 
     @Override
@@ -270,6 +357,17 @@ public class DigesterRepresentation extends WrapperRepresentation {
         return result;
     }
 
+    /**
+     * Callback invoked when the digest has been computed after the wrapped
+     * representation was entirely read or written. By default, it does
+     * nothing.
+     * 
+     * @param digest
+     *            The computed digest.
+     */
+    protected void onDigestComputed(Digest digest) {
+    }
+
     /**
      * {@inheritDoc}<br>
      * 
@@ -283,6 +381,7 @@ public class DigesterRepresentation extends WrapperRepresentation {
                 this.computedDigest);
         getWrappedRepresentation().write(dos);
         dos.flush();
+        complete();
     }
 
     @Override
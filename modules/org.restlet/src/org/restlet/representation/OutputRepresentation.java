@@ -47,10 +47,14 @@ import org.restlet.engine.io.IoUtils;
  * For this you just need to create a subclass and override the abstract
  * Representation.write(OutputStream) method. This method will later be called
  * back by the connectors when the actual representation's content is needed.
+ * <br>
+ * <br>
+ * See {@link StreamingProducer} for the preferred way to consume the content.
  * 
  * @author Jerome Louvel
  */
-public abstract class OutputRepresentation extends StreamRepresentation {
+public abstract class OutputRepresentation extends StreamRepresentation
+        implements StreamingProducer {
     /**
      * Constructor.
      * 
@@ -73,7 +77,17 @@ public abstract class OutputRepresentation extends StreamRepresentation {
         super(mediaType);
         setSize(expectedSize);
     }
-    
+
+    /**
+     * {@inheritDoc}<br>
+     * 
+     * The content is written on the calling thread, without a pipe.
+     */
+    @Override
+    public long exhaust() throws IOException {
+        return isAvailable() ? IoUtils.exhaust(this) : -1L;
+    }
+
     @Override
     public ReadableByteChannel getChannel() throws IOException {
         return IoUtils.getChannel(this);
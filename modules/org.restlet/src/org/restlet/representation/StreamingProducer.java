@@ -0,0 +1,63 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.representation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// [excludes gwt]
+/**
+ * Content that is natively produced by pushing bytes to a sink. Consumers that
+ * have an output stream at hand, such as connectors, encoders or digesters,
+ * should drive the {@link #write(OutputStream)} method directly on the calling
+ * thread. Pulling the content via {@link Representation#getStream()} or
+ * {@link Representation#getChannel()} remains possible but requires a pipe
+ * and a separate writer task. For the same reason, implementations should
+ * exhaust their content by writing it on the calling thread to a sink silently
+ * discarding the bytes.
+ * 
+ * @author Jerome Louvel
+ */
+public interface StreamingProducer {
+
+    /**
+     * Writes the content to the given sink, on the calling thread. The sink
+     * isn't closed by this method.
+     * 
+     * @param outputStream
+     *            The sink receiving the content.
+     */
+    public void write(OutputStream outputStream) throws IOException;
+
+}
@@ -34,6 +34,7 @@
 package org.restlet.representation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 
 import org.restlet.data.MediaType;
@@ -45,11 +46,14 @@ import org.restlet.engine.io.IoUtils;
  * <br>
  * For this you just need to create a subclass and override the abstract
  * Representation.write(Writer) method. This method will later be called back by
- * the connectors when the actual representation's content is needed.
+ * the connectors when the actual representation's content is needed.<br>
+ * <br>
+ * See {@link StreamingProducer} for the preferred way to consume the content.
  * 
  * @author Jerome Louvel
  */
-public abstract class WriterRepresentation extends CharacterRepresentation {
+public abstract class WriterRepresentation extends CharacterRepresentation
+        implements StreamingProducer {
 
     /**
      * Constructor.
@@ -74,9 +78,30 @@ public abstract class WriterRepresentation extends CharacterRepresentation {
         setSize(expectedSize);
     }
 
+    /**
+     * {@inheritDoc}<br>
+     * 
+     * The content is written on the calling thread, without a pipe.
+     */
+    @Override
+    public long exhaust() throws IOException {
+        return isAvailable() ? IoUtils.exhaust(this) : -1L;
+    }
+
     @Override
     public Reader getReader() throws IOException {
         return IoUtils.getReader(this);
     }
 
+    /**
+     * Returns a stream with the representation's content. Internally, it uses a
+     * writer task and a pipe stream fed with the encoded characters.
+     * 
+     * @return A stream with the representation's content.
+     */
+    @Override
+    public InputStream getStream() throws IOException {
+        return IoUtils.getStream(this);
+    }
+
 }
@@ -58,6 +58,7 @@ import org.restlet.data.ServerInfo;
 import org.restlet.data.Status;
 import org.restlet.engine.resource.AnnotationInfo;
 import org.restlet.engine.resource.AnnotationUtils;
+import org.restlet.engine.resource.NegotiationCache;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Representation;
 import org.restlet.representation.RepresentationInfo;
@@ -65,6 +66,7 @@ import org.restlet.representation.Variant;
 import org.restlet.routing.Filter;
 import org.restlet.routing.Router;
 import org.restlet.security.Role;
+import org.restlet.service.ConnegService;
 import org.restlet.service.ConverterService;
 import org.restlet.util.Series;
 
@@ -490,12 +492,14 @@ public abstract class ServerResource extends Resource {
 
         try {
             if (parameterTypes.length > 0) {
-                List<Object> parameters = new ArrayList<Object>();
+                Object[] parameters = new Object[parameterTypes.length];
                 Object parameter = null;
 
-                for (Class<?> parameterType : parameterTypes) {
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    Class<?> parameterType = parameterTypes[i];
+
                     if (Variant.class.equals(parameterType)) {
-                        parameters.add(variant);
+                        parameters[i] = variant;
                     } else {
                         if (getRequestEntity() != null
                                 && getRequestEntity().isAvailable()
@@ -514,14 +518,13 @@ public abstract class ServerResource extends Resource {
                             parameter = null;
                         }
 
-                        parameters.add(parameter);
+                        parameters[i] = parameter;
                     }
                 }
 
-                resultObject = annotationInfo.getJavaMethod().invoke(this,
-                        parameters.toArray());
+                resultObject = annotationInfo.invoke(this, parameters);
             } else {
-                resultObject = annotationInfo.getJavaMethod().invoke(this);
+                resultObject = annotationInfo.invoke(this);
             }
 
             if (resultObject != null) {
@@ -657,22 +660,50 @@ public abstract class ServerResource extends Resource {
      * {@link #head(Variant)} or {@link #options(Variant)} methods.<br>
      * <br>
      * If no acceptable variant is found, the
-     * {@link Status#CLIENT_ERROR_NOT_ACCEPTABLE} status is set.
+     * {@link Status#CLIENT_ERROR_NOT_ACCEPTABLE} status is set.<br>
+     * <br>
+     * When the variants are only provided by the annotated methods, the
+     * negotiated variant is cached per resource class by the
+     * {@link ConnegService}, so that similar requests don't score all the
+     * variants again.
      * 
      * @return The response entity.
      * @throws ResourceException
      */
     protected Representation doNegotiatedHandle() throws ResourceException {
         Representation result = null;
+        NegotiationCache cache = null;
+        String cacheKey = null;
+        Variant preferredVariant = null;
+
+        if ((this.variants == null) && isAnnotated()) {
+            ConnegService connegService = getConnegService();
+            cache = connegService.getNegotiationCache(getClass());
+            cacheKey = cache.getKey(getRequest(), getMethod().getName(),
+                    connegService.isStrict());
+
+            if (cacheKey != null) {
+                preferredVariant = cache.get(cacheKey);
+            }
+        }
 
-        if ((getVariants() != null) && (!getVariants().isEmpty())) {
-            Variant preferredVariant = getPreferredVariant(getVariants());
+        if (preferredVariant != null) {
+            // Reuse the variant negotiated for a similar request
+            updateDimensions();
+            result = doHandle(preferredVariant);
+        } else if ((getVariants() != null) && (!getVariants().isEmpty())) {
+            preferredVariant = getPreferredVariant(getVariants());
 
             if (preferredVariant == null) {
                 // No variant was found matching the client preferences
                 doError(Status.CLIENT_ERROR_NOT_ACCEPTABLE);
                 result = describeVariants();
             } else {
+                if ((cacheKey != null)
+                        && (preferredVariant instanceof VariantInfo)) {
+                    cache.put(cacheKey, (VariantInfo) preferredVariant);
+                }
+
                 // Update the variant dimensions used for content
                 // negotiation
                 updateDimensions();
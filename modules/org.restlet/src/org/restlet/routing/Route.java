@@ -33,6 +33,8 @@
 
 package org.restlet.routing;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
@@ -51,9 +53,15 @@ import org.restlet.Restlet;
  */
 public abstract class Route extends Filter {
 
+    /** The number of calls being handled by the route. */
+    private final AtomicInteger pendingCalls;
+
     /** The parent router. */
     private volatile Router router;
 
+    /** The weight of the route when balancing the load. */
+    private volatile int weight;
+
     /**
      * Constructor behaving as a simple extractor filter.
      * 
@@ -75,7 +83,50 @@ public abstract class Route extends Filter {
     public Route(Router router, Restlet next) {
         super((router != null) ? router.getContext() : (next != null) ? next
                 .getContext() : null, next);
+        this.pendingCalls = new AtomicInteger();
         this.router = router;
+        this.weight = 1;
+    }
+
+    /**
+     * Handles the call by invoking the next Restlet. When the parent router
+     * balances the load between its routes, the call is counted as pending
+     * until the next Restlet returns.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @return The continuation status.
+     * @see Router#MODE_LEAST_LOADED_MATCH
+     */
+    @Override
+    protected int doHandle(Request request, Response response) {
+        Router parent = getRouter();
+
+        if ((parent == null)
+                || (parent.getRoutingMode() != Router.MODE_LEAST_LOADED_MATCH)) {
+            return super.doHandle(request, response);
+        }
+
+        this.pendingCalls.incrementAndGet();
+
+        try {
+            return super.doHandle(request, response);
+        } finally {
+            this.pendingCalls.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of calls being handled by the route. Only counted
+     * when the parent router is in the {@link Router#MODE_LEAST_LOADED_MATCH}
+     * routing mode.
+     * 
+     * @return The number of calls being handled by the route.
+     */
+    public int getPendingCalls() {
+        return this.pendingCalls.get();
     }
 
     /**
@@ -87,6 +138,16 @@ public abstract class Route extends Filter {
         return this.router;
     }
 
+    /**
+     * Returns the weight of the route when balancing the load. Defaults to 1.
+     * 
+     * @return The weight of the route.
+     * @see Router#MODE_LEAST_LOADED_MATCH
+     */
+    public int getWeight() {
+        return this.weight;
+    }
+
     /**
      * Returns the score for a given call (between 0 and 1.0).
      * 
@@ -108,4 +169,16 @@ public abstract class Route extends Filter {
         this.router = router;
     }
 
+    /**
+     * Sets the weight of the route when balancing the load. A weight of zero
+     * or less excludes the route.
+     * 
+     * @param weight
+     *            The weight of the route.
+     * @see Router#MODE_LEAST_LOADED_MATCH
+     */
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
 }
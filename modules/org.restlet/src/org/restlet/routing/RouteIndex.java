@@ -0,0 +1,333 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Reference;
+import org.restlet.util.RouteList;
+
+/**
+ * Index of a list of routes based on the literal prefixes of their URI
+ * templates. As the template of a route can only match a remaining part that
+ * starts with its literal prefix, the other routes can't reach a strictly
+ * positive score and are skipped. The remaining routes are still scored in the
+ * order of the list, preserving the semantics of the best and first matching
+ * modes.<br>
+ * <br>
+ * Routes that aren't plain {@link TemplateRoute} instances with a plain
+ * {@link Template} are always scored, as their scoring logic can be customized.
+ * 
+ * @author Jerome Louvel
+ */
+class RouteIndex {
+
+    /** Node of the tree of literal prefixes. */
+    private static final class Node {
+
+        /** The child nodes, indexed by the next character of the prefixes. */
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+
+        /** The positions of the routes whose prefix ends at this node. */
+        private int[] positions = new int[0];
+
+        /**
+         * Adds a route position at the end of the given prefix.
+         * 
+         * @param prefix
+         *            The literal prefix.
+         * @param position
+         *            The position of the route in the list.
+         */
+        private void add(String prefix, int position) {
+            Node node = this;
+
+            for (int i = 0; i < prefix.length(); i++) {
+                Character next = Character.valueOf(prefix.charAt(i));
+                Node child = node.children.get(next);
+
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(next, child);
+                }
+
+                node = child;
+            }
+
+            node.positions = Arrays.copyOf(node.positions,
+                    node.positions.length + 1);
+            node.positions[node.positions.length - 1] = position;
+        }
+
+        /**
+         * Collects the positions of the routes whose prefix starts the given
+         * remaining part.
+         * 
+         * @param remainingPart
+         *            The remaining part to match.
+         * @param result
+         *            The list of positions arrays to update.
+         */
+        private void collect(String remainingPart, List<int[]> result) {
+            Node node = this;
+
+            for (int i = 0; node != null; i++) {
+                if (node.positions.length > 0) {
+                    result.add(node.positions);
+                }
+
+                node = (i < remainingPart.length()) ? node.children
+                        .get(Character.valueOf(remainingPart.charAt(i)))
+                        : null;
+            }
+        }
+    }
+
+    /**
+     * Returns the literal prefix of a URI template pattern, before its first
+     * variable.
+     * 
+     * @param pattern
+     *            The URI template pattern.
+     * @return The literal prefix.
+     */
+    private static String getLiteralPrefix(String pattern) {
+        int end = 0;
+
+        while ((end < pattern.length()) && (pattern.charAt(end) != '{')
+                && (pattern.charAt(end) != '}')) {
+            end++;
+        }
+
+        return pattern.substring(0, end);
+    }
+
+    /** The modification count of the routes list when indexed. */
+    private final int modificationCount;
+
+    /** The positions of the routes always scored. */
+    private final int[] others;
+
+    /** The tree of prefixes matched against the remaining part without query. */
+    private final Node pathRoot;
+
+    /** The tree of prefixes matched against the remaining part with query. */
+    private final Node queryRoot;
+
+    /** The indexed list of routes. */
+    private final RouteList routes;
+
+    /** The snapshot of the indexed routes. */
+    private final Route[] snapshot;
+
+    /**
+     * Constructor.
+     * 
+     * @param routes
+     *            The list of routes to index.
+     */
+    public RouteIndex(RouteList routes) {
+        this.routes = routes;
+        this.modificationCount = routes.getModificationCount();
+        this.snapshot = routes.toArray(new Route[0]);
+        this.pathRoot = new Node();
+        this.queryRoot = new Node();
+        int[] others = new int[this.snapshot.length];
+        int othersCount = 0;
+
+        for (int i = 0; i < this.snapshot.length; i++) {
+            Route route = this.snapshot[i];
+            Template template = null;
+
+            if ((route != null) && (route.getClass() == TemplateRoute.class)) {
+                template = ((TemplateRoute) route).getTemplate();
+            }
+
+            if ((template != null) && (template.getClass() == Template.class)
+                    && (template.getPattern() != null)) {
+                String prefix = getLiteralPrefix(template.getPattern());
+
+                if (((TemplateRoute) route).isMatchingQuery()) {
+                    this.queryRoot.add(prefix, i);
+                } else {
+                    this.pathRoot.add(prefix, i);
+                }
+            } else {
+                others[othersCount++] = i;
+            }
+        }
+
+        this.others = Arrays.copyOf(others, othersCount);
+    }
+
+    /**
+     * Returns the positions of the routes that can match a given call, in
+     * ascending order.
+     * 
+     * @param request
+     *            The request to match.
+     * @return The positions of the candidate routes.
+     */
+    private int[] getCandidates(Request request) {
+        List<int[]> found = new ArrayList<int[]>();
+
+        if (this.others.length > 0) {
+            found.add(this.others);
+        }
+
+        Reference resourceRef = request.getResourceRef();
+
+        if (resourceRef != null) {
+            String remainingPart = resourceRef.getRemainingPart(false, false);
+
+            if (remainingPart != null) {
+                this.pathRoot.collect(remainingPart, found);
+            }
+
+            if (!this.queryRoot.children.isEmpty()
+                    || (this.queryRoot.positions.length > 0)) {
+                remainingPart = resourceRef.getRemainingPart(false, true);
+
+                if (remainingPart != null) {
+                    this.queryRoot.collect(remainingPart, found);
+                }
+            }
+        }
+
+        int[] result;
+
+        if (found.size() == 1) {
+            result = found.get(0);
+        } else {
+            int count = 0;
+
+            for (int[] positions : found) {
+                count += positions.length;
+            }
+
+            result = new int[count];
+            count = 0;
+
+            for (int[] positions : found) {
+                System.arraycopy(positions, 0, result, count, positions.length);
+                count += positions.length;
+            }
+
+            Arrays.sort(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the best route match for a given call. See
+     * {@link RouteList#getBest(Request, Response, float)} for the semantics.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The best route match or null.
+     */
+    public Route getBest(Request request, Response response,
+            float requiredScore) {
+        Route result = null;
+        float bestScore = 0F;
+        float score;
+
+        for (int position : getCandidates(request)) {
+            Route current = this.snapshot[position];
+            score = current.score(request, response);
+
+            if ((score > bestScore) && (score >= requiredScore)) {
+                bestScore = score;
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the first route match for a given call. See
+     * {@link RouteList#getFirst(Request, Response, float)} for the semantics.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The first route match or null.
+     */
+    public Route getFirst(Request request, Response response,
+            float requiredScore) {
+        if (requiredScore <= 0F) {
+            // Routes not matching their prefix would be selected as well
+            return this.routes.getFirst(request, response, requiredScore);
+        }
+
+        for (int position : getCandidates(request)) {
+            Route current = this.snapshot[position];
+
+            if (current.score(request, response) >= requiredScore) {
+                return current;
+            }
+        }
+
+        // No match found
+        return null;
+    }
+
+    /**
+     * Indicates if the index still reflects the given list of routes.
+     * 
+     * @param routes
+     *            The list of routes.
+     * @return True if the index still reflects the given list of routes.
+     */
+    public boolean isValid(RouteList routes) {
+        return (this.routes == routes)
+                && (this.modificationCount == routes.getModificationCount());
+    }
+
+}
@@ -33,13 +33,17 @@
 
 package org.restlet.routing;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
+import org.restlet.Application;
 import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.data.Status;
+import org.restlet.engine.Engine;
 import org.restlet.resource.Directory;
 import org.restlet.resource.Finder;
 import org.restlet.resource.ServerResource;
@@ -110,6 +114,19 @@ public class Router extends Restlet {
      */
     public static final int MODE_LAST_MATCH = 3;
 
+    /**
+     * Each call is routed to the route with the lowest number of pending calls
+     * relative to its weight, among the routes reaching the required score.
+     * Routes with the same load are considered in a round robin mode. This
+     * mode is useful to balance the load between several equivalent targets,
+     * such as {@link Redirector} instances. See
+     * {@link RouteList#getLeastLoaded(Request, Response, float)} method for
+     * implementation details.
+     * 
+     * @see Route#setWeight(int)
+     */
+    public static final int MODE_LEAST_LOADED_MATCH = 7;
+
     /**
      * Each call is routed to the next route target if the required score is
      * reached. The next route is relative to the previous call routed (round
@@ -145,6 +162,9 @@ public class Router extends Restlet {
     /** The default route tested if no other one was available. */
     private volatile Route defaultRoute;
 
+    /** Indicates if the routes should be indexed by URI template prefix. */
+    private volatile boolean indexingRoutes;
+
     /**
      * The maximum number of attempts if no attachment could be matched on the
      * first attempt.
@@ -157,6 +177,12 @@ public class Router extends Restlet {
     /** The delay (in milliseconds) before a new attempt. */
     private volatile long retryDelay;
 
+    /** Indicates if new attempts are scheduled instead of blocking. */
+    private volatile boolean retryingAsynchronously;
+
+    /** The index of the routes, lazily built. */
+    private volatile RouteIndex routeIndex;
+
     /** The modifiable list of routes. */
     private volatile RouteList routes;
 
@@ -185,10 +211,12 @@ public class Router extends Restlet {
         this.defaultMatchingMode = Template.MODE_EQUALS;
         this.defaultMatchingQuery = false;
         this.defaultRoute = null;
+        this.indexingRoutes = false;
         this.routingMode = MODE_FIRST_MATCH;
         this.requiredScore = 0.5F;
         this.maxAttempts = 1;
         this.retryDelay = 500L;
+        this.retryingAsynchronously = false;
     }
 
     /**
@@ -294,6 +322,29 @@ public class Router extends Restlet {
         return result;
     }
 
+    /**
+     * Attaches a target Restlet to a list of routes based on a given URI
+     * pattern, without modifying the routes currently used by this router.
+     * This allows a new list of routes, usually obtained via
+     * {@link #copyRoutes()}, to be prepared before being published with
+     * {@link #publishRoutes(RouteList)}.
+     * 
+     * @param routes
+     *            The list of routes to update.
+     * @param pathTemplate
+     *            The URI path template that must match the relative part of the
+     *            resource URI.
+     * @param target
+     *            The target Restlet to attach.
+     * @return The created route.
+     */
+    public TemplateRoute attach(RouteList routes, String pathTemplate,
+            Restlet target) {
+        TemplateRoute result = createRoute(pathTemplate, target);
+        routes.add(result);
+        return result;
+    }
+
     /**
      * Attaches a Resource class to this router as the default target to invoke
      * when no route matches. It actually sets a default route that scores all
@@ -324,6 +375,17 @@ public class Router extends Restlet {
         return result;
     }
 
+    /**
+     * Returns a modifiable copy of the current list of routes. The copy can be
+     * updated without disturbing the calls being routed, then made effective
+     * atomically with {@link #publishRoutes(RouteList)}.
+     * 
+     * @return A modifiable copy of the current list of routes.
+     */
+    public RouteList copyRoutes() {
+        return new RouteList(getRoutes());
+    }
+
     /**
      * Creates a new route for the given URI pattern and target. The route will
      * match the URI query string depending on the result of
@@ -537,40 +599,26 @@ public class Router extends Restlet {
                 }
             }
 
-            if (this.routes != null) {
-                // Select the routing mode
-                switch (getRoutingMode()) {
-                case MODE_BEST_MATCH:
-                    result = getRoutes().getBest(request, response,
-                            getRequiredScore());
-                    break;
-
-                case MODE_FIRST_MATCH:
-                    result = getRoutes().getFirst(request, response,
-                            getRequiredScore());
-                    break;
-
-                case MODE_LAST_MATCH:
-                    result = getRoutes().getLast(request, response,
-                            getRequiredScore());
-                    break;
-
-                case MODE_NEXT_MATCH:
-                    result = getRoutes().getNext(request, response,
-                            getRequiredScore());
-                    break;
+            result = getRoute(request, response);
+        }
 
-                case MODE_RANDOM_MATCH:
-                    result = getRoutes().getRandom(request, response,
-                            getRequiredScore());
-                    break;
+        return getNext(request, response, result);
+    }
 
-                case MODE_CUSTOM:
-                    result = getCustom(request, response);
-                    break;
-                }
-            }
-        }
+    /**
+     * Completes the selection of the next Restlet, falling back to the default
+     * route if no route matched.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @param route
+     *            The route matched or null.
+     * @return The next Restlet if available or null.
+     */
+    private Route getNext(Request request, Response response, Route route) {
+        Route result = route;
 
         if (result == null) {
             // If nothing matched in the routes list,
@@ -611,6 +659,95 @@ public class Router extends Restlet {
         return this.retryDelay;
     }
 
+    /**
+     * Returns the route matching a given call in a single attempt, according
+     * to the routing mode. The default route isn't considered.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @return The route matched or null.
+     */
+    private Route getRoute(Request request, Response response) {
+        Route result = null;
+
+        // Use the same routes during the whole attempt
+        RouteList routes = getRoutes();
+
+        if (routes != null) {
+            // Select the routing mode
+            switch (getRoutingMode()) {
+            case MODE_BEST_MATCH:
+                if (isIndexingRoutes()) {
+                    result = getRouteIndex(routes).getBest(request, response,
+                            getRequiredScore());
+                } else {
+                    result = routes.getBest(request, response,
+                            getRequiredScore());
+                }
+                break;
+
+            case MODE_FIRST_MATCH:
+                if (isIndexingRoutes()) {
+                    result = getRouteIndex(routes).getFirst(request, response,
+                            getRequiredScore());
+                } else {
+                    result = routes.getFirst(request, response,
+                            getRequiredScore());
+                }
+                break;
+
+            case MODE_LAST_MATCH:
+                result = routes.getLast(request, response, getRequiredScore());
+                break;
+
+            case MODE_LEAST_LOADED_MATCH:
+                result = routes.getLeastLoaded(request, response,
+                        getRequiredScore());
+                break;
+
+            case MODE_NEXT_MATCH:
+                result = routes.getNext(request, response, getRequiredScore());
+                break;
+
+            case MODE_RANDOM_MATCH:
+                result = routes.getRandom(request, response,
+                        getRequiredScore());
+                break;
+
+            case MODE_CUSTOM:
+                result = getCustom(request, response);
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index of the given routes, rebuilt when the list of routes
+     * has changed since the last call.
+     * 
+     * @param routes
+     *            The routes to index.
+     * @return The index of the routes.
+     */
+    private RouteIndex getRouteIndex(RouteList routes) {
+        RouteIndex result = this.routeIndex;
+
+        if ((result == null) || !result.isValid(routes)) {
+            result = new RouteIndex(routes);
+
+            // Don't replace the index of routes published meanwhile
+            if (routes == this.routes) {
+                this.routeIndex = result;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the modifiable list of routes. Creates a new instance if no one
      * has been set.
@@ -642,15 +779,126 @@ public class Router extends Restlet {
     @Override
     public void handle(Request request, Response response) {
         super.handle(request, response);
-        Restlet next = getNext(request, response);
 
-        if (next != null) {
-            doHandle(next, request, response);
+        if (isRetryingAsynchronously() && (getMaxAttempts() > 1)
+                && (getContext() != null)
+                && (getContext().getExecutorService() != null)) {
+            handle(request, response, 1, response.isAutoCommitting());
         } else {
-            response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+            Restlet next = getNext(request, response);
+
+            if (next != null) {
+                doHandle(next, request, response);
+            } else {
+                response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+            }
         }
     }
 
+    /**
+     * Handles a call by attempting to route it once. If no route matched and
+     * the maximum number of attempts isn't reached, a new attempt is scheduled
+     * after the retry delay on the executor service of the context, and the
+     * response is left uncommitted until then.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @param attempt
+     *            The number of the current attempt, starting at 1.
+     * @param autoCommitting
+     *            The initial value of the response's autoCommitting property.
+     */
+    private void handle(final Request request, final Response response,
+            final int attempt, final boolean autoCommitting) {
+        Route route = getRoute(request, response);
+
+        if ((route == null) && (attempt < getMaxAttempts())) {
+            // Save the thread local variables
+            final Application currentApplication = Application.getCurrent();
+            final Context currentContext = Context.getCurrent();
+            final Integer currentVirtualHost = VirtualHost.getCurrent();
+
+            try {
+                response.setAutoCommitting(false);
+                getContext().getExecutorService().schedule(new Runnable() {
+                    public void run() {
+                        // Copy the thread local variables
+                        Response.setCurrent(response);
+                        Context.setCurrent(currentContext);
+                        VirtualHost.setCurrent(currentVirtualHost);
+                        Application.setCurrent(currentApplication);
+
+                        try {
+                            response.setAutoCommitting(autoCommitting);
+                            handle(request, response, attempt + 1,
+                                    autoCommitting);
+                        } catch (Throwable t) {
+                            getLogger().log(Level.WARNING,
+                                    "Unable to route the call again", t);
+                            response.setStatus(Status.SERVER_ERROR_INTERNAL,
+                                    t);
+                            response.setAutoCommitting(autoCommitting);
+                        } finally {
+                            Engine.clearThreadLocalVariables();
+                        }
+
+                        // Commit the response unless it is still pending
+                        if (response.isAutoCommitting()
+                                && !response.isCommitted()) {
+                            response.commit();
+                        }
+                    }
+                }, getRetryDelay(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ree) {
+                // The executor is stopping, stop retrying
+                response.setAutoCommitting(autoCommitting);
+                handle(request, response, getMaxAttempts(), autoCommitting);
+            }
+        } else {
+            Restlet next = getNext(request, response, route);
+
+            if (next != null) {
+                doHandle(next, request, response);
+            } else {
+                response.setStatus(Status.CLIENT_ERROR_NOT_FOUND);
+            }
+        }
+    }
+
+    /**
+     * Indicates if the routes should be indexed by the literal prefix of their
+     * URI template, before the first variable. In the best and first matching
+     * modes, only the routes whose prefix starts the remaining part of the
+     * resource reference are then scored, which speeds up the routing when
+     * many routes are attached. The index is rebuilt when the list of routes
+     * changes, but not when the template of an attached route is modified. By
+     * default, it returns false.
+     * 
+     * @return True if the routes should be indexed.
+     */
+    public boolean isIndexingRoutes() {
+        return this.indexingRoutes;
+    }
+
+    /**
+     * Indicates if new routing attempts should be scheduled on the executor
+     * service of the context instead of blocking the current thread during
+     * the retry delay. In this case, the response isn't automatically
+     * committed while a new attempt is pending, and it is committed by the
+     * scheduler thread once routed. This requires a server connector
+     * supporting asynchronous responses, see
+     * {@link Response#setAutoCommitting(boolean)}. Note that overriding
+     * {@link #getNext(Request, Response)} has no effect on the calls routed
+     * this way. By default, it returns false.
+     * 
+     * @return True if new routing attempts should be scheduled.
+     */
+    public boolean isRetryingAsynchronously() {
+        return this.retryingAsynchronously;
+    }
+
     /**
      * Logs the route selected.
      * 
@@ -667,6 +915,22 @@ public class Router extends Restlet {
         }
     }
 
+    /**
+     * Publishes a new list of routes, usually prepared from a copy of the
+     * current one. The list replaces the current one atomically: calls being
+     * routed keep using the previous list while new calls use the new one. If
+     * the routes are indexed, the index is built once before publication.
+     * 
+     * @param routes
+     *            The new list of routes.
+     * @see #copyRoutes()
+     * @see #attach(RouteList, String, Restlet)
+     */
+    public void publishRoutes(RouteList routes) {
+        this.routeIndex = isIndexingRoutes() ? new RouteIndex(routes) : null;
+        this.routes = routes;
+    }
+
     /**
      * Attaches a permanent redirection to this router based on a given URI
      * pattern. The client is expected to reuse the same method for the new
@@ -758,6 +1022,19 @@ public class Router extends Restlet {
         this.defaultRoute = defaultRoute;
     }
 
+    /**
+     * Indicates if the routes should be indexed by the literal prefix of their
+     * URI template.
+     * 
+     * @param indexingRoutes
+     *            True if the routes should be indexed.
+     * @see #isIndexingRoutes()
+     */
+    public void setIndexingRoutes(boolean indexingRoutes) {
+        this.indexingRoutes = indexingRoutes;
+        this.routeIndex = null;
+    }
+
     /**
      * Sets the maximum number of attempts if no attachment could be matched on
      * the first attempt. This is useful when the attachment scoring is dynamic
@@ -802,6 +1079,19 @@ public class Router extends Restlet {
         this.routes = routes;
     }
 
+    /**
+     * Indicates if new routing attempts should be scheduled on the executor
+     * service of the context instead of blocking the current thread during
+     * the retry delay.
+     * 
+     * @param retryingAsynchronously
+     *            True if new routing attempts should be scheduled.
+     * @see #isRetryingAsynchronously()
+     */
+    public void setRetryingAsynchronously(boolean retryingAsynchronously) {
+        this.retryingAsynchronously = retryingAsynchronously;
+    }
+
     /**
      * Sets the routing mode. By default, it is set to the
      * {@link #MODE_FIRST_MATCH} mode.
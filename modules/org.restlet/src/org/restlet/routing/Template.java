@@ -249,6 +249,12 @@ public class Template {
     /** The logger to use. */
     private volatile Logger logger;
 
+    /** The simple matcher used instead of the Regex pattern when possible. */
+    private volatile TemplateMatcher matcher;
+
+    /** Indicates if the simple matcher has been compiled. */
+    private volatile boolean matcherCompiled;
+
     /** The matching mode to use when parsing a formatted reference. */
     private volatile int matchingMode;
 
@@ -341,6 +347,8 @@ public class Template {
         this.matchingMode = matchingMode;
         this.variables = new ConcurrentHashMap<String, Variable>();
         this.regexPattern = null;
+        this.matcher = null;
+        this.matcherCompiled = false;
         this.encodingVariables = encodingVariables;
     }
 
@@ -483,6 +491,25 @@ public class Template {
         return this.matchingMode;
     }
 
+    /**
+     * Returns the simple matcher that can be used instead of the Regex
+     * pattern, compiling it on first access.
+     * 
+     * @return The simple matcher or null if the pattern isn't supported.
+     */
+    private TemplateMatcher getMatcher() {
+        if (!this.matcherCompiled) {
+            synchronized (this) {
+                if (!this.matcherCompiled) {
+                    this.matcher = TemplateMatcher.compile(this);
+                    this.matcherCompiled = true;
+                }
+            }
+        }
+
+        return this.matcher;
+    }
+
     /**
      * Returns the pattern to use for formatting or parsing.
      * 
@@ -683,7 +710,13 @@ public class Template {
         int result = -1;
 
         try {
-            if (formattedString != null) {
+            TemplateMatcher simpleMatcher = (formattedString == null) ? null
+                    : getMatcher();
+
+            if (simpleMatcher != null) {
+                result = simpleMatcher.match(formattedString,
+                        getMatchingMode() == MODE_EQUALS, null);
+            } else if (formattedString != null) {
                 final Matcher matcher = getRegexPattern().matcher(
                         formattedString);
 
@@ -741,7 +774,22 @@ public class Template {
             boolean loggable) {
         int result = -1;
 
-        if (formattedString != null) {
+        TemplateMatcher simpleMatcher = (formattedString == null) ? null
+                : getMatcher();
+
+        if (simpleMatcher != null) {
+            int[] bounds = new int[2 * simpleMatcher.getVariableCount()];
+            result = simpleMatcher.match(formattedString,
+                    getMatchingMode() == MODE_EQUALS, bounds);
+
+            if (result != -1) {
+                for (int i = 0; i < simpleMatcher.getVariableCount(); i++) {
+                    updateVariable(variables, simpleMatcher.getName(i),
+                            formattedString.substring(bounds[2 * i],
+                                    bounds[2 * i + 1]), loggable);
+                }
+            }
+        } else if (formattedString != null) {
             try {
                 Matcher matcher = getRegexPattern().matcher(formattedString);
                 boolean matched = ((getMatchingMode() == MODE_EQUALS) && matcher
@@ -754,26 +802,9 @@ public class Template {
                     result = matcher.end();
 
                     // Update the attributes with the variables value
-                    String attributeName = null;
-                    String attributeValue = null;
-
                     for (int i = 0; i < getRegexVariables().size(); i++) {
-                        attributeName = getRegexVariables().get(i);
-                        attributeValue = matcher.group(i + 1);
-                        Variable var = getVariables().get(attributeName);
-
-                        if ((var != null) && var.isDecodingOnParse()) {
-                            attributeValue = Reference.decode(attributeValue);
-                        }
-
-                        if (loggable) {
-                            getLogger().fine(
-                                    "Template variable \"" + attributeName
-                                            + "\" matched with value \""
-                                            + attributeValue + "\"");
-                        }
-
-                        variables.put(attributeName, attributeValue);
+                        updateVariable(variables, getRegexVariables().get(i),
+                                matcher.group(i + 1), loggable);
                     }
                 }
             } catch (StackOverflowError soe) {
@@ -901,6 +932,8 @@ public class Template {
     public void setPattern(String pattern) {
         this.pattern = pattern;
         this.regexPattern = null;
+        this.matcher = null;
+        this.matcherCompiled = false;
     }
 
     /**
@@ -921,4 +954,34 @@ public class Template {
         }
     }
 
+    /**
+     * Updates the map of variables with a parsed value, decoding it if
+     * required by the variable descriptor.
+     * 
+     * @param variables
+     *            The map of variables to update.
+     * @param name
+     *            The variable name.
+     * @param value
+     *            The parsed value.
+     * @param loggable
+     *            True if the parsing should be logged.
+     */
+    private void updateVariable(Map<String, Object> variables, String name,
+            String value, boolean loggable) {
+        Variable var = getVariables().get(name);
+
+        if ((var != null) && var.isDecodingOnParse()) {
+            value = Reference.decode(value);
+        }
+
+        if (loggable) {
+            getLogger().fine(
+                    "Template variable \"" + name
+                            + "\" matched with value \"" + value + "\"");
+        }
+
+        variables.put(name, value);
+    }
+
 }
@@ -0,0 +1,333 @@
+/**
+ * Copyright 2005-2014 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.data.Reference;
+
+/**
+ * Matcher of simple URI templates, scanning the formatted string in a single
+ * pass without relying on Regex patterns. Only templates whose variables are
+ * of the {@link Variable#TYPE_URI_SEGMENT}, {@link Variable#TYPE_URI_PATH} or
+ * {@link Variable#TYPE_DIGIT} types are supported, when each variable is
+ * either at the end of the pattern or followed by a literal character that it
+ * can't contain. In this case, the greedy matching of each variable never
+ * needs to backtrack, and the result is the same as the one of the Regex
+ * pattern compiled by the {@link Template} class.
+ * 
+ * @author Jerome Louvel
+ */
+class TemplateMatcher {
+
+    /**
+     * Compiles a template into a simple matcher.
+     * 
+     * @param template
+     *            The template to compile.
+     * @return The simple matcher or null if the template isn't supported.
+     */
+    public static TemplateMatcher compile(Template template) {
+        String pattern = template.getPattern();
+
+        if (pattern == null) {
+            return null;
+        }
+
+        List<String> literals = new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        List<Variable> variables = new ArrayList<Variable>();
+        StringBuilder buffer = new StringBuilder();
+        boolean inVariable = false;
+        char next;
+
+        for (int i = 0; i < pattern.length(); i++) {
+            next = pattern.charAt(i);
+
+            if (inVariable) {
+                if (Reference.isUnreserved(next)) {
+                    buffer.append(next);
+                } else if ((next == '}') && (buffer.length() > 0)) {
+                    String name = buffer.toString();
+                    Variable variable = template.getVariables().get(name);
+
+                    if (variable == null) {
+                        variable = template.getDefaultVariable();
+                    }
+
+                    // Repeated variables must match the same value
+                    if (names.contains(name) || variable.isFixed()
+                            || !isSupported(variable.getType())) {
+                        return null;
+                    }
+
+                    names.add(name);
+                    variables.add(variable);
+                    buffer = new StringBuilder();
+                    inVariable = false;
+                } else {
+                    // Invalid variable, rely on the Regex pattern
+                    return null;
+                }
+            } else if (next == '{') {
+                literals.add(buffer.toString());
+                buffer = new StringBuilder();
+                inVariable = true;
+            } else if (next == '}') {
+                return null;
+            } else {
+                buffer.append(next);
+            }
+        }
+
+        if (inVariable) {
+            return null;
+        }
+
+        literals.add(buffer.toString());
+
+        // Check that no backtracking could be needed
+        for (int i = 0; i < variables.size(); i++) {
+            String literal = literals.get(i + 1);
+
+            if (literal.length() == 0) {
+                if (i + 1 < variables.size()) {
+                    return null;
+                }
+            } else if (!isDelimiter(variables.get(i).getType(),
+                    literal.charAt(0))) {
+                return null;
+            }
+        }
+
+        return new TemplateMatcher(literals.toArray(new String[0]),
+                names.toArray(new String[0]), variables);
+    }
+
+    /**
+     * Indicates if the character belongs to the "pchar" rule of the URI
+     * specification, excepted percent-encoded characters.
+     * 
+     * @param character
+     *            The character to test.
+     * @return True if the character belongs to the "pchar" rule.
+     */
+    private static boolean isPathCharacter(char character) {
+        return ((character >= 'a') && (character <= 'z'))
+                || ((character >= 'A') && (character <= 'Z'))
+                || ((character >= '0') && (character <= '9'))
+                || (character == '-') || (character == '.')
+                || (character == '_') || (character == '~')
+                || (character == '!') || (character == '$')
+                || (character == '&') || (character == '\'')
+                || (character == '(') || (character == ')')
+                || (character == '*') || (character == '+')
+                || (character == ',') || (character == ';')
+                || (character == '=') || (character == ':')
+                || (character == '@');
+    }
+
+    /**
+     * Indicates if a literal character following a variable of the given type
+     * can't be part of its value.
+     * 
+     * @param type
+     *            The variable type.
+     * @param character
+     *            The literal character.
+     * @return True if the character delimits the variable value.
+     */
+    private static boolean isDelimiter(int type, char character) {
+        if (type == Variable.TYPE_DIGIT) {
+            return (character < '0') || (character > '9');
+        }
+
+        return (character != '%')
+                && !isPathCharacter(character)
+                && ((type != Variable.TYPE_URI_PATH) || (character != '/'));
+    }
+
+    /**
+     * Indicates if the character is an hexadecimal digit.
+     * 
+     * @param character
+     *            The character to test.
+     * @return True if the character is an hexadecimal digit.
+     */
+    private static boolean isHexadecimal(char character) {
+        return ((character >= '0') && (character <= '9'))
+                || ((character >= 'a') && (character <= 'f'))
+                || ((character >= 'A') && (character <= 'F'));
+    }
+
+    /**
+     * Indicates if the variable type is supported.
+     * 
+     * @param type
+     *            The variable type.
+     * @return True if the variable type is supported.
+     */
+    private static boolean isSupported(int type) {
+        return (type == Variable.TYPE_URI_SEGMENT)
+                || (type == Variable.TYPE_URI_PATH)
+                || (type == Variable.TYPE_DIGIT);
+    }
+
+    /** The literal parts, before each variable and after the last one. */
+    private final String[] literals;
+
+    /** The variable names. */
+    private final String[] names;
+
+    /** The variable required flags. */
+    private final boolean[] required;
+
+    /** The variable types. */
+    private final int[] types;
+
+    /**
+     * Constructor.
+     * 
+     * @param literals
+     *            The literal parts, before each variable and after the last
+     *            one.
+     * @param names
+     *            The variable names.
+     * @param variables
+     *            The variable descriptors.
+     */
+    private TemplateMatcher(String[] literals, String[] names,
+            List<Variable> variables) {
+        this.literals = literals;
+        this.names = names;
+        this.required = new boolean[names.length];
+        this.types = new int[names.length];
+
+        for (int i = 0; i < names.length; i++) {
+            this.required[i] = variables.get(i).isRequired();
+            this.types[i] = variables.get(i).getType();
+        }
+    }
+
+    /**
+     * Returns the variable name at the given index.
+     * 
+     * @param index
+     *            The variable index.
+     * @return The variable name.
+     */
+    public String getName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * Returns the number of variables.
+     * 
+     * @return The number of variables.
+     */
+    public int getVariableCount() {
+        return this.names.length;
+    }
+
+    /**
+     * Matches the formatted string.
+     * 
+     * @param formattedString
+     *            The formatted string to match.
+     * @param equals
+     *            True if the whole string must be matched.
+     * @param bounds
+     *            The array updated with the start and end indexes of each
+     *            variable value, or null.
+     * @return The number of matched characters or -1 if the match failed.
+     */
+    public int match(String formattedString, boolean equals, int[] bounds) {
+        int length = formattedString.length();
+        int index = 0;
+        int start;
+        char next;
+
+        for (int i = 0; i < this.names.length; i++) {
+            if (!formattedString.startsWith(this.literals[i], index)) {
+                return -1;
+            }
+
+            index += this.literals[i].length();
+            start = index;
+
+            if (this.types[i] == Variable.TYPE_DIGIT) {
+                while ((index < length)
+                        && (formattedString.charAt(index) >= '0')
+                        && (formattedString.charAt(index) <= '9')) {
+                    index++;
+                }
+            } else {
+                while (index < length) {
+                    next = formattedString.charAt(index);
+
+                    if (isPathCharacter(next)
+                            || ((next == '/') && (this.types[i] == Variable.TYPE_URI_PATH))) {
+                        index++;
+                    } else if ((next == '%') && (index + 2 < length)
+                            && isHexadecimal(formattedString.charAt(index + 1))
+                            && isHexadecimal(formattedString.charAt(index + 2))) {
+                        index += 3;
+                    } else {
+                        break;
+                    }
+                }
+            }
+
+            if (this.required[i] && (index == start)) {
+                return -1;
+            }
+
+            if (bounds != null) {
+                bounds[2 * i] = start;
+                bounds[2 * i + 1] = index;
+            }
+        }
+
+        String last = this.literals[this.names.length];
+
+        if (!formattedString.startsWith(last, index)) {
+            return -1;
+        }
+
+        index += last.length();
+        return (equals && (index != length)) ? -1 : index;
+    }
+
+}
@@ -42,6 +42,7 @@ import org.restlet.Response;
 import org.restlet.Restlet;
 import org.restlet.resource.Finder;
 import org.restlet.resource.ServerResource;
+import org.restlet.util.RouteList;
 
 /**
  * Router of calls from Server connectors to Restlets. The attached Restlets are
@@ -265,6 +266,30 @@ public class VirtualHost extends Router {
         return super.attach(target);
     }
 
+    /**
+     * Attaches a target Restlet to a list of routes based on a given URI
+     * pattern, without modifying the routes currently used by this router.
+     * 
+     * In addition to super class behavior, this method will set the context of
+     * the target if it is empty by creating a protected context via the
+     * {@link Context#createChildContext()} method.
+     * 
+     * @param routes
+     *            The list of routes to update.
+     * @param uriPattern
+     *            The URI pattern that must match the relative part of the
+     *            resource URI.
+     * @param target
+     *            The target Restlet to attach.
+     * @return The created route.
+     */
+    @Override
+    public TemplateRoute attach(RouteList routes, String uriPattern,
+            Restlet target) {
+        checkContext(target);
+        return super.attach(routes, uriPattern, target);
+    }
+
     /**
      * Attaches a target Restlet to this router based on a given URI pattern. A
      * new route will be added routing to the target when calls with a URI
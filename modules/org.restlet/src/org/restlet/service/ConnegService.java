@@ -34,11 +34,14 @@
 package org.restlet.service;
 
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.Request;
 import org.restlet.engine.application.Conneg;
 import org.restlet.engine.application.FlexibleConneg;
 import org.restlet.engine.application.StrictConneg;
+import org.restlet.engine.resource.NegotiationCache;
 import org.restlet.representation.Variant;
 
 /**
@@ -50,6 +53,14 @@ import org.restlet.representation.Variant;
  */
 public class ConnegService extends Service {
 
+    /**
+     * The maximum number of variants cached for each annotated resource class.
+     */
+    private volatile int maxCachedVariants;
+
+    /** The negotiation caches of the annotated resource classes. */
+    private final ConcurrentMap<Class<?>, NegotiationCache> negotiationCaches;
+
     /**
      * Indicates if the conneg algorithm should strictly respect client
      * preferences or be more flexible.
@@ -71,9 +82,55 @@ public class ConnegService extends Service {
      */
     public ConnegService(boolean enabled) {
         super(enabled);
+        this.maxCachedVariants = 64;
+        this.negotiationCaches = new ConcurrentHashMap<Class<?>, NegotiationCache>();
         this.strict = false;
     }
 
+    /**
+     * Clears the negotiation caches of the annotated resource classes. This
+     * should be done if the metadata service is updated. Changes of the
+     * registered converters are detected by the caches themselves.
+     */
+    public void clearNegotiationCaches() {
+        this.negotiationCaches.clear();
+    }
+
+    /**
+     * Returns the maximum number of variants cached for each annotated resource
+     * class. Value is 64 by default.
+     * 
+     * @return The maximum number of variants cached for each resource class.
+     */
+    public int getMaxCachedVariants() {
+        return maxCachedVariants;
+    }
+
+    /**
+     * Returns the cache of the variants negotiated for the annotated methods of
+     * the given resource class. It is created if needed.
+     * 
+     * @param resourceClass
+     *            The resource class.
+     * @return The negotiation cache of the resource class.
+     */
+    public NegotiationCache getNegotiationCache(Class<?> resourceClass) {
+        NegotiationCache result = this.negotiationCaches.get(resourceClass);
+
+        if (result == null) {
+            result = new NegotiationCache(resourceClass,
+                    getMaxCachedVariants());
+            NegotiationCache prev = this.negotiationCaches.putIfAbsent(
+                    resourceClass, result);
+
+            if (prev != null) {
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the best variant representation for a given resource according
      * the the client preferences.<br>
@@ -109,6 +166,19 @@ public class ConnegService extends Service {
         return strict;
     }
 
+    /**
+     * Sets the maximum number of variants cached for each annotated resource
+     * class. A value of 0 disables the negotiation caches.
+     * 
+     * @param maxCachedVariants
+     *            The maximum number of variants cached for each resource
+     *            class.
+     */
+    public void setMaxCachedVariants(int maxCachedVariants) {
+        this.maxCachedVariants = maxCachedVariants;
+        clearNegotiationCaches();
+    }
+
     /**
      * Indicates if the conneg algorithm should strictly respect client
      * preferences or be more flexible.
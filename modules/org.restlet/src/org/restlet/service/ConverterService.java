@@ -34,7 +34,6 @@
 package org.restlet.service;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -125,23 +124,7 @@ public class ConverterService extends Service {
      * @return The list of object class that can be converted.
      */
     public List<Class<?>> getObjectClasses(Variant source) {
-        List<Class<?>> result = null;
-        List<Class<?>> helperObjectClasses = null;
-
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
-            helperObjectClasses = ch.getObjectClasses(source);
-
-            if (helperObjectClasses != null) {
-                if (result == null) {
-                    result = new ArrayList<Class<?>>();
-                }
-
-                result.addAll(helperObjectClasses);
-            }
-        }
-
-        return result;
+        return ConverterUtils.getObjectClasses(source);
     }
 
     /**
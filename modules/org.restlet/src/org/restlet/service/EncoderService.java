@@ -41,6 +41,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import org.restlet.Context;
 import org.restlet.data.Encoding;
 import org.restlet.data.MediaType;
+import org.restlet.engine.application.EncodeCache;
 import org.restlet.engine.application.Encoder;
 import org.restlet.representation.Representation;
 import org.restlet.routing.Filter;
@@ -92,6 +93,11 @@ public class EncoderService extends Service {
      */
     private final List<MediaType> acceptedMediaTypes;
 
+    /**
+     * The cache of encoded entities.
+     */
+    private final EncodeCache encodeCache;
+
     /**
      * The media types that should be ignored.
      */
@@ -102,6 +108,11 @@ public class EncoderService extends Service {
      */
     private volatile long mininumSize;
 
+    /**
+     * Indicates if precompressed siblings of files should be served.
+     */
+    private volatile boolean precompressed;
+
     /**
      * Constructor.
      */
@@ -122,6 +133,8 @@ public class EncoderService extends Service {
                 getDefaultAcceptedMediaTypes());
         this.ignoredMediaTypes = new CopyOnWriteArrayList<MediaType>(
                 getDefaultIgnoredMediaTypes());
+        this.encodeCache = new EncodeCache(0);
+        this.precompressed = false;
     }
 
     /**
@@ -202,6 +215,15 @@ public class EncoderService extends Service {
         return this.acceptedMediaTypes;
     }
 
+    /**
+     * Returns the cache of encoded entities.
+     * 
+     * @return The cache of encoded entities.
+     */
+    public EncodeCache getEncodeCache() {
+        return this.encodeCache;
+    }
+
     /**
      * Returns the media types that should be ignored.
      * 
@@ -211,6 +233,17 @@ public class EncoderService extends Service {
         return this.ignoredMediaTypes;
     }
 
+    /**
+     * Returns the maximum number of bytes of encoded entities cached. Only the
+     * entities with a location, a tag or modification date and a known size
+     * are cached. Value is 0 by default, disabling the cache.
+     * 
+     * @return The maximum number of bytes of encoded entities cached.
+     */
+    public long getMaxCachedSize() {
+        return getEncodeCache().getMaxSize();
+    }
+
     /**
      * Returns the minimum size a representation must have before compression is
      * done.
@@ -222,6 +255,30 @@ public class EncoderService extends Service {
         return this.mininumSize;
     }
 
+    /**
+     * Indicates if precompressed siblings of files should be served. When the
+     * GZip encoding is selected for a file representation and a file with the
+     * same path plus a ".gz" extension exists and is at least as recent, it is
+     * served instead of compressing the original file. Value is false by
+     * default.
+     * 
+     * @return True if precompressed siblings of files should be served.
+     */
+    public boolean isPrecompressed() {
+        return this.precompressed;
+    }
+
+    /**
+     * Sets the maximum number of bytes of encoded entities cached. Zero
+     * disables the cache.
+     * 
+     * @param maxCachedSize
+     *            The maximum number of bytes of encoded entities cached.
+     */
+    public void setMaxCachedSize(long maxCachedSize) {
+        getEncodeCache().setMaxSize(maxCachedSize);
+    }
+
     /**
      * Sets the minimum size a representation must have before compression is
      * done.
@@ -234,4 +291,14 @@ public class EncoderService extends Service {
         this.mininumSize = mininumSize;
     }
 
+    /**
+     * Indicates if precompressed siblings of files should be served.
+     * 
+     * @param precompressed
+     *            True if precompressed siblings of files should be served.
+     */
+    public void setPrecompressed(boolean precompressed) {
+        this.precompressed = precompressed;
+    }
+
 }
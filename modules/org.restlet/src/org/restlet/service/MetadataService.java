@@ -34,7 +34,10 @@
 package org.restlet.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.restlet.data.CharacterSet;
@@ -49,7 +52,8 @@ import org.restlet.engine.application.MetadataExtension;
  * extension names. The list of default mappings is documented in the
  * {@link #addCommonExtensions()} method.<br>
  * <br>
- * Internally, the mappings are stored as a list of "extension, metadata" pairs.
+ * Internally, the mappings are stored as a list of "extension, metadata" pairs,
+ * indexed by extension name and by metadata for faster lookups.
  * 
  * @author Jerome Louvel
  */
@@ -66,9 +70,15 @@ public class MetadataService extends Service {
     /** The default media type for representations. */
     private volatile MediaType defaultMediaType;
 
+    /** The first extension name mapped to each metadata. */
+    private volatile Map<Metadata, String> extensionsByMetadata;
+
     /** The list of mappings between extension names and metadata. */
     private final List<MetadataExtension> mappings;
 
+    /** The ordered list of metadata mapped to each extension name. */
+    private volatile Map<String, List<Metadata>> metadataByExtension;
+
     /**
      * Constructor. Sets the default language to {@link Language#ENGLISH_US},
      * the default encoding to {@link Encoding#IDENTITY} (no encoding) and the
@@ -84,6 +94,8 @@ public class MetadataService extends Service {
         // [ifdef gwt] instruction uncomment
         // this.defaultMediaType = MediaType.APPLICATION_JSON;
         this.mappings = new CopyOnWriteArrayList<MetadataExtension>();
+        this.extensionsByMetadata = Collections.emptyMap();
+        this.metadataByExtension = Collections.emptyMap();
         addCommonExtensions();
     }
 
@@ -373,7 +385,10 @@ public class MetadataService extends Service {
         ext(dm, "xml", MediaType.APPLICATION_XML);
 
         // Add all those mappings
-        this.mappings.addAll(dm);
+        synchronized (this.mappings) {
+            this.mappings.addAll(dm);
+            updateIndexes();
+        }
     }
 
     /**
@@ -402,12 +417,17 @@ public class MetadataService extends Service {
      */
     public void addExtension(String extension, Metadata metadata,
             boolean preferred) {
-        if (preferred) {
-            // Add the mapping at the beginning of the list
-            this.mappings.add(0, new MetadataExtension(extension, metadata));
-        } else {
-            // Add the mapping at the end of the list
-            this.mappings.add(new MetadataExtension(extension, metadata));
+        synchronized (this.mappings) {
+            if (preferred) {
+                // Add the mapping at the beginning of the list
+                this.mappings
+                        .add(0, new MetadataExtension(extension, metadata));
+            } else {
+                // Add the mapping at the end of the list
+                this.mappings.add(new MetadataExtension(extension, metadata));
+            }
+
+            updateIndexes();
         }
     }
 
@@ -415,7 +435,10 @@ public class MetadataService extends Service {
      * clears the mappings for all extensions.
      */
     public void clearExtensions() {
-        this.mappings.clear();
+        synchronized (this.mappings) {
+            this.mappings.clear();
+            updateIndexes();
+        }
     }
 
     /**
@@ -490,15 +513,17 @@ public class MetadataService extends Service {
         List<CharacterSet> result = null;
 
         if (extension != null) {
-            // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())
-                        && (metadataExtension.getMetadata() instanceof CharacterSet)) {
-                    if (result == null) {
-                        result = new ArrayList<CharacterSet>();
-                    }
+            List<Metadata> metadata = this.metadataByExtension.get(extension);
+
+            if (metadata != null) {
+                for (Metadata item : metadata) {
+                    if (item instanceof CharacterSet) {
+                        if (result == null) {
+                            result = new ArrayList<CharacterSet>();
+                        }
 
-                    result.add(metadataExtension.getCharacterSet());
+                        result.add((CharacterSet) item);
+                    }
                 }
             }
         }
@@ -571,15 +596,17 @@ public class MetadataService extends Service {
         List<Language> result = null;
 
         if (extension != null) {
-            // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())
-                        && (metadataExtension.getMetadata() instanceof Language)) {
-                    if (result == null) {
-                        result = new ArrayList<Language>();
-                    }
+            List<Metadata> metadata = this.metadataByExtension.get(extension);
+
+            if (metadata != null) {
+                for (Metadata item : metadata) {
+                    if (item instanceof Language) {
+                        if (result == null) {
+                            result = new ArrayList<Language>();
+                        }
 
-                    result.add(metadataExtension.getLanguage());
+                        result.add((Language) item);
+                    }
                 }
             }
         }
@@ -617,15 +644,17 @@ public class MetadataService extends Service {
         List<MediaType> result = null;
 
         if (extension != null) {
-            // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())
-                        && (metadataExtension.getMetadata() instanceof MediaType)) {
-                    if (result == null) {
-                        result = new ArrayList<MediaType>();
-                    }
+            List<Metadata> metadata = this.metadataByExtension.get(extension);
+
+            if (metadata != null) {
+                for (Metadata item : metadata) {
+                    if (item instanceof MediaType) {
+                        if (result == null) {
+                            result = new ArrayList<MediaType>();
+                        }
 
-                    result.add(metadataExtension.getMediaType());
+                        result.add((MediaType) item);
+                    }
                 }
             }
         }
@@ -645,15 +674,10 @@ public class MetadataService extends Service {
         List<Metadata> result = null;
 
         if (extension != null) {
-            // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())) {
-                    if (result == null) {
-                        result = new ArrayList<Metadata>();
-                    }
+            List<Metadata> metadata = this.metadataByExtension.get(extension);
 
-                    result.add(metadataExtension.getMetadata());
-                }
+            if (metadata != null) {
+                result = new ArrayList<Metadata>(metadata);
             }
         }
 
@@ -751,15 +775,8 @@ public class MetadataService extends Service {
      * @return The first extension mapping to this metadata.
      */
     public String getExtension(Metadata metadata) {
-        if (metadata != null) {
-            // Look for the first registered convenient mapping.
-            for (final MetadataExtension metadataExtension : this.mappings) {
-                if (metadata.equals(metadataExtension.getMetadata())) {
-                    return metadataExtension.getName();
-                }
-            }
-        }
-        return null;
+        return (metadata == null) ? null : this.extensionsByMetadata
+                .get(metadata);
     }
 
     /**
@@ -822,11 +839,10 @@ public class MetadataService extends Service {
      */
     public Metadata getMetadata(String extension) {
         if (extension != null) {
-            // Look for the first registered convenient mapping.
-            for (final MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())) {
-                    return metadataExtension.getMetadata();
-                }
+            List<Metadata> metadata = this.metadataByExtension.get(extension);
+
+            if (metadata != null) {
+                return metadata.get(0);
             }
         }
 
@@ -897,4 +913,34 @@ public class MetadataService extends Service {
         this.defaultMediaType = defaultMediaType;
     }
 
+    /**
+     * Rebuilds the indexes of the mappings by extension name and by metadata,
+     * then publishes them. Must be called while holding the lock on the
+     * mappings list.
+     */
+    private void updateIndexes() {
+        Map<Metadata, String> extensions = new HashMap<Metadata, String>();
+        Map<String, List<Metadata>> metadata = new HashMap<String, List<Metadata>>();
+        List<Metadata> extensionMetadata;
+
+        for (MetadataExtension mapping : this.mappings) {
+            if ((mapping.getMetadata() != null)
+                    && !extensions.containsKey(mapping.getMetadata())) {
+                extensions.put(mapping.getMetadata(), mapping.getName());
+            }
+
+            extensionMetadata = metadata.get(mapping.getName());
+
+            if (extensionMetadata == null) {
+                extensionMetadata = new ArrayList<Metadata>(1);
+                metadata.put(mapping.getName(), extensionMetadata);
+            }
+
+            extensionMetadata.add(mapping.getMetadata());
+        }
+
+        this.extensionsByMetadata = extensions;
+        this.metadataByExtension = metadata;
+    }
+
 }
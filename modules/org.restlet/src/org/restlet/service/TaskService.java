@@ -33,9 +33,11 @@
 
 package org.restlet.service;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -44,9 +46,12 @@ import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.restlet.Application;
@@ -54,6 +59,7 @@ import org.restlet.Context;
 import org.restlet.Response;
 import org.restlet.engine.Engine;
 import org.restlet.engine.util.ContextualRunnable;
+import org.restlet.engine.util.SystemUtils;
 import org.restlet.routing.VirtualHost;
 
 /**
@@ -97,6 +103,94 @@ public class TaskService extends Service implements ScheduledExecutorService {
         }
     }
 
+    /**
+     * Scheduled executor service running immediate tasks on virtual threads
+     * while delayed and periodic tasks are triggered by a regular scheduled
+     * pool.
+     */
+    private static class VirtualThreadExecutorService extends
+            AbstractExecutorService implements ScheduledExecutorService {
+
+        /** The executor of immediate tasks, one virtual thread per task. */
+        private final ThreadPoolExecutor executor;
+
+        /** The scheduler of delayed and periodic tasks. */
+        private final ScheduledExecutorService scheduler;
+
+        /**
+         * Constructor.
+         * 
+         * @param scheduler
+         *            The scheduler of delayed and periodic tasks.
+         * @param virtualThreadFactory
+         *            The factory of virtual threads.
+         */
+        public VirtualThreadExecutorService(
+                ScheduledExecutorService scheduler,
+                ThreadFactory virtualThreadFactory) {
+            // Idle virtual threads are not kept as they are cheap to create
+            this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L,
+                    TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(),
+                    virtualThreadFactory);
+            this.scheduler = scheduler;
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            return this.scheduler.awaitTermination(timeout, unit)
+                    && this.executor.awaitTermination(
+                            deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public void execute(Runnable command) {
+            this.executor.execute(command);
+        }
+
+        public boolean isShutdown() {
+            return this.executor.isShutdown();
+        }
+
+        public boolean isTerminated() {
+            return this.scheduler.isTerminated()
+                    && this.executor.isTerminated();
+        }
+
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable,
+                long delay, TimeUnit unit) {
+            return this.scheduler.schedule(callable, delay, unit);
+        }
+
+        public ScheduledFuture<?> schedule(Runnable command, long delay,
+                TimeUnit unit) {
+            return this.scheduler.schedule(command, delay, unit);
+        }
+
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command,
+                long initialDelay, long period, TimeUnit unit) {
+            return this.scheduler.scheduleAtFixedRate(command, initialDelay,
+                    period, unit);
+        }
+
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
+                long initialDelay, long delay, TimeUnit unit) {
+            return this.scheduler.scheduleWithFixedDelay(command,
+                    initialDelay, delay, unit);
+        }
+
+        public void shutdown() {
+            this.scheduler.shutdown();
+            this.executor.shutdown();
+        }
+
+        public List<Runnable> shutdownNow() {
+            List<Runnable> result = new ArrayList<Runnable>(
+                    this.scheduler.shutdownNow());
+            result.addAll(this.executor.shutdownNow());
+            return result;
+        }
+    }
+
     /**
      * Wraps a JDK executor service to ensure that the threads executing the
      * tasks will have the thread local variables copied from the calling
@@ -245,6 +339,9 @@ public class TaskService extends Service implements ScheduledExecutorService {
     /** The core pool size defining the maximum number of threads. */
     private volatile int corePoolSize;
 
+    /** Indicates if immediate tasks should run on virtual threads. */
+    private volatile boolean virtualThreads;
+
     /**
      * Constructor. Enables the service and set the core pool size to 4 by
      * default.
@@ -275,6 +372,7 @@ public class TaskService extends Service implements ScheduledExecutorService {
         super(enabled);
         this.corePoolSize = corePoolSize;
         this.shutdownAllowed = false;
+        this.virtualThreads = false;
     }
 
     /**
@@ -307,16 +405,35 @@ public class TaskService extends Service implements ScheduledExecutorService {
 
     /**
      * Creates a new JDK executor service that will be wrapped. By default it
-     * calls {@link Executors#newCachedThreadPool(ThreadFactory)}, passing the
-     * result of {@link #createThreadFactory()} as a parameter.
+     * calls {@link Executors#newScheduledThreadPool(int, ThreadFactory)},
+     * passing the result of {@link #createThreadFactory()} as a parameter.<br>
+     * <br>
+     * If {@link #isVirtualThreads()} is true and the Java Runtime Environment
+     * supports virtual threads, tasks submitted for immediate execution run on
+     * a new virtual thread each, created by
+     * {@link #createVirtualThreadFactory()}, while delayed and periodic tasks
+     * are still triggered by the scheduled pool.
      * 
      * @param corePoolSize
      *            The core pool size defining the maximum number of threads.
      * @return A new JDK executor service.
      */
     protected ScheduledExecutorService createExecutorService(int corePoolSize) {
-        return Executors.newScheduledThreadPool(corePoolSize,
-                createThreadFactory());
+        ScheduledExecutorService result = Executors.newScheduledThreadPool(
+                corePoolSize, createThreadFactory());
+
+        if (isVirtualThreads()) {
+            if (SystemUtils.isVirtualThreadsSupported()) {
+                result = new VirtualThreadExecutorService(result,
+                        createVirtualThreadFactory());
+            } else {
+                Context.getCurrentLogger()
+                        .warning(
+                                "Virtual threads aren't supported by this Java Runtime Environment. Using platform threads instead.");
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -329,6 +446,26 @@ public class TaskService extends Service implements ScheduledExecutorService {
         return new RestletThreadFactory();
     }
 
+    /**
+     * Creates a new factory of virtual threads that will name the Restlet
+     * created threads with a "restlet-virtual-" prefix. Only used when
+     * {@link #isVirtualThreads()} is true.
+     * 
+     * @return A new factory of virtual threads.
+     */
+    protected ThreadFactory createVirtualThreadFactory() {
+        final ThreadFactory factory = SystemUtils.getVirtualThreadFactory();
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        return new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread t = factory.newThread(runnable);
+                t.setName("restlet-virtual-" + threadNumber.getAndIncrement());
+                return t;
+            }
+        };
+    }
+
     /**
      * Executes the given command asynchronously.
      * 
@@ -598,6 +735,18 @@ public class TaskService extends Service implements ScheduledExecutorService {
                 delay, unit);
     }
 
+    /**
+     * Indicates if tasks submitted for immediate execution should run on
+     * virtual threads instead of the core pool threads. Requires a Java Runtime
+     * Environment supporting virtual threads (Java 21 or later), otherwise
+     * platform threads are used. Default value is false.
+     * 
+     * @return True if immediate tasks should run on virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     /**
      * Sets the core pool size defining the maximum number of threads.
      * 
@@ -619,6 +768,17 @@ public class TaskService extends Service implements ScheduledExecutorService {
         this.shutdownAllowed = allowShutdown;
     }
 
+    /**
+     * Indicates if tasks submitted for immediate execution should run on
+     * virtual threads. Takes effect the next time the service is started.
+     * 
+     * @param virtualThreads
+     *            True if immediate tasks should run on virtual threads.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Sets the wrapped JDK executor service.
      * 
@@ -33,10 +33,12 @@
 
 package org.restlet.util;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.restlet.Request;
 import org.restlet.Response;
@@ -50,22 +52,65 @@ import org.restlet.routing.Route;
  * {@link List}, in particular all the helper methods in {@link Collections}.<br>
  * <br>
  * Note that structural changes to this list are thread-safe, using an
- * underlying {@link CopyOnWriteArrayList}.
+ * underlying {@link CopyOnWriteArrayList}. The selection of routes doesn't
+ * acquire any lock, relying on an immutable snapshot of the routes that is
+ * updated after each structural change.
  * 
  * @author Jerome Louvel
  * @see java.util.Collections
  * @see java.util.List
  */
 public final class RouteList extends WrapperList<Route> {
+
+    /**
+     * Immutable snapshot of the routes, associated to the modification count
+     * of the list when it was taken.
+     */
+    private static final class Snapshot {
+
+        /** The modification count of the list when the snapshot was taken. */
+        private final int modificationCount;
+
+        /** The routes. */
+        private final Route[] routes;
+
+        /**
+         * Constructor.
+         * 
+         * @param modificationCount
+         *            The modification count of the list.
+         * @param routes
+         *            The routes.
+         */
+        private Snapshot(int modificationCount, Route[] routes) {
+            this.modificationCount = modificationCount;
+            this.routes = routes;
+        }
+    }
+
     /** The index of the last route used in the round robin mode. */
-    private volatile int lastIndex;
+    private final AtomicInteger lastIndex;
+
+    /** The number of structural modifications of the list. */
+    private volatile int modificationCount;
+
+    /** The parent list if this list is a view of a portion of it. */
+    private final RouteList parent;
+
+    /** The random generator used by the random mode. */
+    private final Random random;
+
+    /** The current snapshot of the routes. */
+    private volatile Snapshot snapshot;
 
     /**
      * Constructor.
      */
     public RouteList() {
         super(new CopyOnWriteArrayList<Route>());
-        this.lastIndex = -1;
+        this.lastIndex = new AtomicInteger(-1);
+        this.parent = null;
+        this.random = new Random();
     }
 
     /**
@@ -76,7 +121,57 @@ public final class RouteList extends WrapperList<Route> {
      */
     public RouteList(List<Route> delegate) {
         super(new CopyOnWriteArrayList<Route>(delegate));
-        this.lastIndex = -1;
+        this.lastIndex = new AtomicInteger(-1);
+        this.parent = null;
+        this.random = new Random();
+    }
+
+    /**
+     * Constructor for views of a portion of a parent list.
+     * 
+     * @param parent
+     *            The parent list.
+     * @param view
+     *            The view of the parent delegate list.
+     */
+    private RouteList(RouteList parent, List<Route> view) {
+        super(view);
+        this.lastIndex = new AtomicInteger(-1);
+        this.parent = parent;
+        this.random = new Random();
+    }
+
+    @Override
+    public boolean add(Route element) {
+        boolean result = super.add(element);
+        modified();
+        return result;
+    }
+
+    @Override
+    public void add(int index, Route element) {
+        super.add(index, element);
+        modified();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Route> elements) {
+        boolean result = super.addAll(elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Route> elements) {
+        boolean result = super.addAll(index, elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        modified();
     }
 
     /**
@@ -141,12 +236,13 @@ public final class RouteList extends WrapperList<Route> {
      *            The minimum score required to have a match.
      * @return The last route match or null.
      */
-    public synchronized Route getLast(Request request, Response response,
+    public Route getLast(Request request, Response response,
             float requiredScore) {
-        for (int j = size() - 1; (j >= 0); j--) {
-            final Route route = get(j);
-            if (route.score(request, response) >= requiredScore) {
-                return route;
+        Route[] routes = getRoutes();
+
+        for (int j = routes.length - 1; (j >= 0); j--) {
+            if (routes[j].score(request, response) >= requiredScore) {
+                return routes[j];
             }
         }
 
@@ -154,6 +250,68 @@ public final class RouteList extends WrapperList<Route> {
         return null;
     }
 
+    /**
+     * Returns the least loaded route match for a given call. The load of each
+     * route is its number of calls being handled divided by its weight. Routes
+     * with a weight of zero or less are ignored. When several routes have the
+     * same load, they are selected in a round robin mode.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The least loaded route or null.
+     * @see Route#getWeight()
+     * @see Route#getPendingCalls()
+     */
+    public Route getLeastLoaded(Request request, Response response,
+            float requiredScore) {
+        Route[] routes = getRoutes();
+        int length = routes.length;
+        Route result = null;
+
+        if (length > 0) {
+            int start = (this.lastIndex.incrementAndGet() & Integer.MAX_VALUE)
+                    % length;
+            long resultPending = 0L;
+            long resultWeight = 0L;
+            Route route;
+
+            for (int i = 0; i < length; i++) {
+                route = routes[(start + i) % length];
+
+                // Compare the pending / weight ratios without division
+                long weight = route.getWeight();
+                long pending = route.getPendingCalls();
+                long load = pending * resultWeight;
+                long resultLoad = resultPending * weight;
+
+                if ((weight > 0) && ((result == null) || (load < resultLoad))) {
+                    if (route.score(request, response) >= requiredScore) {
+                        result = route;
+                        resultPending = pending;
+                        resultWeight = weight;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of structural modifications of the list. This allows
+     * structures derived from the list of routes, such as indexes, to detect
+     * that they must be rebuilt.
+     * 
+     * @return The number of structural modifications of the list.
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
     /**
      * Returns a next route match in a round robin mode for a given call.
      * 
@@ -165,17 +323,26 @@ public final class RouteList extends WrapperList<Route> {
      *            The minimum score required to have a match.
      * @return A next route or null.
      */
-    public synchronized Route getNext(Request request, Response response,
+    public Route getNext(Request request, Response response,
             float requiredScore) {
-        if (!isEmpty()) {
-            for (final int initialIndex = this.lastIndex++; initialIndex != this.lastIndex; this.lastIndex++) {
-                if (this.lastIndex >= size()) {
-                    this.lastIndex = 0;
-                }
+        Route[] routes = getRoutes();
+        int length = routes.length;
 
-                final Route route = get(this.lastIndex);
-                if (route.score(request, response) >= requiredScore) {
-                    return route;
+        if (length > 0) {
+            int initialIndex = this.lastIndex.incrementAndGet();
+            int index;
+
+            for (int i = 0; i < length; i++) {
+                index = ((initialIndex + i) & Integer.MAX_VALUE) % length;
+
+                if (routes[index].score(request, response) >= requiredScore) {
+                    if (i > 0) {
+                        // Resume after the selected route on the next call
+                        this.lastIndex.compareAndSet(initialIndex,
+                                initialIndex + i);
+                    }
+
+                    return routes[index];
                 }
             }
         }
@@ -197,38 +364,81 @@ public final class RouteList extends WrapperList<Route> {
      *            The minimum score required to have a match.
      * @return A random route or null.
      */
-    public synchronized Route getRandom(Request request, Response response,
+    public Route getRandom(Request request, Response response,
             float requiredScore) {
-        int length = size();
+        Route[] routes = getRoutes();
+        int length = routes.length;
 
         if (length > 0) {
-            int j = new Random().nextInt(length);
-            Route route = get(j);
-
-            if (route.score(request, response) >= requiredScore) {
-                return route;
-            }
-
-            boolean loopedAround = false;
-
-            do {
-                if ((j == length) && (loopedAround == false)) {
-                    j = 0;
-                    loopedAround = true;
-                }
+            int j = this.random.nextInt(length);
 
-                route = get(j++);
+            for (int i = 0; i < length; i++) {
+                Route route = routes[(j + i) % length];
 
                 if (route.score(request, response) >= requiredScore) {
                     return route;
                 }
-            } while ((j < length) || !loopedAround);
+            }
         }
 
         // No match found
         return null;
     }
 
+    /**
+     * Returns an immutable snapshot of the routes, taken again after each
+     * structural change of the list.
+     * 
+     * @return An immutable snapshot of the routes.
+     */
+    private Route[] getRoutes() {
+        Snapshot result = this.snapshot;
+        int count = this.modificationCount;
+
+        if ((result == null) || (result.modificationCount != count)) {
+            // Read the count before the routes so that the snapshot is never
+            // older than its modification count
+            result = new Snapshot(count, getDelegate().toArray(new Route[0]));
+            this.snapshot = result;
+        }
+
+        return result.routes;
+    }
+
+    /**
+     * Records a structural modification of the list, and of its parent list
+     * if it is a view of a portion of it, so that their snapshots and derived
+     * structures are refreshed.
+     */
+    private void modified() {
+        this.modificationCount++;
+
+        if (this.parent != null) {
+            this.parent.modified();
+        }
+    }
+
+    @Override
+    public Route remove(int index) {
+        Route result = super.remove(index);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        boolean result = super.remove(element);
+        modified();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        boolean result = super.removeAll(elements);
+        modified();
+        return result;
+    }
+
     /**
      * Removes all routes routing to a given target.
      * 
@@ -243,9 +453,24 @@ public final class RouteList extends WrapperList<Route> {
         }
     }
 
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        boolean result = super.retainAll(elements);
+        modified();
+        return result;
+    }
+
+    @Override
+    public Route set(int index, Route element) {
+        Route result = super.set(index, element);
+        modified();
+        return result;
+    }
+
     /**
      * Returns a view of the portion of this list between the specified
-     * fromIndex, inclusive, and toIndex, exclusive.
+     * fromIndex, inclusive, and toIndex, exclusive. Structural changes made
+     * through the view are reflected in this list and refresh its snapshot.
      * 
      * @param fromIndex
      *            The start position.
@@ -255,6 +480,6 @@ public final class RouteList extends WrapperList<Route> {
      */
     @Override
     public RouteList subList(int fromIndex, int toIndex) {
-        return new RouteList(getDelegate().subList(fromIndex, toIndex));
+        return new RouteList(this, getDelegate().subList(fromIndex, toIndex));
     }
 }